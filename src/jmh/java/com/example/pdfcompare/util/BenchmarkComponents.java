@@ -0,0 +1,55 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Wires the comparison components by hand, the way the Spring context does, so benchmarks
+ * measure the production code paths without starting the application.
+ */
+final class BenchmarkComponents {
+
+    final ComparisonProperties properties = new ComparisonProperties();
+    final ComparisonMetrics metrics = new ComparisonMetrics(new SimpleMeterRegistry());
+    final PDFHighlighter highlighter = new PDFHighlighter();
+    final PDFTextExtractor textExtractor = new PDFTextExtractor();
+    final PDFImageExtractor imageExtractor = new PDFImageExtractor(HashUtilityClass::murmur3x128, properties);
+    final PDFPageContentExtractor pageContentExtractor = new PDFPageContentExtractor(textExtractor, imageExtractor,
+            metrics);
+    final TextComparator textComparator = new TextComparator(highlighter);
+    final ImageComparator imageComparator = new ImageComparator(highlighter, properties);
+
+    BenchmarkComponents() {
+        // Repeated invocations would otherwise be served from the page content cache.
+        properties.setPageCacheSize(0);
+    }
+
+    EqualityComparator equalityComparator() {
+        PageHasher pageHasher = new PageHasher();
+        PDFPageComparator pageComparator = new PDFPageComparator(textComparator, imageComparator, highlighter,
+                pageContentExtractor, pageHasher, new PageContentCache(properties), metrics);
+        return new EqualityComparator(pageComparator, imageComparator, pageHasher, metrics);
+    }
+
+    ReportComparator reportComparator() {
+        PageHasher pageHasher = new PageHasher();
+        PDFPageComparator pageComparator = new PDFPageComparator(textComparator, imageComparator, highlighter,
+                pageContentExtractor, pageHasher, new PageContentCache(properties), metrics);
+        return new ReportComparator(pageComparator, new PageAligner(pageHasher, pageComparator), textComparator,
+                imageComparator, pageHasher, properties, metrics);
+    }
+
+    PDFComparator pdfComparator(ExecutorService pageComparisonExecutor) {
+        PageHasher pageHasher = new PageHasher();
+        PDFPageComparator pageComparator = new PDFPageComparator(textComparator, imageComparator, highlighter,
+                pageContentExtractor, pageHasher, new PageContentCache(properties), metrics);
+        DocumentComparator documentComparator = new DocumentComparator(pageComparator, highlighter, metrics);
+        PageAligner pageAligner = new PageAligner(pageHasher, pageComparator);
+        RasterComparator rasterComparator = new RasterComparator(highlighter, pageHasher, properties, metrics);
+        return new PDFComparator(pageComparator, documentComparator, pageAligner, rasterComparator, highlighter,
+                properties, pageComparisonExecutor, metrics);
+    }
+
+}
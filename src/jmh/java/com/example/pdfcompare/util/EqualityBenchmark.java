@@ -0,0 +1,76 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.EqualityResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks a document against an equal one with {@link EqualityComparator}, against the full
+ * {@link PDFComparator} comparison of the same pair. A regenerated document has the same pages
+ * but a different ID and dates, so its file differs; a copy is byte for byte the same.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class EqualityBenchmark {
+
+    public enum Revision { REGENERATED, COPY }
+
+    @Param({"50", "200"})
+    int pages;
+
+    @Param({"REGENERATED", "COPY"})
+    Revision revision;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private ExecutorService executor;
+    private PDFComparator pdfComparator;
+    private EqualityComparator equalityComparator;
+    private byte[] pdf1;
+    private byte[] pdf2;
+
+    @Setup
+    public void setUp() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        pdfComparator = components.pdfComparator(executor);
+        equalityComparator = components.equalityComparator();
+        pdf1 = SyntheticPdfs.generate(pages, 300, 2, 42, 0);
+        pdf2 = revision == Revision.COPY ? pdf1.clone() : SyntheticPdfs.generate(pages, 300, 2, 42, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public EqualityResult equality() throws Exception {
+        return equalityComparator.compare(pdf1, pdf2);
+    }
+
+    @Benchmark
+    public void comparePDFs() throws Exception {
+        pdfComparator.comparePDFs(new ByteArrayInputStream(pdf1), new ByteArrayInputStream(pdf2),
+                OutputStream.nullOutputStream(), true);
+    }
+
+}
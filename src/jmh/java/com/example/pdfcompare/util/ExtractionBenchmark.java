@@ -0,0 +1,81 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.pdf.PdfReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page extraction of words and images, separately and in a single content-stream pass.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractionBenchmark {
+
+    @Param({"100", "1000"})
+    int wordsPerPage;
+
+    @Param({"0", "4"})
+    int imagesPerPage;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private PdfReader reader;
+
+    @Setup
+    public void setUp() throws Exception {
+        reader = new PdfReader(SyntheticPdfs.generate(1, wordsPerPage, imagesPerPage, 42, 0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        reader.close();
+    }
+
+    @Benchmark
+    public PageText extractWords() throws Exception {
+        return components.textExtractor.extractWords(reader, 1);
+    }
+
+    @Benchmark
+    public List<ImageChunk> extractImages() throws Exception {
+        return components.imageExtractor.extractImages(reader, 1);
+    }
+
+    /**
+     * Words and images with one extractor after the other, parsing the page twice.
+     */
+    @Benchmark
+    public void extractWordsThenImages(Blackhole blackhole) throws Exception {
+        blackhole.consume(components.textExtractor.extractWords(reader, 1));
+        blackhole.consume(components.imageExtractor.extractImages(reader, 1));
+    }
+
+    /**
+     * Words and images from a single parse of the page.
+     */
+    @Benchmark
+    public PageContent extractPage() throws Exception {
+        return components.pageContentExtractor.extractPage(reader, 1);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.ImageHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image hashing, from small icons to full-page scans: the default MurmurHash3, the MD5 that can
+ * still be selected, and the hex-string MD5 images were fingerprinted with before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashUtilityClassBenchmark {
+
+    @Param({"4096", "1048576"})
+    int size;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+    }
+
+    @Benchmark
+    public ImageHash murmur3x128() {
+        return HashUtilityClass.murmur3x128(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public ImageHash md5() {
+        return HashUtilityClass.md5(bytes, 0, bytes.length);
+    }
+
+    @Benchmark
+    public String legacyMd5Hex() {
+        try {
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            byte[] hash = md.digest(bytes);
+            StringBuilder hex = new StringBuilder(new BigInteger(1, hash).toString(16));
+            while (hex.length() < 32) {
+                hex.insert(0, '0');
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Arrays.toString(bytes);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties.ImageHashSource;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image extraction of a whole document whose pages all carry the same logo next to an image of
+ * their own, with decoded and raw stream hashing. A new reader is opened per invocation, so the
+ * raw stream hashes memoized per document are not carried over between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageHashSourceBenchmark {
+
+    @Param({"20"})
+    int pages;
+
+    @Param({"DECODED", "RAW_STREAM"})
+    ImageHashSource imageHashSource;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private byte[] pdf;
+
+    @Setup
+    public void setUp() throws Exception {
+        components.properties.setImageHashSource(imageHashSource);
+        Random random = new Random(42);
+        Image logo = image(random, 256);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int page = 0; page < pages; page++) {
+            if (page > 0) {
+                document.newPage();
+            }
+            document.add(logo);
+            document.add(image(random, 32));
+        }
+        document.close();
+        pdf = baos.toByteArray();
+    }
+
+    @Benchmark
+    public void extractImages(Blackhole blackhole) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            for (int page = 1; page <= pages; page++) {
+                blackhole.consume(components.imageExtractor.extractImages(reader, page));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Image image(Random random, int size) throws Exception {
+        byte[] pixels = new byte[size * size * 3];
+        random.nextBytes(pixels);
+        Image image = Image.getInstance(size, size, 3, 8, pixels);
+        image.scaleAbsolute(96, 96);
+        return image;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties.ImageMatching;
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageHighlights;
+import com.itextpdf.text.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image comparison of a page with many images, all re-encoded in the second document so that
+ * none matches exactly, with exact and perceptual matching. {@link #linearScan} matches the
+ * perceptual hashes without the Hamming index, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageMatchingBenchmark {
+
+    @Param({"100", "2000"})
+    int images;
+
+    @Param({"EXACT", "PERCEPTUAL"})
+    ImageMatching imageMatching;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private List<ImageChunk> images1;
+    private List<ImageChunk> images2;
+
+    @Setup
+    public void setUp() {
+        components.properties.setImageMatching(imageMatching);
+        Random random = new Random(42);
+        images1 = new ArrayList<>(images);
+        images2 = new ArrayList<>(images);
+        for (int i = 0; i < images; i++) {
+            Rectangle rectangle = new Rectangle(0, i, 10, i + 10);
+            long perceptualHash = random.nextLong();
+            images1.add(new ImageChunk(new ImageHash(random.nextLong(), random.nextLong()), rectangle, perceptualHash));
+            images2.add(new ImageChunk(new ImageHash(random.nextLong(), random.nextLong()), rectangle,
+                    perceptualHash ^ (1L << random.nextInt(64)) ^ (1L << random.nextInt(64))));
+        }
+    }
+
+    @Benchmark
+    public int compareImages() {
+        return components.imageComparator.compareImages(new PageHighlights(), images1, images2, 0, true);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        boolean[] matched = new boolean[images1.size()];
+        int threshold = components.properties.getPerceptualHashThreshold();
+        int matches = 0;
+        for (ImageChunk image : images2) {
+            int best = -1;
+            int bestDistance = threshold + 1;
+            for (int i = 0; i < images1.size(); i++) {
+                int distance = PerceptualHash.distance(image.perceptualHash(), images1.get(i).perceptualHash());
+                if (!matched[i] && distance < bestDistance) {
+                    best = i;
+                    bestDistance = distance;
+                }
+            }
+            if (best >= 0) {
+                matched[best] = true;
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties.InputMode;
+import com.example.pdfcompare.config.ComparisonProperties.DiffMode;
+import com.example.pdfcompare.config.ComparisonProperties.TextDiffScope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end comparison of a document against a revision with 5% of its words replaced.
+ * Run with {@code -prof gc} to compare the allocation rate of in-memory and disk-backed inputs,
+ * and with {@code -p textDiffScope=PAGE,DOCUMENT} to compare both text diff scopes.
+ * {@link #compareReport()} reports the same changes as JSON-ready objects instead of a PDF.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class PDFComparatorBenchmark {
+
+    @Param({"1", "10", "50"})
+    int pages;
+
+    @Param({"1", "4"})
+    int parallelism;
+
+    @Param({"MEMORY", "DISK"})
+    InputMode inputMode;
+
+    @Param({"PAGE"})
+    TextDiffScope textDiffScope;
+
+    @Param({"CONTENT"})
+    DiffMode diffMode;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private ExecutorService executor;
+    private PDFComparator comparator;
+    private ReportComparator reportComparator;
+    private byte[] pdf1;
+    private byte[] pdf2;
+    private Path file1;
+    private Path file2;
+
+    @Setup
+    public void setUp() throws Exception {
+        components.properties.setParallelism(parallelism);
+        components.properties.setTextDiffScope(textDiffScope);
+        components.properties.setDiffMode(diffMode);
+        executor = Executors.newFixedThreadPool(parallelism);
+        comparator = components.pdfComparator(executor);
+        reportComparator = components.reportComparator();
+        pdf1 = SyntheticPdfs.generate(pages, 300, 2, 42, 0);
+        pdf2 = SyntheticPdfs.generate(pages, 300, 2, 42, 0.05);
+        file1 = Files.write(Files.createTempFile("pdfcompare-benchmark-", ".pdf"), pdf1);
+        file2 = Files.write(Files.createTempFile("pdfcompare-benchmark-", ".pdf"), pdf2);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        Files.deleteIfExists(file1);
+        Files.deleteIfExists(file2);
+    }
+
+    @Benchmark
+    public void comparePDFs() throws Exception {
+        if (inputMode == InputMode.DISK) {
+            comparator.comparePDFs(PdfSource.of(file1), PdfSource.of(file2), OutputStream.nullOutputStream(), true);
+        } else {
+            comparator.comparePDFs(new ByteArrayInputStream(pdf1), new ByteArrayInputStream(pdf2),
+                    OutputStream.nullOutputStream(), true);
+        }
+    }
+
+    @Benchmark
+    public Object compareReport() throws Exception {
+        if (inputMode == InputMode.DISK) {
+            return reportComparator.comparePDFs(PdfSource.of(file1), PdfSource.of(file2));
+        }
+        return reportComparator.comparePDFs(PdfSource.of(pdf1), PdfSource.of(pdf2));
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageHighlights;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing a page worth of highlight rectangles. The writer keeps every graphics state it is
+ * given, so each measured batch gets a fresh document instead of a time-bounded iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = 50)
+@Measurement(iterations = 20, batchSize = 50)
+@Fork(1)
+public class PDFHighlighterBenchmark {
+
+    @Param({"20", "200", "3000"})
+    int rectangles;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private final List<Rectangle> boxes = new ArrayList<>();
+    private Document document;
+    private PdfContentByte cb;
+
+    @Setup
+    public void setUpRectangles() {
+        for (int i = 0; i < rectangles; i++) {
+            boxes.add(new Rectangle(i % 12 * 40, i / 12 * 5, i % 12 * 40 + 30, i / 12 * 5 + 4));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpDocument() throws Exception {
+        document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, OutputStream.nullOutputStream());
+        document.open();
+        cb = writer.getDirectContent();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownDocument() {
+        // The page is left empty by the resets, so the document is discarded rather than closed.
+        document = null;
+        cb = null;
+    }
+
+    @Benchmark
+    public PdfContentByte drawRectangle() {
+        for (Rectangle box : boxes) {
+            components.highlighter.drawRectangle(cb, box, BaseColor.GREEN, 0);
+        }
+        cb.reset();
+        return cb;
+    }
+
+    /**
+     * The path taken by comparisons: highlights are recorded first and rendered onto the page afterwards.
+     */
+    @Benchmark
+    public PdfContentByte recordAndRender() {
+        PageHighlights highlights = new PageHighlights();
+        for (Rectangle box : boxes) {
+            components.highlighter.drawRectangle(highlights, box, BaseColor.GREEN, 0);
+        }
+        components.highlighter.render(cb, highlights);
+        cb.reset();
+        return cb;
+    }
+
+}
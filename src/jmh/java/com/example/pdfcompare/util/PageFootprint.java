@@ -0,0 +1,41 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageContent;
+import com.itextpdf.text.pdf.PdfReader;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the heap retained by the extracted words of 1,000 pages, which is what the page
+ * content cache and in-flight comparisons hold on to. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Djmh.main=com.example.pdfcompare.util.PageFootprint -Djmh.args=1000}
+ * where the argument is the number of words per page.
+ */
+public final class PageFootprint {
+
+    private static final int PAGES = 1000;
+
+    private PageFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int wordsPerPage = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        BenchmarkComponents components = new BenchmarkComponents();
+        PdfReader reader = new PdfReader(SyntheticPdfs.generate(PAGES, wordsPerPage, 0, 42, 0));
+        List<Object> words = new ArrayList<>(PAGES);
+        long wordCount = 0;
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            PageContent content = components.pageContentExtractor.extractPage(reader, page);
+            words.add(content.words());
+            wordCount += content.words().size();
+        }
+        reader.close();
+
+        long bytes = GraphLayout.parseInstance(words.toArray()).totalSize();
+        System.out.printf("%d pages, %d words: %,d bytes (%.1f bytes/word)%n",
+                PAGES, wordCount, bytes, (double) bytes / wordCount);
+    }
+
+}
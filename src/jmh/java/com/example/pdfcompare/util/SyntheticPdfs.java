@@ -0,0 +1,68 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+/**
+ * Generates benchmark input documents. The same seed always produces the same document, and
+ * a non-zero edit rate produces a revision of it with that fraction of words replaced.
+ */
+final class SyntheticPdfs {
+
+    private static final String[] VOCABULARY = {
+            "agreement", "party", "shall", "payment", "within", "days", "invoice", "term", "notice", "the",
+            "of", "and", "to", "in", "any", "such", "written", "consent", "provided", "that", "section",
+            "liability", "service", "data", "customer", "supplier", "period", "fee", "rate", "annual"
+    };
+
+    // Small enough that up to 1000 words and 8 images fit on one A4 page.
+    private static final Font FONT = new Font(Font.FontFamily.HELVETICA, 4);
+
+    private SyntheticPdfs() {
+    }
+
+    static byte[] generate(int pages, int wordsPerPage, int imagesPerPage, long seed, double editRate)
+            throws DocumentException {
+        Random content = new Random(seed);
+        Random edits = new Random(seed + 1);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int page = 0; page < pages; page++) {
+            if (page > 0) {
+                document.newPage();
+            }
+            StringBuilder text = new StringBuilder();
+            for (int word = 0; word < wordsPerPage; word++) {
+                String next = VOCABULARY[content.nextInt(VOCABULARY.length)];
+                text.append(edits.nextDouble() < editRate ? "edited" : next)
+                        .append(word % 12 == 11 ? '\n' : ' ');
+            }
+            document.add(new Paragraph(text.toString(), FONT));
+            for (int i = 0; i < imagesPerPage; i++) {
+                document.add(image(content));
+            }
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static Image image(Random random) throws DocumentException {
+        int size = 32;
+        byte[] pixels = new byte[size * size * 3];
+        random.nextBytes(pixels);
+        Image image = Image.getInstance(size, size, 3, 8, pixels);
+        image.scaleAbsolute(24, 24);
+        return image;
+    }
+
+}
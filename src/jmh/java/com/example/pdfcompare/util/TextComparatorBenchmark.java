@@ -0,0 +1,64 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.Rectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word diff of one page against a revision with a fraction of its words replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextComparatorBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int words;
+
+    @Param({"0.001", "0.01", "0.1"})
+    double editRate;
+
+    private final BenchmarkComponents components = new BenchmarkComponents();
+    private PageText words1;
+    private PageText words2;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        PageText.Builder builder1 = PageText.builder();
+        PageText.Builder builder2 = PageText.builder();
+        for (int i = 0; i < words; i++) {
+            Rectangle rectangle = new Rectangle(i % 12 * 40, i / 12 * 5, i % 12 * 40 + 30, i / 12 * 5 + 4);
+            String word = "word" + random.nextInt(500);
+            builder1.add(word, rectangle);
+            builder2.add(random.nextDouble() < editRate ? "edited" : word, rectangle);
+        }
+        words1 = builder1.build();
+        words2 = builder2.build();
+    }
+
+    @Benchmark
+    public PageHighlights compareText() {
+        PageHighlights highlights = new PageHighlights();
+        components.textComparator.compareText(highlights, words1, words2, 595, true);
+        return highlights;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.pdf.PdfReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word extraction from a text-dense page, reported per word: with {@code -prof gc},
+ * {@code gc.alloc.rate.norm} is the number of bytes allocated per extracted word.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizerBenchmark {
+
+    private static final int WORDS = 1000;
+
+    private final PDFTextExtractor textExtractor = new PDFTextExtractor();
+    private PdfReader reader;
+
+    @Setup
+    public void setUp() throws Exception {
+        reader = new PdfReader(SyntheticPdfs.generate(1, WORDS, 0, 42, 0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        reader.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public PageText extractWords() throws Exception {
+        return textExtractor.extractWords(reader, 1);
+    }
+
+}
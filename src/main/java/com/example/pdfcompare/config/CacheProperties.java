@@ -0,0 +1,40 @@
+package com.example.pdfcompare.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "pdfcompare.cache")
+public class CacheProperties {
+
+    /**
+     * Whether comparison results are cached, keyed on the content hashes of both inputs.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Upper bound of the in-heap tier. Zero disables the tier.
+     */
+    private DataSize memoryMaxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Upper bound of the on-disk tier. Zero disables the tier.
+     */
+    private DataSize diskMaxSize = DataSize.ofGigabytes(1);
+
+    /**
+     * Directory holding the on-disk tier.
+     */
+    private Path diskDirectory = Path.of(System.getProperty("java.io.tmpdir"), "pdfcompare-cache");
+
+    /**
+     * Results larger than this are never cached.
+     */
+    private DataSize maxEntrySize = DataSize.ofMegabytes(32);
+
+}
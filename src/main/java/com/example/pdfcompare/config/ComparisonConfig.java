@@ -0,0 +1,43 @@
+package com.example.pdfcompare.config;
+
+import com.example.pdfcompare.util.HashUtilityClass;
+import com.example.pdfcompare.util.ImageHashFunction;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration
+@EnableConfigurationProperties({ComparisonProperties.class, CacheProperties.class, JobProperties.class})
+public class ComparisonConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService pageComparisonExecutor(ComparisonProperties comparisonProperties) {
+        return Executors.newFixedThreadPool(Math.max(1, comparisonProperties.getParallelism()),
+                new CustomizableThreadFactory("page-compare-"));
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService comparisonCpuExecutor(ComparisonProperties comparisonProperties) {
+        return Executors.newFixedThreadPool(Math.max(1, comparisonProperties.getCpuThreads()),
+                new CustomizableThreadFactory("compare-cpu-"));
+    }
+
+    @Bean
+    public ImageHashFunction imageHashFunction(ComparisonProperties comparisonProperties) {
+        return switch (comparisonProperties.getImageHashAlgorithm()) {
+            case MURMUR3_128 -> HashUtilityClass::murmur3x128;
+            case MD5 -> HashUtilityClass::md5;
+        };
+    }
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService comparisonJobExecutor(JobProperties jobProperties) {
+        return Executors.newFixedThreadPool(Math.max(1, jobProperties.getWorkers()),
+                new CustomizableThreadFactory("comparison-job-"));
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.example.pdfcompare.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "pdfcompare.comparison")
+public class ComparisonProperties {
+
+    /**
+     * Number of worker threads comparing pages of a single document concurrently.
+     * A value of 1 compares pages sequentially on the request thread.
+     */
+    private int parallelism = 1;
+
+    /**
+     * Where uploaded PDFs are held while they are compared.
+     */
+    private InputMode inputMode = InputMode.MEMORY;
+
+    /**
+     * Directory uploads are spooled to in {@link InputMode#DISK} mode. Defaults to the system temp directory.
+     */
+    private Path spoolDirectory;
+
+    /**
+     * Maximum number of extracted pages kept in memory, keyed by page content hash. 0 disables the cache.
+     */
+    private int pageCacheSize = 256;
+
+    /**
+     * Size of the platform-thread pool that comparisons are handed off to from the request thread.
+     * 0 compares on the request thread. Meant to be used with {@code spring.threads.virtual.enabled},
+     * so request threads only wait on I/O and CPU-bound work is bounded by this pool.
+     */
+    private int cpuThreads = 0;
+
+    /**
+     * How long a request waits for a free comparison thread before it is rejected.
+     */
+    private Duration cpuAcquireTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Whether pages are compared by their extracted words and images, or by rendering them.
+     */
+    private DiffMode diffMode = DiffMode.CONTENT;
+
+    /**
+     * Resolution pages are rendered at in {@link DiffMode#RASTER} mode.
+     */
+    private int rasterDpi = 96;
+
+    /**
+     * Edge length in pixels of the square tiles rendered pages are compared in; a changed tile
+     * is highlighted as a whole.
+     */
+    private int rasterTileSize = 16;
+
+    /**
+     * Whether text is diffed page by page or across the whole document.
+     */
+    private TextDiffScope textDiffScope = TextDiffScope.PAGE;
+
+    /**
+     * Whether pages are paired by content rather than by position, so that pages inserted or
+     * deleted in the middle of a document are highlighted as such. Only applies to the
+     * {@link TextDiffScope#PAGE} scope.
+     */
+    private boolean alignPages = false;
+
+    /**
+     * Hash images are fingerprinted with to match them across documents.
+     */
+    private ImageHashAlgorithm imageHashAlgorithm = ImageHashAlgorithm.MURMUR3_128;
+
+    /**
+     * Which bytes of an image are hashed to fingerprint it.
+     */
+    private ImageHashSource imageHashSource = ImageHashSource.DECODED;
+
+    /**
+     * Whether images must hash equal to match, or only look alike.
+     */
+    private ImageMatching imageMatching = ImageMatching.EXACT;
+
+    /**
+     * Most bits two 64-bit perceptual hashes may differ in for their images to match in
+     * {@link ImageMatching#PERCEPTUAL} mode.
+     */
+    private int perceptualHashThreshold = 8;
+
+    public enum InputMode {
+        /**
+         * Uploads are read onto the heap and parsed in full.
+         */
+        MEMORY,
+        /**
+         * Uploads are spooled to temp files, memory-mapped and read lazily page by page.
+         */
+        DISK
+    }
+
+    public enum ImageHashAlgorithm {
+        /**
+         * 128-bit MurmurHash3; fast, but not collision resistant against crafted images.
+         */
+        MURMUR3_128,
+        /**
+         * MD5, as image fingerprints were computed before.
+         */
+        MD5
+    }
+
+    public enum ImageHashSource {
+        /**
+         * The decoded image data, so an image re-encoded with another filter still matches.
+         */
+        DECODED,
+        /**
+         * The still-encoded stream of an image XObject and the dictionary entries needed to decode
+         * it, hashed once per object per document; nothing is decoded. Inline images are decoded.
+         */
+        RAW_STREAM
+    }
+
+    public enum ImageMatching {
+        /**
+         * Images match when their fingerprints are equal.
+         */
+        EXACT,
+        /**
+         * Images also match when their difference hashes over a downscaled grayscale copy are
+         * close, so re-encoded or recompressed images are not reported as changed. Every image
+         * is decoded.
+         */
+        PERCEPTUAL
+    }
+
+    public enum DiffMode {
+        /**
+         * Words and images are extracted from both pages and diffed.
+         */
+        CONTENT,
+        /**
+         * Both pages are rendered and compared pixel by pixel, which also finds changed vector
+         * graphics, annotations and form fields. Text diff scope does not apply.
+         */
+        RASTER
+    }
+
+    public enum TextDiffScope {
+        /**
+         * Page N of one document is diffed against page N of the other.
+         */
+        PAGE,
+        /**
+         * The words of all pages are diffed as one stream, so text that reflowed onto another
+         * page is still matched. Images are compared page by page.
+         */
+        DOCUMENT
+    }
+
+}
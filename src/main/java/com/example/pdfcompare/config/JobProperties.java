@@ -0,0 +1,37 @@
+package com.example.pdfcompare.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "pdfcompare.jobs")
+public class JobProperties {
+
+    /**
+     * Number of comparison jobs running at the same time. Further jobs wait in the queue.
+     */
+    private int workers = 2;
+
+    /**
+     * Upper bound on the combined input size of queued and running jobs. Submissions that
+     * would exceed it are rejected until running jobs finish.
+     */
+    private DataSize memoryBudget = DataSize.ofMegabytes(512);
+
+    /**
+     * Directory holding spooled inputs and finished results.
+     */
+    private Path storeDirectory = Path.of(System.getProperty("java.io.tmpdir"), "pdfcompare-jobs");
+
+    /**
+     * How long a finished job and its result are kept before they are removed.
+     */
+    private Duration resultTtl = Duration.ofHours(1);
+
+}
@@ -0,0 +1,73 @@
+package com.example.pdfcompare.controller;
+
+import com.example.pdfcompare.model.ComparisonJobStatus;
+import com.example.pdfcompare.service.ComparisonJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Asynchronous variant of {@link PDFComparisonController}: a comparison is submitted as a job,
+ * polled for progress and its result downloaded once it has finished.
+ */
+@RestController
+@RequestMapping("/api/v1/pdf/jobs")
+@RequiredArgsConstructor
+public class ComparisonJobController {
+
+    private final ComparisonJobService comparisonJobService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ComparisonJobStatus> submit(@RequestParam("file1") MultipartFile file1,
+                                                      @RequestParam("file2") MultipartFile file2,
+                                                      @RequestParam(name = "isMultiple", defaultValue = "false") boolean isMultiple) throws IOException {
+        ComparisonJobStatus status = comparisonJobService.submit(file1, file2, isMultiple);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(status.id())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(status);
+    }
+
+    @GetMapping("/{id}")
+    public ComparisonJobStatus getStatus(@PathVariable String id) {
+        return comparisonJobService.getStatus(id).orElseThrow(() -> jobNotFound(id));
+    }
+
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> getResult(@PathVariable String id) throws IOException {
+        ComparisonJobStatus status = comparisonJobService.getStatus(id).orElseThrow(() -> jobNotFound(id));
+        if (status.state() != ComparisonJobStatus.State.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + id + " is " + status.state());
+        }
+        Resource result = comparisonJobService.getResult(id)
+                .map(InputStreamResource::new)
+                .orElseThrow(() -> jobNotFound(id));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDispositionFormData("attachment", "comparison.pdf");
+        return ResponseEntity.ok().headers(headers).body(result);
+    }
+
+    private ResponseStatusException jobNotFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Job " + id + " not found");
+    }
+
+}
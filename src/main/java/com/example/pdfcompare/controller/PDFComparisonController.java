@@ -1,6 +1,10 @@
 package com.example.pdfcompare.controller;
 
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.service.ComparisonExecutor;
 import com.example.pdfcompare.service.PDFComparisonService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -10,6 +14,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/v1/pdf")
@@ -17,16 +25,92 @@ import org.springframework.web.multipart.MultipartFile;
 public class PDFComparisonController {
 
     private final PDFComparisonService pdfComparisonService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping(value = "/compare", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<byte[]> comparePDFs(@RequestParam("file1") MultipartFile file1,
                                               @RequestParam("file2") MultipartFile file2,
                                               @RequestParam(name = "isMultiple", defaultValue = "false") boolean isMultiple) throws Exception {
         byte[] result = pdfComparisonService.comparePDFs(file1, file2, isMultiple);
+        return ResponseEntity.ok().headers(pdfHeaders()).body(result);
+    }
+
+    /**
+     * Only checks whether both documents have the same content, stopping at the first page that
+     * differs; no result PDF is generated.
+     */
+    @PostMapping(value = "/compare", params = "mode=equality", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public EqualityResult compareEquality(@RequestParam("file1") MultipartFile file1,
+                                          @RequestParam("file2") MultipartFile file2) throws Exception {
+        return pdfComparisonService.compareEquality(file1, file2);
+    }
+
+    /**
+     * Same comparison as {@link #comparePDFs}, but the result PDF is written straight to the
+     * response as pages are compared instead of being buffered in memory first. The comparison
+     * thread is taken up front, so a busy service still answers 503 before the response is committed.
+     */
+    @PostMapping(value = "/compare/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StreamingResponseBody> comparePDFsStreaming(@RequestParam("file1") MultipartFile file1,
+                                                                      @RequestParam("file2") MultipartFile file2,
+                                                                      @RequestParam(name = "isMultiple", defaultValue = "false") boolean isMultiple) throws Exception {
+        ComparisonExecutor.Permit permit = pdfComparisonService.reserveComparison();
+        StreamingResponseBody body = outputStream -> {
+            try (permit) {
+                pdfComparisonService.comparePDFs(file1, file2, isMultiple, outputStream, permit);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("PDF comparison failed", e);
+            }
+        };
+        return ResponseEntity.ok().headers(pdfHeaders()).body(body);
+    }
+
+    /**
+     * Reports the changed words and images of each page as JSON instead of highlighting them in
+     * a PDF, for clients that only need to know what changed.
+     */
+    @PostMapping(value = "/compare/report", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<PageReport> compareReport(@RequestParam("file1") MultipartFile file1,
+                                          @RequestParam("file2") MultipartFile file2) throws Exception {
+        return pdfComparisonService.compareReport(file1, file2);
+    }
+
+    /**
+     * Same report as {@link #compareReport}, written as one JSON line per page (NDJSON) as soon as
+     * the page is compared. A client that disconnects stops the comparison at the next page. As
+     * with {@link #comparePDFsStreaming}, a busy service answers 503 before the stream starts.
+     */
+    @PostMapping(value = "/compare/report/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> compareReportStreaming(@RequestParam("file1") MultipartFile file1,
+                                                                        @RequestParam("file2") MultipartFile file2) throws Exception {
+        ComparisonExecutor.Permit permit = pdfComparisonService.reserveComparison();
+        StreamingResponseBody body = outputStream -> {
+            try (permit) {
+                pdfComparisonService.compareReport(file1, file2, report -> {
+                    // Writing to a closed connection fails, which ends the page loop.
+                    outputStream.write(objectMapper.writeValueAsBytes(report));
+                    outputStream.write('\n');
+                    outputStream.flush();
+                }, permit);
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException("PDF comparison failed", e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private HttpHeaders pdfHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "comparison.pdf");
-        return ResponseEntity.ok().headers(headers).body(result);
+        return headers;
     }
 
 }
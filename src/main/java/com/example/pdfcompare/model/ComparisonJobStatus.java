@@ -0,0 +1,15 @@
+package com.example.pdfcompare.model;
+
+/**
+ * Progress of an asynchronous comparison job as reported by the jobs API.
+ */
+public record ComparisonJobStatus(String id, State state, int pagesDone, int totalPages, String error) {
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.example.pdfcompare.model;
+
+/**
+ * Whether two documents have the same content, and if not, the first page number whose content
+ * differs; 0 when the documents are equal.
+ */
+public record EqualityResult(boolean equal, int firstDifferingPage) {
+
+    public static final EqualityResult EQUAL = new EqualityResult(true, 0);
+
+    public static EqualityResult differentAt(int pageNumber) {
+        return new EqualityResult(false, pageNumber);
+    }
+
+}
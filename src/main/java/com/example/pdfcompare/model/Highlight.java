@@ -0,0 +1,6 @@
+package com.example.pdfcompare.model;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Rectangle;
+
+public record Highlight(Rectangle rectangle, BaseColor color, float xOffset, float opacity) { }
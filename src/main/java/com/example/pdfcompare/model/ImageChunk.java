@@ -3,8 +3,14 @@ package com.example.pdfcompare.model;
 
 import com.itextpdf.text.Rectangle;
 
-public record ImageChunk(String imageHash, Rectangle rectangle) {
-    public String getIdentifier() {
-        return "image:" + imageHash;
+/**
+ * An image placed on a page. {@code perceptualHash} is only computed for perceptual matching,
+ * and is {@code null} otherwise or when the image could not be decoded.
+ */
+public record ImageChunk(ImageHash imageHash, Rectangle rectangle, Long perceptualHash) {
+
+    public ImageChunk(ImageHash imageHash, Rectangle rectangle) {
+        this(imageHash, rectangle, null);
     }
+
 }
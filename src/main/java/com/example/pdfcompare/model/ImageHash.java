@@ -0,0 +1,13 @@
+package com.example.pdfcompare.model;
+
+/**
+ * A 128-bit image fingerprint, kept as two longs rather than a hex string.
+ */
+public record ImageHash(long high, long low) {
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.example.pdfcompare.model;
+
+import java.util.List;
+
+public record PageContent(PageText words, List<ImageChunk> images) { }
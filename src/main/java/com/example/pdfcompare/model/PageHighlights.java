@@ -0,0 +1,27 @@
+package com.example.pdfcompare.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Highlights collected for one output page, in the order they were produced.
+ * Pages can be compared off the writer thread and replayed into the output later.
+ */
+public class PageHighlights {
+
+    private final List<Highlight> highlights = new ArrayList<>();
+
+    public void add(Highlight highlight) {
+        highlights.add(highlight);
+    }
+
+    public List<Highlight> getHighlights() {
+        return Collections.unmodifiableList(highlights);
+    }
+
+    public boolean isEmpty() {
+        return highlights.isEmpty();
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.example.pdfcompare.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * What changed between page {@code page1} of the first document and page {@code page2} of the
+ * second. A page number of 0 means that side has no page. Coordinates are in PDF points on
+ * each page itself, with the origin in the bottom left corner.
+ */
+public record PageReport(int page1, int page2, Status status, List<Change> words, List<Change> images) {
+
+    public enum Status {
+        IDENTICAL,
+        CHANGED,
+        INSERTED,
+        DELETED
+    }
+
+    public enum ChangeType {
+        INSERTED,
+        DELETED,
+        CHANGED
+    }
+
+    /**
+     * A run of words or images of the first page replaced by a run of the second; either side
+     * may be empty.
+     */
+    public record Change(ChangeType type, List<Region> before, List<Region> after) { }
+
+    /**
+     * A word or image on a page; images have no text.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Region(String text, float left, float bottom, float right, float top) { }
+
+}
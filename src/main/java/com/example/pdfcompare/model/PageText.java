@@ -0,0 +1,226 @@
+package com.example.pdfcompare.model;
+
+import com.itextpdf.text.Rectangle;
+
+import java.util.Arrays;
+
+/**
+ * The words of a page in columnar form: all words share one string, and their bounds are
+ * packed into a single float array, four coordinates per word. Words are grouped into blocks,
+ * one per line of a text object, so that unchanged lines can be matched without looking at
+ * their words. Instances are immutable and may be shared through the page content cache.
+ */
+public final class PageText {
+
+    public static final PageText EMPTY = new PageText("", new int[]{0}, new int[0], new float[0], new int[]{0}, new int[0]);
+
+    private static final int LEFT = 0;
+    private static final int BOTTOM = 1;
+    private static final int RIGHT = 2;
+    private static final int TOP = 3;
+    private static final int COORDINATES = 4;
+
+    // Word i is text[offsets[i], offsets[i + 1]).
+    private final String text;
+    private final int[] offsets;
+    private final int[] hashes;
+    private final float[] bounds;
+    // Block b holds words [blockOffsets[b], blockOffsets[b + 1]).
+    private final int[] blockOffsets;
+    private final int[] blockHashes;
+
+    private PageText(String text, int[] offsets, int[] hashes, float[] bounds, int[] blockOffsets, int[] blockHashes) {
+        this.text = text;
+        this.offsets = offsets;
+        this.hashes = hashes;
+        this.bounds = bounds;
+        this.blockOffsets = blockOffsets;
+        this.blockHashes = blockHashes;
+    }
+
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public String word(int index) {
+        return text.substring(offsets[index], offsets[index + 1]);
+    }
+
+    /**
+     * Hash of a word, equal to {@code word(index).hashCode()}; computed once when the page is built.
+     */
+    public int wordHashCode(int index) {
+        return hashes[index];
+    }
+
+    public boolean wordEquals(int index, PageText other, int otherIndex) {
+        int length = offsets[index + 1] - offsets[index];
+        return length == other.offsets[otherIndex + 1] - other.offsets[otherIndex]
+                && text.regionMatches(offsets[index], other.text, other.offsets[otherIndex], length);
+    }
+
+    public int blockCount() {
+        return blockOffsets.length - 1;
+    }
+
+    /**
+     * Index of the first word of a block; {@code blockStart(blockCount())} is {@link #size()}.
+     */
+    public int blockStart(int block) {
+        return blockOffsets[block];
+    }
+
+    /**
+     * Hash of the words of a block, combined from their {@link #wordHashCode(int) word hashes}.
+     */
+    public int blockHashCode(int block) {
+        return blockHashes[block];
+    }
+
+    public boolean blockEquals(int block, PageText other, int otherBlock) {
+        int start = blockOffsets[block];
+        int otherStart = other.blockOffsets[otherBlock];
+        int length = blockOffsets[block + 1] - start;
+        if (length != other.blockOffsets[otherBlock + 1] - otherStart) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (hashes[start + i] != other.hashes[otherStart + i] || !wordEquals(start + i, other, otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String[] words() {
+        String[] words = new String[size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = word(i);
+        }
+        return words;
+    }
+
+    public float left(int index) {
+        return bounds[index * COORDINATES + LEFT];
+    }
+
+    public float bottom(int index) {
+        return bounds[index * COORDINATES + BOTTOM];
+    }
+
+    public float right(int index) {
+        return bounds[index * COORDINATES + RIGHT];
+    }
+
+    public float top(int index) {
+        return bounds[index * COORDINATES + TOP];
+    }
+
+    public Rectangle rectangle(int index) {
+        return new Rectangle(left(index), bottom(index), right(index), top(index));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private final StringBuilder text = new StringBuilder();
+        private int[] offsets = new int[65];
+        private int[] hashes = new int[64];
+        private float[] bounds = new float[64 * COORDINATES];
+        private int size;
+        private int[] blockOffsets = new int[17];
+        private int[] blockHashes = new int[16];
+        private int blocks;
+        private int blockHash;
+
+        /**
+         * Appends the word {@code source[start, end)} with the given bounds. A word on a
+         * different baseline than the previous one starts a new block.
+         */
+        public Builder add(CharSequence source, int start, int end, float left, float bottom, float right, float top) {
+            if (size > blockOffsets[blocks] && bottom != bounds[(size - 1) * COORDINATES + BOTTOM]) {
+                endBlock();
+            }
+            if (size + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2 - 1);
+                hashes = Arrays.copyOf(hashes, hashes.length * 2);
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + source.charAt(i);
+            }
+            hashes[size] = hash;
+            blockHash = 31 * blockHash + hash;
+            text.append(source, start, end);
+            int coordinate = size * COORDINATES;
+            bounds[coordinate + LEFT] = left;
+            bounds[coordinate + BOTTOM] = bottom;
+            bounds[coordinate + RIGHT] = right;
+            bounds[coordinate + TOP] = top;
+            offsets[++size] = text.length();
+            return this;
+        }
+
+        public Builder add(String word, Rectangle rectangle) {
+            return add(word, 0, word.length(), rectangle.getLeft(), rectangle.getBottom(),
+                    rectangle.getRight(), rectangle.getTop());
+        }
+
+        /**
+         * Appends all words of a page with their blocks, so that the pages of a document can be
+         * joined into one stream. The current block is closed first.
+         */
+        public Builder addAll(PageText page) {
+            endBlock();
+            for (int block = 0; block < page.blockCount(); block++) {
+                for (int i = page.blockStart(block); i < page.blockStart(block + 1); i++) {
+                    add(page.text, page.offsets[i], page.offsets[i + 1],
+                            page.left(i), page.bottom(i), page.right(i), page.top(i));
+                }
+                endBlock();
+            }
+            return this;
+        }
+
+        /**
+         * Closes the current block, if it has any words; called at the end of each text object.
+         */
+        public Builder endBlock() {
+            if (size == blockOffsets[blocks]) {
+                return this;
+            }
+            if (blocks + 1 == blockHashes.length) {
+                blockOffsets = Arrays.copyOf(blockOffsets, blockOffsets.length * 2 - 1);
+                blockHashes = Arrays.copyOf(blockHashes, blockHashes.length * 2);
+            }
+            blockHashes[blocks] = blockHash;
+            blockOffsets[++blocks] = size;
+            blockHash = 0;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PageText build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            endBlock();
+            return new PageText(text.toString(), Arrays.copyOf(offsets, size + 1), Arrays.copyOf(hashes, size),
+                    Arrays.copyOf(bounds, size * COORDINATES),
+                    Arrays.copyOf(blockOffsets, blocks + 1), Arrays.copyOf(blockHashes, blocks));
+        }
+
+    }
+
+}
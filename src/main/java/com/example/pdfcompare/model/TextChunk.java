@@ -1,5 +0,0 @@
-package com.example.pdfcompare.model;
-
-import com.itextpdf.text.Rectangle;
-
-public record TextChunk(String text, Rectangle rectangle) { }
@@ -0,0 +1,129 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands CPU-bound comparison work from the request thread to a fixed platform-thread pool.
+ * A semaphore with one permit per pool thread keeps the pool from queueing: callers wait for a
+ * permit instead, which costs nothing when the caller is a virtual thread.
+ */
+@Component
+public class ComparisonExecutor {
+
+    private final ComparisonProperties comparisonProperties;
+    private final ExecutorService comparisonCpuExecutor;
+    private final Semaphore permits;
+
+    public ComparisonExecutor(ComparisonProperties comparisonProperties,
+                              @Qualifier("comparisonCpuExecutor") ExecutorService comparisonCpuExecutor) {
+        this.comparisonProperties = comparisonProperties;
+        this.comparisonCpuExecutor = comparisonCpuExecutor;
+        this.permits = new Semaphore(Math.max(1, comparisonProperties.getCpuThreads()), true);
+    }
+
+    /**
+     * Runs the task on the CPU pool and waits for it, or runs it on the calling thread when no pool is configured.
+     *
+     * @throws ComparisonRejectedException when no comparison thread frees up within the acquire timeout
+     */
+    public void run(Task task) throws Exception {
+        try (Permit permit = acquire()) {
+            run(permit, task);
+        }
+    }
+
+    /**
+     * Takes a comparison thread ahead of the work, so that a request can be rejected before
+     * its response is committed, as when the result is streamed. The permit must be closed;
+     * once {@link #run(Permit, Task)} has handed it to the pool, closing it does nothing.
+     *
+     * @throws ComparisonRejectedException when no comparison thread frees up within the acquire timeout
+     */
+    public Permit acquire() throws InterruptedException {
+        if (comparisonProperties.getCpuThreads() <= 0) {
+            return new Permit(null);
+        }
+        if (!permits.tryAcquire(comparisonProperties.getCpuAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new ComparisonRejectedException("All comparison threads are busy, try again later");
+        }
+        return new Permit(permits);
+    }
+
+    /**
+     * Runs the task with a permit taken by {@link #acquire()}.
+     */
+    public void run(Permit permit, Task task) throws Exception {
+        if (permit.semaphore == null) {
+            task.run();
+            return;
+        }
+        // Whoever claims the permit releases it: the pool thread once the task has run, or the
+        // caller when closing the permit if it gave up before the task started.
+        Future<?> result = comparisonCpuExecutor.submit(() -> {
+            if (!permit.claim()) {
+                return null;
+            }
+            try {
+                task.run();
+                return null;
+            } finally {
+                permit.semaphore.release();
+            }
+        });
+        try {
+            result.get();
+        } catch (InterruptedException e) {
+            // A started task may keep its pool thread busy after the cancellation, and keeps the permit with it.
+            result.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * One comparison thread, held by the caller until a task running on the pool claims it.
+     */
+    public static final class Permit implements AutoCloseable {
+
+        private final Semaphore semaphore;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Releases the thread, unless a task has claimed it and releases it when done.
+         */
+        @Override
+        public void close() {
+            if (semaphore != null && claim()) {
+                semaphore.release();
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+
+}
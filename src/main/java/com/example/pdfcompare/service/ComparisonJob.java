@@ -0,0 +1,61 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.model.ComparisonJobStatus;
+import com.example.pdfcompare.model.ComparisonJobStatus.State;
+import com.example.pdfcompare.util.ComparisonListener;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * A submitted comparison. Written by the job worker and read by status requests.
+ */
+@Getter
+@RequiredArgsConstructor
+class ComparisonJob implements ComparisonListener {
+
+    private final String id;
+    private final long reservedBytes;
+    private volatile State state = State.QUEUED;
+    private volatile int totalPages;
+    private volatile int pagesDone;
+    private volatile String error;
+    private volatile Instant finishedAt;
+
+    @Override
+    public void onStart(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    @Override
+    public void onPageCompared(int pageNumber) {
+        // Pages are reported in order, so the page number is the number of pages done.
+        this.pagesDone = pageNumber;
+    }
+
+    void start() {
+        state = State.RUNNING;
+    }
+
+    void succeed() {
+        finishedAt = Instant.now();
+        state = State.SUCCEEDED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+
+    boolean isExpired(Instant expiredBefore) {
+        Instant finished = finishedAt;
+        return finished != null && finished.isBefore(expiredBefore);
+    }
+
+    ComparisonJobStatus toStatus() {
+        return new ComparisonJobStatus(id, state, pagesDone, totalPages, error);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.model.ComparisonJobStatus;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+public interface ComparisonJobService {
+
+    /**
+     * Queues a comparison of both files and returns immediately.
+     *
+     * @throws ComparisonRejectedException when queued work would exceed the memory budget
+     */
+    ComparisonJobStatus submit(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple) throws IOException;
+
+    Optional<ComparisonJobStatus> getStatus(String jobId);
+
+    /**
+     * Opens the result PDF of a job that has succeeded. The stream stays readable even if the
+     * job expires while it is being read; the caller closes it.
+     */
+    Optional<InputStream> getResult(String jobId) throws IOException;
+
+}
@@ -0,0 +1,200 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.config.JobProperties;
+import com.example.pdfcompare.model.ComparisonJobStatus;
+import com.example.pdfcompare.model.ComparisonJobStatus.State;
+import com.example.pdfcompare.util.PDFComparator;
+import com.example.pdfcompare.util.PdfSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Runs comparisons in the background on a bounded pool. Inputs are spooled to the job store
+ * while the upload request is still open and compared from disk; the result PDF is written
+ * to the store and kept until it expires.
+ */
+@Slf4j
+@Service
+public class ComparisonJobServiceImpl implements ComparisonJobService {
+
+    private final PDFComparator pdfComparator;
+    private final JobProperties jobProperties;
+    private final ExecutorService comparisonJobExecutor;
+
+    private final Map<String, ComparisonJob> jobs = new ConcurrentHashMap<>();
+    private long reservedBytes;
+
+    public ComparisonJobServiceImpl(PDFComparator pdfComparator, JobProperties jobProperties,
+                                    @Qualifier("comparisonJobExecutor") ExecutorService comparisonJobExecutor) {
+        this.pdfComparator = pdfComparator;
+        this.jobProperties = jobProperties;
+        this.comparisonJobExecutor = comparisonJobExecutor;
+        deleteStaleFiles();
+    }
+
+    @Override
+    public ComparisonJobStatus submit(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple) throws IOException {
+        purgeExpired();
+        long size = pdf1.getSize() + pdf2.getSize();
+        reserve(size);
+
+        ComparisonJob job = new ComparisonJob(UUID.randomUUID().toString(), size);
+        Path input1 = storeFile(job.getId() + "-1.pdf");
+        Path input2 = storeFile(job.getId() + "-2.pdf");
+        // Taken before the job is handed to a worker, which may start it right away.
+        ComparisonJobStatus submitted = job.toStatus();
+        try {
+            Files.createDirectories(jobProperties.getStoreDirectory());
+            pdf1.transferTo(input1);
+            pdf2.transferTo(input2);
+            jobs.put(job.getId(), job);
+            comparisonJobExecutor.execute(() -> run(job, input1, input2, isMultiple));
+        } catch (RejectedExecutionException e) {
+            abandon(job, input1, input2);
+            throw new ComparisonRejectedException("Comparison jobs are not being accepted");
+        } catch (IOException | RuntimeException e) {
+            abandon(job, input1, input2);
+            throw e;
+        }
+        return submitted;
+    }
+
+    @Override
+    public Optional<ComparisonJobStatus> getStatus(String jobId) {
+        purgeExpired();
+        return Optional.ofNullable(jobs.get(jobId)).map(ComparisonJob::toStatus);
+    }
+
+    @Override
+    public Optional<InputStream> getResult(String jobId) throws IOException {
+        ComparisonJob job = jobs.get(jobId);
+        if (job == null || job.getState() != State.SUCCEEDED) {
+            return Optional.empty();
+        }
+        // Opened here rather than by the caller: once open, an expiry purging the job only
+        // unlinks the file and the download still reads it to the end.
+        try {
+            return Optional.of(Files.newInputStream(resultFile(jobId)));
+        } catch (NoSuchFileException e) {
+            // The job expired between the lookup and the open.
+            return Optional.empty();
+        }
+    }
+
+    private void run(ComparisonJob job, Path input1, Path input2, boolean isMultiple) {
+        job.start();
+        Path result = resultFile(job.getId());
+        try {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(result))) {
+                pdfComparator.comparePDFs(PdfSource.of(input1), PdfSource.of(input2), outputStream, isMultiple, job);
+            }
+            job.succeed();
+        } catch (Exception e) {
+            log.warn("Comparison job {} failed", job.getId(), e);
+            deleteQuietly(result);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(input1);
+            deleteQuietly(input2);
+            release(job.getReservedBytes());
+        }
+    }
+
+    private synchronized void reserve(long size) {
+        long budget = jobProperties.getMemoryBudget().toBytes();
+        if (size > budget) {
+            throw new ComparisonRejectedException("Input files exceed the comparison job memory budget");
+        }
+        if (reservedBytes + size > budget) {
+            throw new ComparisonRejectedException("Too many comparison jobs are queued, try again later");
+        }
+        reservedBytes += size;
+    }
+
+    private synchronized void release(long size) {
+        reservedBytes -= size;
+    }
+
+    private void abandon(ComparisonJob job, Path input1, Path input2) {
+        jobs.remove(job.getId());
+        deleteQuietly(input1);
+        deleteQuietly(input2);
+        release(job.getReservedBytes());
+    }
+
+    private void purgeExpired() {
+        Instant expiredBefore = Instant.now().minus(jobProperties.getResultTtl());
+        jobs.values().removeIf(job -> {
+            if (!job.isExpired(expiredBefore)) {
+                return false;
+            }
+            deleteQuietly(resultFile(job.getId()));
+            return true;
+        });
+    }
+
+    /**
+     * Job state is held in memory only, so files left in the store by a previous run can never be served.
+     * The store may be shared with other instances, so only files older than the result TTL are deleted;
+     * newer ones may still belong to a live job of another instance.
+     */
+    private void deleteStaleFiles() {
+        Path directory = jobProperties.getStoreDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        FileTime staleBefore = FileTime.from(Instant.now().minus(jobProperties.getResultTtl()));
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(".pdf"))
+                    .filter(file -> isModifiedBefore(file, staleBefore))
+                    .forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("Could not clean up the job store {}", directory, e);
+        }
+    }
+
+    private boolean isModifiedBefore(Path file, FileTime time) {
+        try {
+            return Files.getLastModifiedTime(file).compareTo(time) < 0;
+        } catch (IOException e) {
+            // Deleted meanwhile, or not readable: either way not ours to delete.
+            return false;
+        }
+    }
+
+    private Path resultFile(String jobId) {
+        return storeFile(jobId + ".pdf");
+    }
+
+    private Path storeFile(String name) {
+        return jobProperties.getStoreDirectory().resolve(name);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.example.pdfcompare.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a comparison cannot be admitted because the service is out of capacity.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ComparisonRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ComparisonRejectedException(String message) {
+        super(message);
+    }
+
+}
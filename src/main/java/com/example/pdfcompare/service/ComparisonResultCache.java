@@ -0,0 +1,276 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.config.CacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Two-tier LRU cache of comparison results: a size-bounded in-heap tier in front of a
+ * size-bounded on-disk tier. Entries are written to both tiers; a disk hit is promoted
+ * back into the heap tier.
+ * <p>
+ * The disk tier outlives restarts, so its file names carry {@link #FORMAT_VERSION}; files of
+ * another version are deleted when the cache starts.
+ */
+@Slf4j
+@Component
+public final class ComparisonResultCache {
+
+    /**
+     * Version of the comparison output. Bump it with every change that alters the PDF produced
+     * for the same inputs and settings, so that results of an older version are not served.
+     */
+    static final int FORMAT_VERSION = 2;
+
+    private static final String CACHE_NAME = "comparison-results";
+    private static final String FILE_PREFIX = "v" + FORMAT_VERSION + "-";
+    private static final String FILE_SUFFIX = ".pdf";
+    private static final String STAGING_SUFFIX = ".tmp";
+
+    private final CacheProperties cacheProperties;
+
+    // Access-ordered, so iteration starts at the least recently used entry.
+    private final LinkedHashMap<String, byte[]> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    private final Counter memoryHits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter memoryEvictions;
+    private final Counter diskEvictions;
+
+    public ComparisonResultCache(CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.cacheProperties = cacheProperties;
+        this.memoryHits = counter(meterRegistry, "pdfcompare.cache.gets", "result", "hit", "tier", "memory");
+        this.diskHits = counter(meterRegistry, "pdfcompare.cache.gets", "result", "hit", "tier", "disk");
+        this.misses = counter(meterRegistry, "pdfcompare.cache.gets", "result", "miss", "tier", "none");
+        this.memoryEvictions = counter(meterRegistry, "pdfcompare.cache.evictions", "tier", "memory");
+        this.diskEvictions = counter(meterRegistry, "pdfcompare.cache.evictions", "tier", "disk");
+        Gauge.builder("pdfcompare.cache.size", this, cache -> cache.entryCount(cache.memoryEntries))
+                .tag("cache", CACHE_NAME).tag("tier", "memory")
+                .description("Number of cached comparison results")
+                .register(meterRegistry);
+        Gauge.builder("pdfcompare.cache.size", this, cache -> cache.entryCount(cache.diskEntries))
+                .tag("cache", CACHE_NAME).tag("tier", "disk")
+                .description("Number of cached comparison results")
+                .register(meterRegistry);
+        Gauge.builder("pdfcompare.cache.bytes", this, cache -> cache.byteCount(true))
+                .tag("cache", CACHE_NAME).tag("tier", "memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("pdfcompare.cache.bytes", this, cache -> cache.byteCount(false))
+                .tag("cache", CACHE_NAME).tag("tier", "disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        if (isEnabled() && isDiskTierEnabled()) {
+            loadDiskEntries();
+        }
+    }
+
+    public boolean isEnabled() {
+        return cacheProperties.isEnabled();
+    }
+
+    public long getMaxEntryBytes() {
+        return cacheProperties.getMaxEntrySize().toBytes();
+    }
+
+    public Optional<byte[]> get(String key) {
+        if (!isEnabled()) {
+            return Optional.empty();
+        }
+        synchronized (this) {
+            byte[] cached = memoryEntries.get(key);
+            if (cached != null) {
+                memoryHits.increment();
+                return Optional.of(cached);
+            }
+            if (!diskEntries.containsKey(key)) {
+                misses.increment();
+                return Optional.empty();
+            }
+        }
+
+        // Read outside the lock; the file may have been evicted in the meantime.
+        byte[] result;
+        try {
+            result = Files.readAllBytes(diskFile(key));
+        } catch (NoSuchFileException e) {
+            misses.increment();
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Could not read cached comparison result {}", key, e);
+            misses.increment();
+            return Optional.empty();
+        }
+        synchronized (this) {
+            diskHits.increment();
+            diskEntries.get(key); // mark as recently used
+            putInMemory(key, result);
+        }
+        return Optional.of(result);
+    }
+
+    public void put(String key, byte[] result) {
+        if (!isEnabled() || result.length > getMaxEntryBytes()) {
+            return;
+        }
+        Path staged = isDiskTierEnabled() ? stageOnDisk(key, result) : null;
+        synchronized (this) {
+            putInMemory(key, result);
+            if (staged != null) {
+                commitOnDisk(key, staged, result.length);
+            }
+        }
+    }
+
+    private void putInMemory(String key, byte[] result) {
+        long maxBytes = cacheProperties.getMemoryMaxSize().toBytes();
+        if (result.length > maxBytes) {
+            return;
+        }
+        byte[] previous = memoryEntries.put(key, result);
+        memoryBytes += result.length - (previous != null ? previous.length : 0);
+        Iterator<Map.Entry<String, byte[]>> eldest = memoryEntries.entrySet().iterator();
+        while (memoryBytes > maxBytes && eldest.hasNext()) {
+            memoryBytes -= eldest.next().getValue().length;
+            eldest.remove();
+            memoryEvictions.increment();
+        }
+    }
+
+    private Path stageOnDisk(String key, byte[] result) {
+        try {
+            Files.createDirectories(cacheProperties.getDiskDirectory());
+            Path staged = Files.createTempFile(cacheProperties.getDiskDirectory(), key, STAGING_SUFFIX);
+            Files.write(staged, result);
+            return staged;
+        } catch (IOException e) {
+            log.warn("Could not write comparison result {} to the disk cache", key, e);
+            return null;
+        }
+    }
+
+    private void commitOnDisk(String key, Path staged, long size) {
+        try {
+            Files.move(staged, diskFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write comparison result {} to the disk cache", key, e);
+            deleteQuietly(staged);
+            return;
+        }
+        Long previous = diskEntries.put(key, size);
+        diskBytes += size - (previous != null ? previous : 0);
+        evictFromDisk();
+    }
+
+    private void evictFromDisk() {
+        long maxBytes = cacheProperties.getDiskMaxSize().toBytes();
+        Iterator<Map.Entry<String, Long>> eldest = diskEntries.entrySet().iterator();
+        while (diskBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            deleteQuietly(diskFile(entry.getKey()));
+            diskBytes -= entry.getValue();
+            eldest.remove();
+            diskEvictions.increment();
+        }
+    }
+
+    /**
+     * Rebuilds the disk index from a previous run, oldest file first so it is evicted first.
+     */
+    private void loadDiskEntries() {
+        Path directory = cacheProperties.getDiskDirectory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> {
+                        // Staged writes left behind by a crash are never committed.
+                        if (file.getFileName().toString().endsWith(STAGING_SUFFIX)) {
+                            deleteQuietly(file);
+                            return false;
+                        }
+                        String name = file.getFileName().toString();
+                        if (!name.endsWith(FILE_SUFFIX)) {
+                            return false;
+                        }
+                        // Results of another format version would never be asked for again.
+                        if (!name.startsWith(FILE_PREFIX)) {
+                            deleteQuietly(file);
+                            return false;
+                        }
+                        return true;
+                    })
+                    .sorted(Comparator.comparing(this::lastModified))
+                    .forEach(file -> {
+                        String name = file.getFileName().toString();
+                        long size = file.toFile().length();
+                        diskEntries.put(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()), size);
+                        diskBytes += size;
+                    });
+        } catch (IOException e) {
+            log.warn("Could not load the disk cache from {}", directory, e);
+        }
+        evictFromDisk();
+    }
+
+    private boolean isDiskTierEnabled() {
+        return cacheProperties.getDiskMaxSize().toBytes() > 0;
+    }
+
+    private Path diskFile(String key) {
+        return cacheProperties.getDiskDirectory().resolve(FILE_PREFIX + key + FILE_SUFFIX);
+    }
+
+    private FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private synchronized int entryCount(Map<String, ?> entries) {
+        return entries.size();
+    }
+
+    private synchronized long byteCount(boolean memory) {
+        return memory ? memoryBytes : diskBytes;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String... tags) {
+        return Counter.builder(name)
+                .tag("cache", CACHE_NAME)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+}
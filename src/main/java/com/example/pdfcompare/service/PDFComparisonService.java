@@ -1,9 +1,32 @@
 package com.example.pdfcompare.service;
 
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.util.PageReportListener;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.OutputStream;
+import java.util.List;
+
 public interface PDFComparisonService {
 
     byte[] comparePDFs(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple) throws Exception;
 
+    /**
+     * Takes a comparison thread for a streamed comparison before its response is committed.
+     *
+     * @throws ComparisonRejectedException when all comparison threads stay busy
+     */
+    ComparisonExecutor.Permit reserveComparison() throws Exception;
+
+    void comparePDFs(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple, OutputStream outputStream,
+                     ComparisonExecutor.Permit permit) throws Exception;
+
+    List<PageReport> compareReport(MultipartFile pdf1, MultipartFile pdf2) throws Exception;
+
+    void compareReport(MultipartFile pdf1, MultipartFile pdf2, PageReportListener listener,
+                       ComparisonExecutor.Permit permit) throws Exception;
+
+    EqualityResult compareEquality(MultipartFile pdf1, MultipartFile pdf2) throws Exception;
+
 }
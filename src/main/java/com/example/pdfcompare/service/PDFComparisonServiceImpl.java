@@ -1,27 +1,256 @@
 package com.example.pdfcompare.service;
 
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.util.EqualityComparator;
+import com.example.pdfcompare.util.HashUtilityClass;
 import com.example.pdfcompare.util.PDFComparator;
+import com.example.pdfcompare.util.PageReportListener;
+import com.example.pdfcompare.util.PdfSource;
+import com.example.pdfcompare.util.ReportComparator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
 public class PDFComparisonServiceImpl implements PDFComparisonService {
 
     private final PDFComparator pdfComparator;
+    private final ReportComparator reportComparator;
+    private final EqualityComparator equalityComparator;
+    private final ComparisonProperties comparisonProperties;
+    private final ComparisonResultCache resultCache;
+    private final ComparisonExecutor comparisonExecutor;
 
     @Override
     public byte[] comparePDFs(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple) throws Exception {
+        String cacheKey = cacheKey(pdf1, pdf2, isMultiple);
+        if (cacheKey != null) {
+            Optional<byte[]> cached = resultCache.get(cacheKey);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        comparisonExecutor.run(() -> compareOnCurrentThread(pdf1, pdf2, isMultiple, outputStream));
+        byte[] result = outputStream.toByteArray();
+        if (cacheKey != null) {
+            resultCache.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    @Override
+    public ComparisonExecutor.Permit reserveComparison() throws Exception {
+        return comparisonExecutor.acquire();
+    }
+
+    @Override
+    public void comparePDFs(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple,
+                            OutputStream outputStream, ComparisonExecutor.Permit permit) throws Exception {
+        String cacheKey = cacheKey(pdf1, pdf2, isMultiple);
+        if (cacheKey == null) {
+            comparisonExecutor.run(permit, () -> compareOnCurrentThread(pdf1, pdf2, isMultiple, outputStream));
+            return;
+        }
+        Optional<byte[]> cached = resultCache.get(cacheKey);
+        if (cached.isPresent()) {
+            // Sending a cached result takes no comparison thread.
+            permit.close();
+            outputStream.write(cached.get());
+            return;
+        }
+
+        // Keep a copy of the streamed result for the cache, unless it grows beyond what would be cached anyway.
+        CachingOutputStream cachingStream = new CachingOutputStream(outputStream, resultCache.getMaxEntryBytes());
+        comparisonExecutor.run(permit, () -> compareOnCurrentThread(pdf1, pdf2, isMultiple, cachingStream));
+        if (cachingStream.isComplete()) {
+            resultCache.put(cacheKey, cachingStream.toByteArray());
+        }
+    }
+
+    /**
+     * Reports the changes without generating a PDF; reports are not cached.
+     */
+    @Override
+    public List<PageReport> compareReport(MultipartFile pdf1, MultipartFile pdf2) throws Exception {
+        List<PageReport> report = new ArrayList<>();
+        comparisonExecutor.run(() -> reportOnCurrentThread(pdf1, pdf2, report::add));
+        return report;
+    }
+
+    @Override
+    public void compareReport(MultipartFile pdf1, MultipartFile pdf2, PageReportListener listener,
+                              ComparisonExecutor.Permit permit) throws Exception {
+        comparisonExecutor.run(permit, () -> reportOnCurrentThread(pdf1, pdf2, listener));
+    }
+
+    private void reportOnCurrentThread(MultipartFile pdf1, MultipartFile pdf2,
+                                       PageReportListener listener) throws Exception {
+        if (comparisonProperties.getInputMode() == ComparisonProperties.InputMode.DISK) {
+            withSpooledFiles(pdf1, pdf2, (file1, file2) ->
+                    reportComparator.comparePDFs(PdfSource.of(file1), PdfSource.of(file2), listener));
+        } else {
+            reportComparator.comparePDFs(PdfSource.of(pdf1.getBytes()), PdfSource.of(pdf2.getBytes()), listener);
+        }
+    }
+
+    @Override
+    public EqualityResult compareEquality(MultipartFile pdf1, MultipartFile pdf2) throws Exception {
+        AtomicReference<EqualityResult> result = new AtomicReference<>();
+        comparisonExecutor.run(() -> {
+            if (comparisonProperties.getInputMode() == ComparisonProperties.InputMode.DISK) {
+                withSpooledFiles(pdf1, pdf2, (file1, file2) -> result.set(equalityComparator.compare(file1, file2)));
+            } else {
+                result.set(equalityComparator.compare(pdf1.getBytes(), pdf2.getBytes()));
+            }
+        });
+        return result.get();
+    }
+
+    private void compareOnCurrentThread(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple,
+                                        OutputStream outputStream) throws Exception {
+        if (comparisonProperties.getInputMode() == ComparisonProperties.InputMode.DISK) {
+            compareSpooled(pdf1, pdf2, isMultiple, outputStream);
+            return;
+        }
         try (InputStream is1 = pdf1.getInputStream();
              InputStream is2 = pdf2.getInputStream()) {
             pdfComparator.comparePDFs(is1, is2, outputStream, isMultiple);
         }
-        return outputStream.toByteArray();
+    }
+
+    /**
+     * Identifies a comparison by the content of both inputs and the output layout,
+     * or returns {@code null} when results are not cached.
+     */
+    private String cacheKey(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple) throws IOException {
+        if (!resultCache.isEnabled()) {
+            return null;
+        }
+        try (InputStream is1 = pdf1.getInputStream();
+             InputStream is2 = pdf2.getInputStream()) {
+            return HashUtilityClass.sha256(is1) + "-" + HashUtilityClass.sha256(is2) + (isMultiple ? "-multiple" : "-single")
+                    + settingsKey();
+        }
+    }
+
+    /**
+     * The settings that change the comparison output for the same inputs. Cached results outlive
+     * restarts on disk, so a result is only served to the settings it was produced with.
+     */
+    private String settingsKey() {
+        return "-" + comparisonProperties.getDiffMode()
+                + (comparisonProperties.getDiffMode() == ComparisonProperties.DiffMode.RASTER
+                        ? comparisonProperties.getRasterDpi() + "x" + comparisonProperties.getRasterTileSize() : "")
+                + "-" + comparisonProperties.getTextDiffScope()
+                + "-" + (comparisonProperties.isAlignPages() ? "aligned" : "positional")
+                + "-" + comparisonProperties.getImageHashSource()
+                + "-" + comparisonProperties.getImageMatching()
+                + (comparisonProperties.getImageMatching() == ComparisonProperties.ImageMatching.PERCEPTUAL
+                        ? comparisonProperties.getPerceptualHashThreshold() : "");
+    }
+
+    private void compareSpooled(MultipartFile pdf1, MultipartFile pdf2, boolean isMultiple,
+                                OutputStream outputStream) throws Exception {
+        withSpooledFiles(pdf1, pdf2, (file1, file2) ->
+                pdfComparator.comparePDFs(PdfSource.of(file1), PdfSource.of(file2), outputStream, isMultiple));
+    }
+
+    /**
+     * Spools both uploads to disk for the duration of the task.
+     */
+    private void withSpooledFiles(MultipartFile pdf1, MultipartFile pdf2, SpooledTask task) throws Exception {
+        Path file1 = null;
+        Path file2 = null;
+        try {
+            file1 = spool(pdf1);
+            file2 = spool(pdf2);
+            task.run(file1, file2);
+        } finally {
+            deleteSpooled(file1);
+            deleteSpooled(file2);
+        }
+    }
+
+    private Path spool(MultipartFile pdf) throws IOException {
+        Path spoolDirectory = comparisonProperties.getSpoolDirectory();
+        Path spooled = spoolDirectory != null
+                ? Files.createTempFile(spoolDirectory, "pdfcompare-", ".pdf")
+                : Files.createTempFile("pdfcompare-", ".pdf");
+        pdf.transferTo(spooled);
+        return spooled;
+    }
+
+    private void deleteSpooled(Path spooled) throws IOException {
+        if (spooled != null) {
+            Files.deleteIfExists(spooled);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SpooledTask {
+        void run(Path file1, Path file2) throws Exception;
+    }
+
+    /**
+     * Passes everything through to the target stream while keeping a copy of up to {@code limit} bytes.
+     */
+    private static final class CachingOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        CachingOutputStream(OutputStream target, long limit) {
+            super(target);
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (reserve(1)) {
+                copy.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (reserve(len)) {
+                copy.write(b, off, len);
+            }
+        }
+
+        private boolean reserve(int len) {
+            if (copy != null && copy.size() + (long) len > limit) {
+                copy = null;
+            }
+            return copy != null;
+        }
+
+        boolean isComplete() {
+            return copy != null;
+        }
+
+        byte[] toByteArray() {
+            return copy.toByteArray();
+        }
     }
 
 }
@@ -0,0 +1,21 @@
+package com.example.pdfcompare.util;
+
+/**
+ * Receives progress callbacks from {@link PDFComparator}. Callbacks are made on the thread
+ * writing the result, in page order.
+ */
+public interface ComparisonListener {
+
+    ComparisonListener NONE = new ComparisonListener() { };
+
+    /**
+     * Called once both documents are open, before the first page is compared.
+     */
+    default void onStart(int totalPages) { }
+
+    /**
+     * Called after a page has been compared and written to the result.
+     */
+    default void onPageCompared(int pageNumber) { }
+
+}
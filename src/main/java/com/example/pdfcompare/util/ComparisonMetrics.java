@@ -0,0 +1,134 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageContent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Meters of the comparison pipeline: a timer per stage, the number of comparisons in flight,
+ * and counts of the pages, words, images and differences processed.
+ */
+@Component
+public class ComparisonMetrics {
+
+    public enum Stage {
+        OPEN("open"),
+        PAGE_ALIGNMENT("page_alignment"),
+        TEXT_EXTRACTION("text_extraction"),
+        IMAGE_EXTRACTION("image_extraction"),
+        TEXT_DIFF("text_diff"),
+        IMAGE_DIFF("image_diff"),
+        RASTER_DIFF("raster_diff"),
+        HIGHLIGHT_RENDER("highlight_render"),
+        OUTPUT_WRITE("output_write");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum PageResult {
+        /** Both pages hash the same and were not compared. */
+        IDENTICAL("identical"),
+        COMPARED("compared"),
+        /** The page only exists in the second document. */
+        INSERTED("inserted"),
+        /** The page only exists in the first document. */
+        DELETED("deleted");
+
+        private final String tag;
+
+        PageResult(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final AtomicInteger activeComparisons = new AtomicInteger();
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<PageResult, Counter> pageCounters = new EnumMap<>(PageResult.class);
+    private final Counter words;
+    private final Counter images;
+    private final Counter textDeltas;
+    private final Counter imageDeltas;
+    private final DistributionSummary wordsPerPage;
+    private final DistributionSummary imagesPerPage;
+
+    public ComparisonMetrics(MeterRegistry meterRegistry) {
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("pdfcompare.comparison.stage")
+                    .description("Time spent in each stage of a comparison")
+                    .tag("stage", stage.tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+        for (PageResult result : PageResult.values()) {
+            pageCounters.put(result, Counter.builder("pdfcompare.comparison.pages")
+                    .description("Pages compared, by outcome")
+                    .tag("result", result.tag)
+                    .register(meterRegistry));
+        }
+        Gauge.builder("pdfcompare.comparison.active", activeComparisons, AtomicInteger::get)
+                .description("Comparisons in progress")
+                .register(meterRegistry);
+        words = Counter.builder("pdfcompare.comparison.words")
+                .description("Words extracted from compared pages")
+                .register(meterRegistry);
+        images = Counter.builder("pdfcompare.comparison.images")
+                .description("Images extracted from compared pages")
+                .register(meterRegistry);
+        textDeltas = Counter.builder("pdfcompare.comparison.deltas")
+                .description("Differences found")
+                .tag("type", "text")
+                .register(meterRegistry);
+        imageDeltas = Counter.builder("pdfcompare.comparison.deltas")
+                .description("Differences found")
+                .tag("type", "image")
+                .register(meterRegistry);
+        wordsPerPage = DistributionSummary.builder("pdfcompare.comparison.page.words")
+                .description("Words per extracted page")
+                .register(meterRegistry);
+        imagesPerPage = DistributionSummary.builder("pdfcompare.comparison.page.images")
+                .description("Images per extracted page")
+                .register(meterRegistry);
+    }
+
+    public void comparisonStarted() {
+        activeComparisons.incrementAndGet();
+    }
+
+    public void comparisonFinished() {
+        activeComparisons.decrementAndGet();
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPage(PageResult result) {
+        pageCounters.get(result).increment();
+    }
+
+    public void recordContent(PageContent content) {
+        words.increment(content.words().size());
+        images.increment(content.images().size());
+        wordsPerPage.record(content.words().size());
+        imagesPerPage.record(content.images().size());
+    }
+
+    public void recordDeltas(int textDeltaCount, int imageDeltaCount) {
+        textDeltas.increment(textDeltaCount);
+        imageDeltas.increment(imageDeltaCount);
+    }
+
+}
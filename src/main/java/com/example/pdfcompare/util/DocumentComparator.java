@@ -0,0 +1,124 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
+import com.example.pdfcompare.util.ComparisonMetrics.Stage;
+import com.example.pdfcompare.util.PDFPageComparator.PageWords;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares two documents with their text diffed as a whole rather than page by page, so that an
+ * inserted paragraph only highlights itself and not every page its following text was pushed onto.
+ * Pages are streamed through one at a time: their images are compared right away, and only their
+ * words are kept, joined into one columnar word stream per document.
+ */
+@Component
+@RequiredArgsConstructor
+public class DocumentComparator {
+
+    private final PDFPageComparator pageComparator;
+    private final PDFHighlighter pdfHighlighter;
+    private final ComparisonMetrics comparisonMetrics;
+
+    /**
+     * Returns the highlights of each output page, at index {@code pageNumber - 1}. Highlights
+     * of a word land on the page the word is on in its own document.
+     */
+    public List<PageHighlights> compareDocuments(PdfReader reader1, PdfReader reader2, boolean isMultiple)
+            throws IOException {
+        int totalPages = Math.max(reader1.getNumberOfPages(), reader2.getNumberOfPages());
+        List<PageHighlights> highlights = new ArrayList<>(totalPages);
+        // Inserted words are drawn next to the first document's page, whose width varies per page.
+        float[] xOffsets = new float[totalPages];
+        DocumentText text1 = new DocumentText(totalPages);
+        DocumentText text2 = new DocumentText(totalPages);
+
+        for (int pageNumber = 1; pageNumber <= totalPages; pageNumber++) {
+            if (isMultiple && pageNumber <= reader1.getNumberOfPages()) {
+                xOffsets[pageNumber - 1] = reader1.getPageSize(pageNumber).getWidth();
+            }
+            PageHighlights pageHighlights = new PageHighlights();
+            PageWords words = pageComparator.comparePageImages(reader1, reader2, pageNumber, pageHighlights,
+                    xOffsets[pageNumber - 1], isMultiple);
+            text1.addPage(words.words1());
+            text2.addPage(words.words2());
+            highlights.add(pageHighlights);
+        }
+
+        long start = System.nanoTime();
+        PageText words1 = text1.build();
+        PageText words2 = text2.build();
+        List<MyersDiff.Delta> deltas = WordDiff.diff(words1, words2);
+        for (MyersDiff.Delta delta : deltas) {
+            if (isMultiple && delta.sourceSize() > 0) {
+                highlightWords(delta.sourcePosition(), delta.sourceSize(), words1, text1, highlights,
+                        BaseColor.RED, null);
+            }
+            if (delta.targetSize() > 0) {
+                highlightWords(delta.targetPosition(), delta.targetSize(), words2, text2, highlights,
+                        BaseColor.GREEN, xOffsets);
+            }
+        }
+        comparisonMetrics.recordStage(Stage.TEXT_DIFF, System.nanoTime() - start);
+        comparisonMetrics.recordDeltas(deltas.size(), 0);
+        return highlights;
+    }
+
+    private void highlightWords(int position, int size, PageText words, DocumentText text,
+                                List<PageHighlights> highlights, BaseColor color, float[] xOffsets) {
+        int page = text.pageOf(position);
+        for (int word = position; word < position + size; word++) {
+            while (word >= text.pageStarts[page + 1]) {
+                page++;
+            }
+            pdfHighlighter.drawWord(highlights.get(page), words, word, color, xOffsets != null ? xOffsets[page] : 0);
+        }
+    }
+
+    /**
+     * The words of all pages of a document; page {@code p} (zero-based) holds words
+     * {@code [pageStarts[p], pageStarts[p + 1])}.
+     */
+    private static final class DocumentText {
+
+        private final PageText.Builder words = PageText.builder();
+        private final int[] pageStarts;
+        private int pages;
+
+        DocumentText(int totalPages) {
+            pageStarts = new int[totalPages + 1];
+        }
+
+        void addPage(PageText page) {
+            words.addAll(page);
+            pageStarts[++pages] = words.size();
+        }
+
+        PageText build() {
+            return words.build();
+        }
+
+        int pageOf(int word) {
+            // The last page starting at or before the word; empty pages before it are skipped.
+            int low = 0;
+            int high = pages - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (pageStarts[mid] <= word) {
+                    low = mid;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.example.pdfcompare.util.ComparisonMetrics.PageResult;
+import com.example.pdfcompare.util.ComparisonMetrics.Stage;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decides whether two documents have the same content without producing any output, for
+ * checking a regenerated document against the previous one. Each check is only made when the
+ * cheaper one before it could not decide:
+ * <ol>
+ *     <li>equal files are equal documents;</li>
+ *     <li>pages with the same {@link PageHasher} hash, i.e. the same content streams and
+ *     resources, are equal;</li>
+ *     <li>other pages are equal when they have the same words in the same order, and images
+ *     that {@link ImageComparator} matches, which is when {@link PDFComparator} would highlight
+ *     nothing on them in content mode.</li>
+ * </ol>
+ * Pages are compared in order, and the comparison stops at the first page that differs.
+ */
+@Component
+@RequiredArgsConstructor
+public class EqualityComparator {
+
+    private final PDFPageComparator pageComparator;
+    private final ImageComparator imageComparator;
+    private final PageHasher pageHasher;
+    private final ComparisonMetrics comparisonMetrics;
+
+    public EqualityResult compare(byte[] pdf1, byte[] pdf2) throws IOException {
+        if (Arrays.equals(pdf1, pdf2)) {
+            return EqualityResult.EQUAL;
+        }
+        return compare(PdfSource.of(pdf1), PdfSource.of(pdf2));
+    }
+
+    public EqualityResult compare(Path pdf1File, Path pdf2File) throws IOException {
+        if (Files.mismatch(pdf1File, pdf2File) == -1) {
+            return EqualityResult.EQUAL;
+        }
+        return compare(PdfSource.of(pdf1File), PdfSource.of(pdf2File));
+    }
+
+    /**
+     * Compares the documents page by page, without comparing their files first.
+     */
+    public EqualityResult compare(PdfSource pdf1Source, PdfSource pdf2Source) throws IOException {
+        comparisonMetrics.comparisonStarted();
+        PdfReader reader1 = null;
+        PdfReader reader2 = null;
+        try {
+            long start = System.nanoTime();
+            reader1 = pdf1Source.open();
+            reader2 = pdf2Source.open();
+            comparisonMetrics.recordStage(Stage.OPEN, System.nanoTime() - start);
+
+            int totalPages = Math.max(reader1.getNumberOfPages(), reader2.getNumberOfPages());
+            for (int pageNumber = 1; pageNumber <= totalPages; pageNumber++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException("Comparison cancelled");
+                }
+                if (!pagesEqual(reader1, reader2, pageNumber)) {
+                    return EqualityResult.differentAt(pageNumber);
+                }
+            }
+            return EqualityResult.EQUAL;
+        } finally {
+            if (reader1 != null) {
+                reader1.close();
+            }
+            if (reader2 != null) {
+                reader2.close();
+            }
+            comparisonMetrics.comparisonFinished();
+        }
+    }
+
+    private boolean pagesEqual(PdfReader reader1, PdfReader reader2, int pageNumber) throws IOException {
+        if (pageNumber > reader1.getNumberOfPages() || pageNumber > reader2.getNumberOfPages()) {
+            return false;
+        }
+        String hash1 = pageHasher.hashPage(reader1, pageNumber);
+        String hash2 = pageHasher.hashPage(reader2, pageNumber);
+        if (hash1 != null && hash1.equals(hash2)) {
+            comparisonMetrics.recordPage(PageResult.IDENTICAL);
+            return true;
+        }
+
+        long start = System.nanoTime();
+        PageContent content1 = pageComparator.extractPage(reader1, pageNumber, hash1);
+        PageContent content2 = pageComparator.extractPage(reader2, pageNumber, hash2);
+        boolean equal = sameWords(content1.words(), content2.words()) && sameImages(content1.images(), content2.images());
+        comparisonMetrics.recordStage(Stage.TEXT_DIFF, System.nanoTime() - start);
+        comparisonMetrics.recordPage(PageResult.COMPARED);
+        return equal;
+    }
+
+    private static boolean sameWords(PageText words1, PageText words2) {
+        if (words1.size() != words2.size()) {
+            return false;
+        }
+        for (int i = 0; i < words1.size(); i++) {
+            if (!words1.wordEquals(i, words2, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Images match as they do when highlighting, so look-alike images are equal with perceptual matching.
+     */
+    private boolean sameImages(List<ImageChunk> images1, List<ImageChunk> images2) {
+        return images1.size() == images2.size() && imageComparator.diff(images1, images2).isEmpty();
+    }
+
+}
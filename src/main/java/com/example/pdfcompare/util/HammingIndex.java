@@ -0,0 +1,79 @@
+package com.example.pdfcompare.util;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Finds the nearest of a set of 64-bit hashes under Hamming distance, up to a fixed distance.
+ * <p>
+ * The hashes are split into {@code maxDistance + 1} bit blocks. Two hashes at most
+ * {@code maxDistance} bits apart cannot differ in every block, so they are equal in at least
+ * one; only hashes sharing a block with the query are measured. Each block is indexed as a
+ * sorted array of {@code (block value << 32 | position)} keys.
+ */
+final class HammingIndex {
+
+    private final long[] hashes;
+    private final int[] indexes;
+    private final int maxDistance;
+    private final int[] shifts;
+    private final long[] masks;
+    private final long[][] blockKeys;
+
+    /**
+     * Indexes {@code hashes[i]} under {@code indexes[i]}.
+     */
+    HammingIndex(long[] hashes, int[] indexes, int maxDistance) {
+        this.hashes = hashes;
+        this.indexes = indexes;
+        this.maxDistance = maxDistance;
+        // At least two blocks, so that a block value fits the upper half of a key.
+        int blocks = Math.max(2, Math.min(Long.SIZE, maxDistance + 1));
+        shifts = new int[blocks];
+        masks = new long[blocks];
+        blockKeys = new long[blocks][];
+        int shift = 0;
+        for (int block = 0; block < blocks; block++) {
+            int width = Long.SIZE / blocks + (block < Long.SIZE % blocks ? 1 : 0);
+            shifts[block] = shift;
+            masks[block] = (1L << width) - 1;
+            shift += width;
+
+            long[] keys = new long[hashes.length];
+            for (int position = 0; position < hashes.length; position++) {
+                keys[position] = blockValue(hashes[position], block) << 32 | position;
+            }
+            Arrays.sort(keys);
+            blockKeys[block] = keys;
+        }
+    }
+
+    /**
+     * Returns the index of the hash nearest to {@code hash} among those at most
+     * {@code maxDistance} bits away whose index is {@code available}, or -1 if there is none.
+     */
+    int nearest(long hash, IntPredicate available) {
+        int best = -1;
+        int bestDistance = maxDistance + 1;
+        for (int block = 0; block < blockKeys.length && bestDistance > 0; block++) {
+            long[] keys = blockKeys[block];
+            long value = blockValue(hash, block);
+            int first = Arrays.binarySearch(keys, value << 32);
+            // Positions are non-negative, so (value << 32) itself is only present for position 0.
+            for (int k = first >= 0 ? first : -first - 1; k < keys.length && keys[k] >>> 32 == value; k++) {
+                int position = (int) keys[k];
+                int distance = PerceptualHash.distance(hash, hashes[position]);
+                if (distance < bestDistance && available.test(indexes[position])) {
+                    best = indexes[position];
+                    bestDistance = distance;
+                }
+            }
+        }
+        return best;
+    }
+
+    private long blockValue(long hash, int block) {
+        return (hash >>> shifts[block]) & masks[block];
+    }
+
+}
@@ -1,29 +1,121 @@
 package com.example.pdfcompare.util;
 
+import com.example.pdfcompare.model.ImageHash;
 import lombok.experimental.UtilityClass;
 
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.security.MessageDigest;
-import java.util.Arrays;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 @UtilityClass
 public class HashUtilityClass {
 
-    public String hashBytes(byte[] data) {
+    private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
 
+    /**
+     * MurmurHash3 x64 128-bit of {@code data[offset, offset + length)} with seed 0. Not
+     * collision resistant against crafted input, but an order of magnitude faster than MD5.
+     */
+    public ImageHash murmur3x128(byte[] data, int offset, int length) {
+        long h1 = 0;
+        long h2 = 0;
+        int end = offset + length;
+        int blockEnd = offset + (length & ~15);
+        for (int i = offset; i < blockEnd; i += 16) {
+            long k1 = (long) LONG_LE.get(data, i);
+            long k2 = (long) LONG_LE.get(data, i + 8);
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = end - 1; i >= blockEnd + 8; i--) {
+            k2 = (k2 << 8) | (data[i] & 0xffL);
+        }
+        for (int i = Math.min(end, blockEnd + 8) - 1; i >= blockEnd; i--) {
+            k1 = (k1 << 8) | (data[i] & 0xffL);
+        }
+        h1 ^= mixK1(k1);
+        h2 ^= mixK2(k2);
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return new ImageHash(h1, h2);
+    }
+
+    /**
+     * MD5 of {@code data[offset, offset + length)}, for fingerprints that should stay comparable
+     * with the ones produced before the faster hash was introduced.
+     */
+    public ImageHash md5(byte[] data, int offset, int length) {
+        MessageDigest digest;
         try {
-            MessageDigest digest = MessageDigest.getInstance("MD5");
-            byte[] hash = digest.digest(data);
-            BigInteger number = new BigInteger(1, hash);
-            StringBuilder hexString = new StringBuilder(number.toString(16));
-            while (hexString.length() < 32) {
-                hexString.insert(0, '0');
-            }
-            return hexString.toString();
-        } catch (Exception e) {
-            return Arrays.toString(data);
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
         }
+        digest.update(data, offset, length);
+        byte[] hash = digest.digest();
+        return new ImageHash((long) LONG_BE.get(hash, 0), (long) LONG_BE.get(hash, 8));
+    }
 
+    private long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        return k1 * C2;
+    }
+
+    private long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        return k2 * C1;
+    }
+
+    private long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * SHA-256 of everything readable from the stream, as lowercase hex. Used where a collision
+     * would return a wrong result, e.g. cache keys.
+     */
+    public String sha256(InputStream inputStream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
     }
 
 }
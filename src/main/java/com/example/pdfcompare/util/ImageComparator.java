@@ -1,15 +1,20 @@
 package com.example.pdfcompare.util;
 
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.config.ComparisonProperties.ImageMatching;
 import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageHighlights;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
 import com.github.difflib.patch.Chunk;
-import com.github.difflib.patch.Patch;
 import com.itextpdf.text.BaseColor;
-import com.itextpdf.text.pdf.PdfContentByte;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -18,47 +23,89 @@ import java.util.stream.IntStream;
 public class ImageComparator {
 
     private final PDFHighlighter pdfHighlighter;
+    private final ComparisonProperties comparisonProperties;
 
-    public void compareImages(PdfContentByte cb, List<ImageChunk> images1,
-                              List<ImageChunk> images2, float width1, boolean isMultiple) {
+    /**
+     * Highlights the differences between both lists and returns the number of differences found.
+     */
+    public int compareImages(PageHighlights highlights, List<ImageChunk> images1,
+                             List<ImageChunk> images2, float width1, boolean isMultiple) {
 
-        List<String> imageIds1 = images1.stream()
-                .map(ImageChunk::getIdentifier)
-                .toList();
-
-        List<String> imageIds2 = images2.stream()
-                .map(ImageChunk::getIdentifier)
-                .toList();
-
-        Patch<String> patch = DiffUtils.diff(imageIds1, imageIds2);
-
-        for (var delta : patch.getDeltas()) {
+        List<AbstractDelta<ImageHash>> deltas = diff(images1, images2);
+        for (var delta : deltas) {
 
             switch (delta.getType()) {
                 case DELETE -> {
                     if (isMultiple) {
-                        highlightChunk(delta.getSource(), images1, cb, BaseColor.RED, 0);
+                        highlightChunk(delta.getSource(), images1, highlights, BaseColor.RED, 0);
                     }
                 }
                 case INSERT ->
-                        highlightChunk(delta.getTarget(), images2, cb, BaseColor.GREEN, isMultiple ? width1 : 0);
+                        highlightChunk(delta.getTarget(), images2, highlights, BaseColor.GREEN, isMultiple ? width1 : 0);
                 case CHANGE -> {
                     if (isMultiple) {
-                        highlightChunk(delta.getSource(), images1, cb, BaseColor.RED, 0);
+                        highlightChunk(delta.getSource(), images1, highlights, BaseColor.RED, 0);
                     }
-                    highlightChunk(delta.getTarget(), images2, cb, BaseColor.GREEN, isMultiple ? width1 : 0);
+                    highlightChunk(delta.getTarget(), images2, highlights, BaseColor.GREEN, isMultiple ? width1 : 0);
                 }
             }
         }
+        return deltas.size();
+    }
+
+    /**
+     * Diffs the fingerprints of both lists; with perceptual matching, look-alike images count as equal.
+     */
+    List<AbstractDelta<ImageHash>> diff(List<ImageChunk> images1, List<ImageChunk> images2) {
+        List<ImageHash> imageIds1 = images1.stream()
+                .map(ImageChunk::imageHash)
+                .toList();
 
+        List<ImageHash> imageIds2 = comparisonProperties.getImageMatching() == ImageMatching.PERCEPTUAL
+                ? perceptualIds(images1, images2)
+                : images2.stream().map(ImageChunk::imageHash).toList();
+
+        return DiffUtils.diff(imageIds1, imageIds2).getDeltas();
     }
 
-    private void highlightChunk(Chunk<String> chunk, List<ImageChunk> images,
-                                PdfContentByte cb, BaseColor color, float xOffset) {
+    private void highlightChunk(Chunk<ImageHash> chunk, List<ImageChunk> images,
+                                PageHighlights highlights, BaseColor color, float xOffset) {
         IntStream.range(chunk.getPosition(), chunk.getPosition() + chunk.size())
                 .filter(j -> j < images.size())
-                .forEach(j -> pdfHighlighter.highlightRectangle(cb,
+                .forEach(j -> pdfHighlighter.highlightRectangle(highlights,
                         images.get(j).rectangle(), color, xOffset));
     }
 
+    /**
+     * Gives each image of the second list the fingerprint of the unmatched image of the first
+     * list that looks most like it, so the diff sees look-alike images as equal. Images without
+     * a look-alike keep their own fingerprint.
+     */
+    private List<ImageHash> perceptualIds(List<ImageChunk> images1, List<ImageChunk> images2) {
+        long[] hashes = new long[images1.size()];
+        int[] indexes = new int[images1.size()];
+        int count = 0;
+        for (int i = 0; i < images1.size(); i++) {
+            Long perceptualHash = images1.get(i).perceptualHash();
+            if (perceptualHash != null) {
+                hashes[count] = perceptualHash;
+                indexes[count++] = i;
+            }
+        }
+        HammingIndex index = new HammingIndex(Arrays.copyOf(hashes, count), Arrays.copyOf(indexes, count),
+                comparisonProperties.getPerceptualHashThreshold());
+        boolean[] matched = new boolean[images1.size()];
+        List<ImageHash> ids = new ArrayList<>(images2.size());
+        for (ImageChunk image : images2) {
+            int match = image.perceptualHash() == null ? -1 : index.nearest(image.perceptualHash(), i -> !matched[i]);
+            if (match >= 0) {
+                matched[match] = true;
+                ids.add(images1.get(match).imageHash());
+            } else {
+                ids.add(image.imageHash());
+            }
+        }
+        return ids;
+    }
+
 }
@@ -0,0 +1,18 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.ImageHash;
+
+/**
+ * Fingerprints the bytes of an image, so that equal images can be matched across documents.
+ * Selected by {@code pdfcompare.comparison.image-hash-algorithm}.
+ */
+@FunctionalInterface
+public interface ImageHashFunction {
+
+    ImageHash hash(byte[] data, int offset, int length);
+
+    default ImageHash hash(byte[] data) {
+        return hash(data, 0, data.length);
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.example.pdfcompare.util;
+
+import com.github.difflib.patch.DeltaType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Myers' O(ND) difference algorithm on int sequences, in its linear-space form: common
+ * prefixes and suffixes are trimmed, and the rest is split recursively at the middle snake.
+ * Produces the same kind of deltas as {@code DiffUtils.diff}, as positions in both sequences.
+ */
+final class MyersDiff {
+
+    /**
+     * {@code source[sourcePosition, sourcePosition + sourceSize)} was replaced by
+     * {@code target[targetPosition, targetPosition + targetSize)}; either side may be empty.
+     */
+    record Delta(DeltaType type, int sourcePosition, int sourceSize, int targetPosition, int targetSize) { }
+
+    private final int[] source;
+    private final int[] target;
+    // Furthest x reached per diagonal by the forward and backward walks, shared by all bisections.
+    private final int[] forward;
+    private final int[] backward;
+    private final List<Delta> deltas = new ArrayList<>();
+
+    private MyersDiff(int[] source, int[] target) {
+        this.source = source;
+        this.target = target;
+        int diagonals = source.length + target.length + 2;
+        this.forward = new int[diagonals];
+        this.backward = new int[diagonals];
+    }
+
+    static List<Delta> diff(int[] source, int[] target) {
+        MyersDiff diff = new MyersDiff(source, target);
+        diff.diff(0, source.length, 0, target.length);
+        return diff.deltas;
+    }
+
+    private void diff(int sourceStart, int sourceEnd, int targetStart, int targetEnd) {
+        while (sourceStart < sourceEnd && targetStart < targetEnd && source[sourceStart] == target[targetStart]) {
+            sourceStart++;
+            targetStart++;
+        }
+        while (sourceStart < sourceEnd && targetStart < targetEnd && source[sourceEnd - 1] == target[targetEnd - 1]) {
+            sourceEnd--;
+            targetEnd--;
+        }
+        if (sourceStart == sourceEnd || targetStart == targetEnd) {
+            addEdit(sourceStart, sourceEnd, targetStart, targetEnd);
+        } else {
+            bisect(sourceStart, sourceEnd, targetStart, targetEnd);
+        }
+    }
+
+    /**
+     * Walks the shortest edit path from both ends at once until the two walks overlap, then
+     * diffs the parts before and after the overlap separately.
+     */
+    private void bisect(int sourceStart, int sourceEnd, int targetStart, int targetEnd) {
+        int n = sourceEnd - sourceStart;
+        int m = targetEnd - targetStart;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int length = 2 * maxD + 1;
+        Arrays.fill(forward, 0, length, -1);
+        Arrays.fill(backward, 0, length, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        // With an odd delta the forward walk reaches the overlap first, with an even one the backward walk.
+        boolean front = (delta & 1) != 0;
+        // Diagonals that ran off the edit graph are not extended again.
+        int k1Start = 0;
+        int k1End = 0;
+        int k2Start = 0;
+        int k2End = 0;
+
+        for (int d = 0; d < maxD; d++) {
+            for (int k1 = -d + k1Start; k1 <= d - k1End; k1 += 2) {
+                int k1Offset = offset + k1;
+                int x1 = k1 == -d || (k1 != d && forward[k1Offset - 1] < forward[k1Offset + 1])
+                        ? forward[k1Offset + 1]
+                        : forward[k1Offset - 1] + 1;
+                int y1 = x1 - k1;
+                while (x1 < n && y1 < m && source[sourceStart + x1] == target[targetStart + y1]) {
+                    x1++;
+                    y1++;
+                }
+                forward[k1Offset] = x1;
+                if (x1 > n) {
+                    k1End += 2;
+                } else if (y1 > m) {
+                    k1Start += 2;
+                } else if (front) {
+                    int k2Offset = offset + delta - k1;
+                    if (k2Offset >= 0 && k2Offset < length && backward[k2Offset] != -1
+                            && x1 >= n - backward[k2Offset]) {
+                        split(sourceStart, sourceEnd, targetStart, targetEnd, x1, y1);
+                        return;
+                    }
+                }
+            }
+            for (int k2 = -d + k2Start; k2 <= d - k2End; k2 += 2) {
+                int k2Offset = offset + k2;
+                int x2 = k2 == -d || (k2 != d && backward[k2Offset - 1] < backward[k2Offset + 1])
+                        ? backward[k2Offset + 1]
+                        : backward[k2Offset - 1] + 1;
+                int y2 = x2 - k2;
+                while (x2 < n && y2 < m && source[sourceEnd - x2 - 1] == target[targetEnd - y2 - 1]) {
+                    x2++;
+                    y2++;
+                }
+                backward[k2Offset] = x2;
+                if (x2 > n) {
+                    k2End += 2;
+                } else if (y2 > m) {
+                    k2Start += 2;
+                } else if (!front) {
+                    int k1Offset = offset + delta - k2;
+                    if (k1Offset >= 0 && k1Offset < length && forward[k1Offset] != -1) {
+                        int x1 = forward[k1Offset];
+                        int y1 = offset + x1 - k1Offset;
+                        if (x1 >= n - x2) {
+                            split(sourceStart, sourceEnd, targetStart, targetEnd, x1, y1);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        // The sequences have nothing in common.
+        addEdit(sourceStart, sourceEnd, targetStart, targetEnd);
+    }
+
+    private void split(int sourceStart, int sourceEnd, int targetStart, int targetEnd, int x, int y) {
+        diff(sourceStart, sourceStart + x, targetStart, targetStart + y);
+        diff(sourceStart + x, sourceEnd, targetStart + y, targetEnd);
+    }
+
+    /**
+     * Edits arrive in order; one that starts where the previous one ended extends it.
+     */
+    private void addEdit(int sourceStart, int sourceEnd, int targetStart, int targetEnd) {
+        if (sourceStart == sourceEnd && targetStart == targetEnd) {
+            return;
+        }
+        if (!deltas.isEmpty()) {
+            Delta last = deltas.get(deltas.size() - 1);
+            if (last.sourcePosition() + last.sourceSize() == sourceStart
+                    && last.targetPosition() + last.targetSize() == targetStart) {
+                deltas.set(deltas.size() - 1, delta(last.sourcePosition(), sourceEnd, last.targetPosition(), targetEnd));
+                return;
+            }
+        }
+        deltas.add(delta(sourceStart, sourceEnd, targetStart, targetEnd));
+    }
+
+    private static Delta delta(int sourceStart, int sourceEnd, int targetStart, int targetEnd) {
+        DeltaType type = sourceStart == sourceEnd ? DeltaType.INSERT
+                : targetStart == targetEnd ? DeltaType.DELETE
+                : DeltaType.CHANGE;
+        return new Delta(type, sourceStart, sourceEnd - sourceStart, targetStart, targetEnd - targetStart);
+    }
+
+}
@@ -1,5 +1,11 @@
 package com.example.pdfcompare.util;
 
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.config.ComparisonProperties.DiffMode;
+import com.example.pdfcompare.config.ComparisonProperties.TextDiffScope;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.util.ComparisonMetrics.Stage;
+import com.example.pdfcompare.util.PageAligner.PagePair;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
 import com.itextpdf.text.PageSize;
@@ -11,9 +17,17 @@ import com.itextpdf.text.pdf.PdfWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.IntStream;
 
 import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -21,66 +35,309 @@ import org.springframework.stereotype.Component;
 public class PDFComparator {
 
     private final PDFPageComparator pageComparator;
+    private final DocumentComparator documentComparator;
+    private final PageAligner pageAligner;
+    private final RasterComparator rasterComparator;
+    private final PDFHighlighter pdfHighlighter;
+    private final ComparisonProperties comparisonProperties;
+    @Qualifier("pageComparisonExecutor")
+    private final ExecutorService pageComparisonExecutor;
+    private final ComparisonMetrics comparisonMetrics;
 
     public void comparePDFs(InputStream pdf1InputStream, InputStream pdf2InputStream,
                             OutputStream outputStream, boolean isMultiple)
             throws IOException, DocumentException {
 
-        PdfReader reader1 = new PdfReader(pdf1InputStream);
-        PdfReader reader2 = new PdfReader(pdf2InputStream);
+        comparePDFs(PdfSource.of(pdf1InputStream.readAllBytes()), PdfSource.of(pdf2InputStream.readAllBytes()),
+                outputStream, isMultiple);
+    }
+
+    public void comparePDFs(PdfSource pdf1Source, PdfSource pdf2Source, OutputStream outputStream, boolean isMultiple)
+            throws IOException, DocumentException {
+
+        comparePDFs(pdf1Source, pdf2Source, outputStream, isMultiple, ComparisonListener.NONE);
+    }
+
+    public void comparePDFs(PdfSource pdf1Source, PdfSource pdf2Source, OutputStream outputStream, boolean isMultiple,
+                            ComparisonListener listener) throws IOException, DocumentException {
+
+        comparisonMetrics.comparisonStarted();
+        try {
+            compareDocuments(pdf1Source, pdf2Source, outputStream, isMultiple, listener);
+        } finally {
+            comparisonMetrics.comparisonFinished();
+        }
+    }
+
+    private void compareDocuments(PdfSource pdf1Source, PdfSource pdf2Source, OutputStream outputStream,
+                                  boolean isMultiple, ComparisonListener listener) throws IOException, DocumentException {
+
+        boolean raster = comparisonProperties.getDiffMode() == DiffMode.RASTER;
+        PdfReader reader1 = null;
+        PdfReader reader2 = null;
+        PDDocument document1 = null;
+        PDDocument document2 = null;
+        try {
+            long start = System.nanoTime();
+            reader1 = pdf1Source.open();
+            reader2 = pdf2Source.open();
+            comparisonMetrics.recordStage(Stage.OPEN, System.nanoTime() - start);
+            if (raster) {
+                start = System.nanoTime();
+                document1 = pdf1Source.openRenderable();
+                document2 = pdf2Source.openRenderable();
+                comparisonMetrics.recordStage(Stage.OPEN, System.nanoTime() - start);
+            }
+            writeComparison(pdf1Source, pdf2Source, reader1, reader2, document1, document2, outputStream,
+                    isMultiple, listener);
+        } finally {
+            // With disk input, the readers hold memory-mapped spool files until they are closed.
+            if (reader1 != null) {
+                reader1.close();
+            }
+            if (reader2 != null) {
+                reader2.close();
+            }
+            IOUtils.closeQuietly(document1);
+            IOUtils.closeQuietly(document2);
+        }
+    }
+
+    private void writeComparison(PdfSource pdf1Source, PdfSource pdf2Source, PdfReader reader1, PdfReader reader2,
+                                 PDDocument document1, PDDocument document2, OutputStream outputStream,
+                                 boolean isMultiple, ComparisonListener listener) throws IOException, DocumentException {
 
         // Setup document with a default page size.
         Rectangle defaultPageSize = PageSize.A4;
         Document document = new Document(defaultPageSize);
         PdfWriter writer = PdfWriter.getInstance(document, outputStream);
+        // The caller owns the output stream, which may be the servlet response.
+        writer.setCloseStream(false);
         document.open();
         PdfContentByte cb = writer.getDirectContent();
 
-        int totalPages = Math.max(reader1.getNumberOfPages(), reader2.getNumberOfPages());
+        // Text that reflowed onto other pages only matches when the documents are diffed as a whole,
+        // so in that mode all pages are compared before the first one is written.
+        boolean documentScope = document1 == null && comparisonProperties.getTextDiffScope() == TextDiffScope.DOCUMENT;
+        List<PagePair> alignment = null;
+        if (comparisonProperties.isAlignPages() && !documentScope) {
+            long alignStart = System.nanoTime();
+            alignment = pageAligner.align(reader1, reader2);
+            comparisonMetrics.recordStage(Stage.PAGE_ALIGNMENT, System.nanoTime() - alignStart);
+        }
+
+        int totalPages = alignment != null
+                ? alignment.size()
+                : Math.max(reader1.getNumberOfPages(), reader2.getNumberOfPages());
+        int parallelism = Math.min(comparisonProperties.getParallelism(), totalPages);
+        listener.onStart(totalPages);
+
+        List<PageHighlights> documentHighlights = documentScope
+                ? documentComparator.compareDocuments(reader1, reader2, isMultiple)
+                : null;
+
+        // Pages are compared by the workers in any order, but always written in page order,
+        // so the output does not depend on the number of threads.
+        AtomicBoolean aborted = new AtomicBoolean();
+        List<CompletableFuture<PageHighlights>> pendingPages = parallelism > 1 && documentHighlights == null
+                ? comparePagesInParallel(pdf1Source, pdf2Source, totalPages, parallelism, isMultiple, alignment, aborted)
+                : null;
+
+        try {
+            for (int pageNumber = 1; pageNumber <= totalPages; pageNumber++) {
+                PagePair pages = pagePair(reader1, reader2, pageNumber, alignment);
+                PageGeometry geometry = PageGeometry.of(reader1, reader2, pages);
+                if (geometry.isEmpty(isMultiple)) {
+                    listener.onPageCompared(pageNumber);
+                    continue; // Skip this page if both pages are missing.
+                }
+
+                long writeStart = System.nanoTime();
+                Rectangle combinedPageSize = new Rectangle(geometry.combinedWidth(isMultiple), geometry.combinedHeight());
+                document.setPageSize(combinedPageSize);
+                document.newPage();
 
-        IntStream.rangeClosed(1, totalPages).forEach(pageNumber -> {
+                // Import pages from both PDFs.
+                PdfImportedPage page1 = null;
+                PdfImportedPage page2 = null;
+                if (pages.page1() != 0) {
+                    page1 = writer.getImportedPage(reader1, pages.page1());
+                    if (isMultiple) {
+                        cb.addTemplate(page1, 0, 0);
+                    }
+                }
+                if (pages.page2() != 0) {
+                    page2 = writer.getImportedPage(reader2, pages.page2());
+                    cb.addTemplate(page2, isMultiple ? geometry.width1() : 0, 0);
+                }
+                comparisonMetrics.recordStage(Stage.OUTPUT_WRITE, System.nanoTime() - writeStart);
+
+                // Delegate per‑page comparison, or pick up the result a worker computed.
+                PageHighlights highlights = documentHighlights != null
+                        ? documentHighlights.get(pageNumber - 1)
+                        : pendingPages != null
+                        ? awaitPage(pendingPages.get(pageNumber - 1))
+                        : comparePage(reader1, reader2, document1, document2, pageNumber, isMultiple, alignment);
+                long renderStart = System.nanoTime();
+                pdfHighlighter.render(cb, highlights);
+                comparisonMetrics.recordStage(Stage.HIGHLIGHT_RENDER, System.nanoTime() - renderStart);
+                listener.onPageCompared(pageNumber);
+            }
+        } finally {
+            aborted.set(true);
+        }
+
+        long closeStart = System.nanoTime();
+        document.close();
+        comparisonMetrics.recordStage(Stage.OUTPUT_WRITE, System.nanoTime() - closeStart);
+    }
+
+    /**
+     * Compares the pages shown on an output page. The PDFBox documents are only open, and pages
+     * present in both documents only rendered, in raster mode.
+     */
+    private PageHighlights comparePage(PdfReader reader1, PdfReader reader2, PDDocument document1, PDDocument document2,
+                                       int pageNumber, boolean isMultiple, List<PagePair> alignment) {
+        PagePair pages = pagePair(reader1, reader2, pageNumber, alignment);
+        PageGeometry geometry = PageGeometry.of(reader1, reader2, pages);
+        PageHighlights highlights = new PageHighlights();
+        if (geometry.isEmpty(isMultiple)) {
+            return highlights;
+        }
+        try {
+            if (document1 != null && pages.page1() != 0 && pages.page2() != 0) {
+                rasterComparator.comparePages(reader1, document1, pages.page1(), reader2, document2, pages.page2(),
+                        highlights, geometry.width1(), isMultiple);
+            } else if (alignment == null) {
+                pageComparator.comparePage(reader1, reader2, pageNumber, highlights, geometry.width1(),
+                        geometry.width2(), geometry.height1(), geometry.height2(), isMultiple);
+            } else if (pages.page1() == 0) {
+                pageComparator.highlightInsertedPage(highlights, geometry.width1(), geometry.width2(),
+                        geometry.height2(), isMultiple);
+            } else if (pages.page2() == 0) {
+                pageComparator.highlightDeletedPage(highlights, geometry.width1(), geometry.height1());
+            } else {
+                pageComparator.comparePages(reader1, pages.page1(), reader2, pages.page2(), highlights,
+                        geometry.width1(), isMultiple);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return highlights;
+    }
+
+    /**
+     * Splits the pages over {@code parallelism} workers. Worker {@code k} compares pages
+     * {@code k + 1, k + 1 + parallelism, ...} in ascending order with its own pair of readers,
+     * since a {@link PdfReader} is not safe for concurrent use.
+     */
+    private List<CompletableFuture<PageHighlights>> comparePagesInParallel(PdfSource pdf1Source, PdfSource pdf2Source,
+                                                                           int totalPages, int parallelism,
+                                                                           boolean isMultiple, List<PagePair> alignment,
+                                                                           AtomicBoolean aborted) {
+        List<CompletableFuture<PageHighlights>> results = IntStream.range(0, totalPages)
+                .mapToObj(i -> new CompletableFuture<PageHighlights>())
+                .toList();
+        for (int worker = 0; worker < parallelism; worker++) {
+            int firstPage = worker + 1;
+            pageComparisonExecutor.execute(() ->
+                    comparePageStride(pdf1Source, pdf2Source, firstPage, parallelism, isMultiple, alignment, results,
+                            aborted));
+        }
+        return results;
+    }
+
+    private void comparePageStride(PdfSource pdf1Source, PdfSource pdf2Source, int firstPage, int stride, boolean isMultiple,
+                                   List<PagePair> alignment, List<CompletableFuture<PageHighlights>> results,
+                                   AtomicBoolean aborted) {
+        PdfReader reader1 = null;
+        PdfReader reader2 = null;
+        PDDocument document1 = null;
+        PDDocument document2 = null;
+        int pageNumber = firstPage;
+        try {
+            long start = System.nanoTime();
+            reader1 = pdf1Source.openPartial();
+            reader2 = pdf2Source.openPartial();
+            if (comparisonProperties.getDiffMode() == DiffMode.RASTER) {
+                // PDFBox documents are not safe for concurrent rendering either.
+                document1 = pdf1Source.openRenderable();
+                document2 = pdf2Source.openRenderable();
+            }
+            comparisonMetrics.recordStage(Stage.OPEN, System.nanoTime() - start);
+            for (; pageNumber <= results.size() && !aborted.get(); pageNumber += stride) {
+                results.get(pageNumber - 1).complete(comparePage(reader1, reader2, document1, document2, pageNumber,
+                        isMultiple, alignment));
+            }
+        } catch (Throwable e) {
+            // Errors too, or the writer would wait forever for the pages this worker still owed.
+            for (; pageNumber <= results.size(); pageNumber += stride) {
+                results.get(pageNumber - 1).completeExceptionally(e);
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            if (reader1 != null) {
+                reader1.close();
+            }
+            if (reader2 != null) {
+                reader2.close();
+            }
+            IOUtils.closeQuietly(document1);
+            IOUtils.closeQuietly(document2);
+        }
+    }
+
+    private PageHighlights awaitPage(CompletableFuture<PageHighlights> pendingPage) {
+        try {
+            return pendingPage.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * The pages shown on an output page: the aligned pair, or the pages with its number.
+     */
+    private static PagePair pagePair(PdfReader reader1, PdfReader reader2, int pageNumber, List<PagePair> alignment) {
+        if (alignment != null) {
+            return alignment.get(pageNumber - 1);
+        }
+        return new PagePair(pageNumber <= reader1.getNumberOfPages() ? pageNumber : 0,
+                pageNumber <= reader2.getNumberOfPages() ? pageNumber : 0);
+    }
+
+    private record PageGeometry(float width1, float width2, float height1, float height2) {
+
+        static PageGeometry of(PdfReader reader1, PdfReader reader2, PagePair pages) {
             // Calculate combined page size.
-            Rectangle pageSize1 = (pageNumber <= reader1.getNumberOfPages()) ? reader1.getPageSize(pageNumber) : null;
-            Rectangle pageSize2 = (pageNumber <= reader2.getNumberOfPages()) ? reader2.getPageSize(pageNumber) : null;
+            Rectangle pageSize1 = (pages.page1() != 0) ? reader1.getPageSize(pages.page1()) : null;
+            Rectangle pageSize2 = (pages.page2() != 0) ? reader2.getPageSize(pages.page2()) : null;
             float width1 = (pageSize1 != null) ? pageSize1.getWidth() : 0;
             float width2 = (pageSize2 != null) ? pageSize2.getWidth() : 0;
-            float combinedWidth = isMultiple ? width1 + width2 : width2;
             float height1 = (pageSize1 != null) ? pageSize1.getHeight() : 0;
             float height2 = (pageSize2 != null) ? pageSize2.getHeight() : 0;
-            float combinedHeight = Math.max(height1, height2);
+            return new PageGeometry(width1, width2, height1, height2);
+        }
 
-            if (combinedWidth == 0 || combinedHeight == 0) {
-                return; // Skip this page if both pages are missing.
-            }
+        float combinedWidth(boolean isMultiple) {
+            return isMultiple ? width1 + width2 : width2;
+        }
 
-            Rectangle combinedPageSize = new Rectangle(combinedWidth, combinedHeight);
-            document.setPageSize(combinedPageSize);
-            document.newPage();
-
-            // Import pages from both PDFs.
-            PdfImportedPage page1 = null;
-            PdfImportedPage page2 = null;
-            if (pageNumber <= reader1.getNumberOfPages()) {
-                page1 = writer.getImportedPage(reader1, pageNumber);
-                if (isMultiple) {
-                    cb.addTemplate(page1, 0, 0);
-                }
-            }
-            if (pageNumber <= reader2.getNumberOfPages()) {
-                page2 = writer.getImportedPage(reader2, pageNumber);
-                cb.addTemplate(page2, isMultiple ? width1 : 0, 0);
-            }
-            // Delegate per‑page comparison.
-            try {
-                pageComparator.comparePage(reader1, reader2, pageNumber, cb, width1, width2, height1, height2, isMultiple);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        float combinedHeight() {
+            return Math.max(height1, height2);
+        }
 
-        document.close();
-        reader1.close();
-        reader2.close();
+        boolean isEmpty(boolean isMultiple) {
+            return combinedWidth(isMultiple) == 0 || combinedHeight() == 0;
+        }
     }
 
 }
@@ -1,38 +1,142 @@
 package com.example.pdfcompare.util;
 
+import com.example.pdfcompare.model.Highlight;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Rectangle;
 import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfGState;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 public class PDFHighlighter {
 
+    static final float ENTIRE_PAGE_OPACITY = 0.2f;
+    static final float RECTANGLE_OPACITY = 0.3f;
+
+    /**
+     * Boxes on the same line closer than this fraction of the line height are filled as one,
+     * so that the space between two changed words is highlighted with them.
+     */
+    static final float MERGE_GAP = 0.5f;
+
+    private static final Comparator<Rectangle> BY_LINE = Comparator.<Rectangle>comparingDouble(Rectangle::getBottom)
+            .thenComparingDouble(Rectangle::getTop)
+            .thenComparingDouble(Rectangle::getLeft);
+
+    // A writer adds each graphics state instance as one resource, however many pages use it.
+    private final Map<Float, PdfGState> graphicsStates = new ConcurrentHashMap<>();
+
+    private record Style(BaseColor color, float opacity) { }
+
     public void highlightEntirePage(PdfContentByte cb, Rectangle rect, BaseColor color, float xOffset) {
-        cb.saveState();
-        PdfGState gs = new PdfGState();
-        gs.setFillOpacity(0.2f);
-        cb.setGState(gs);
-        cb.setColorFill(color);
-        cb.rectangle(rect.getLeft() + xOffset, rect.getBottom(), rect.getWidth(), rect.getHeight());
-        cb.fill();
-        cb.restoreState();
+        fill(cb, rect, color, xOffset, ENTIRE_PAGE_OPACITY);
     }
 
     public void drawRectangle(PdfContentByte cb, Rectangle rect, BaseColor color, float xOffset) {
+        fill(cb, rect, color, xOffset, RECTANGLE_OPACITY);
+    }
+
+    public void highlightRectangle(PdfContentByte cb, Rectangle rect, BaseColor color, float xOffset) {
+        drawRectangle(cb, rect, color, xOffset);
+    }
+
+    public void highlightEntirePage(PageHighlights highlights, Rectangle rect, BaseColor color, float xOffset) {
+        highlights.add(new Highlight(rect, color, xOffset, ENTIRE_PAGE_OPACITY));
+    }
+
+    public void drawRectangle(PageHighlights highlights, Rectangle rect, BaseColor color, float xOffset) {
+        highlights.add(new Highlight(rect, color, xOffset, RECTANGLE_OPACITY));
+    }
+
+    public void highlightRectangle(PageHighlights highlights, Rectangle rect, BaseColor color, float xOffset) {
+        drawRectangle(highlights, rect, color, xOffset);
+    }
+
+    public void drawWord(PageHighlights highlights, PageText words, int index, BaseColor color, float xOffset) {
+        drawRectangle(highlights, words.rectangle(index), color, xOffset);
+    }
+
+    /**
+     * Replays the highlights collected for a page onto the page's content byte. Highlights of
+     * the same colour and opacity are filled as one path, in the order their style first
+     * occurs, so a page gets one graphics state change per style rather than per word. Boxes
+     * on the same line that overlap or nearly touch are joined first, and the result is
+     * unioned, so the rectangles drawn grow with the number of changed regions, not words.
+     * Boxes of rotated text can have their corners swapped, so they are normalized first.
+     */
+    public void render(PdfContentByte cb, PageHighlights highlights) {
+        Map<Style, List<Rectangle>> batches = new LinkedHashMap<>();
+        for (Highlight highlight : highlights.getHighlights()) {
+            Rectangle rect = highlight.rectangle();
+            batches.computeIfAbsent(new Style(highlight.color(), highlight.opacity()), style -> new ArrayList<>())
+                    .add(new Rectangle(Math.min(rect.getLeft(), rect.getRight()) + highlight.xOffset(),
+                            Math.min(rect.getBottom(), rect.getTop()),
+                            Math.max(rect.getLeft(), rect.getRight()) + highlight.xOffset(),
+                            Math.max(rect.getBottom(), rect.getTop())));
+        }
+        for (Map.Entry<Style, List<Rectangle>> batch : batches.entrySet()) {
+            cb.saveState();
+            cb.setGState(graphicsState(batch.getKey().opacity()));
+            cb.setColorFill(batch.getKey().color());
+            for (Rectangle rect : RectangleUnion.union(joinLines(batch.getValue()))) {
+                cb.rectangle(rect.getLeft(), rect.getBottom(), rect.getWidth(), rect.getHeight());
+            }
+            cb.fill();
+            cb.restoreState();
+        }
+    }
+
+    /**
+     * Joins boxes with the same bottom and top that overlap or are less than
+     * {@link #MERGE_GAP} line heights apart.
+     */
+    static List<Rectangle> joinLines(List<Rectangle> rects) {
+        if (rects.size() < 2) {
+            return rects;
+        }
+        List<Rectangle> sorted = new ArrayList<>(rects);
+        sorted.sort(BY_LINE);
+        List<Rectangle> joined = new ArrayList<>(sorted.size());
+        Rectangle current = sorted.get(0);
+        for (int i = 1; i < sorted.size(); i++) {
+            Rectangle next = sorted.get(i);
+            if (next.getBottom() == current.getBottom() && next.getTop() == current.getTop()
+                    && next.getLeft() <= current.getRight() + MERGE_GAP * current.getHeight()) {
+                current = new Rectangle(current.getLeft(), current.getBottom(),
+                        Math.max(current.getRight(), next.getRight()), current.getTop());
+            } else {
+                joined.add(current);
+                current = next;
+            }
+        }
+        joined.add(current);
+        return joined;
+    }
+
+    private void fill(PdfContentByte cb, Rectangle rect, BaseColor color, float xOffset, float opacity) {
         cb.saveState();
-        PdfGState gs = new PdfGState();
-        gs.setFillOpacity(0.3f);
-        cb.setGState(gs);
+        cb.setGState(graphicsState(opacity));
         cb.setColorFill(color);
         cb.rectangle(rect.getLeft() + xOffset, rect.getBottom(), rect.getWidth(), rect.getHeight());
         cb.fill();
         cb.restoreState();
     }
 
-    public void highlightRectangle(PdfContentByte cb, Rectangle rect, BaseColor color, float xOffset) {
-        drawRectangle(cb, rect, color, xOffset);
+    private PdfGState graphicsState(float opacity) {
+        return graphicsStates.computeIfAbsent(opacity, key -> {
+            PdfGState gs = new PdfGState();
+            gs.setFillOpacity(key);
+            return gs;
+        });
     }
 
 }
@@ -1,18 +1,61 @@
 package com.example.pdfcompare.util;
 
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.config.ComparisonProperties.ImageHashSource;
+import com.example.pdfcompare.config.ComparisonProperties.ImageMatching;
 import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
 import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PRIndirectReference;
+import com.itextpdf.text.pdf.PRStream;
+import com.itextpdf.text.pdf.PdfArray;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfIndirectReference;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfObject;
 import com.itextpdf.text.pdf.PdfReader;
 import com.itextpdf.text.pdf.parser.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Slf4j
 @Component
+@RequiredArgsConstructor
 public class PDFImageExtractor {
 
+    /**
+     * Entries of an image XObject dictionary that affect how its stream decodes to pixels.
+     */
+    private static final List<PdfName> IMAGE_ENTRIES = List.of(PdfName.WIDTH, PdfName.HEIGHT,
+            PdfName.BITSPERCOMPONENT, PdfName.COLORSPACE, PdfName.FILTER, PdfName.DECODEPARMS, PdfName.DECODE,
+            PdfName.IMAGEMASK, PdfName.MASK, PdfName.SMASK, PdfName.SMASKINDATA, PdfName.INTENT);
+
+    // Nested colour spaces and masks deeper than this are not followed.
+    private static final int MAX_DEPTH = 8;
+
+    private final ImageHashFunction imageHashFunction;
+    private final ComparisonProperties comparisonProperties;
+
+    // Raw stream hashes of image XObjects per reader, so an image placed on many pages is hashed once per document.
+    private final Map<PdfReader, Map<Integer, ImageHash>> rawImageHashes =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    // Perceptual hashes of image XObjects per reader, for the same reason.
+    private final Map<PdfReader, Map<Integer, Long>> perceptualHashes =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
     public List<ImageChunk> extractImages(PdfReader reader, int pageNum) throws IOException {
         List<ImageChunk> images = new ArrayList<>();
         PdfReaderContentParser parser = new PdfReaderContentParser(reader);
@@ -30,42 +73,168 @@ public class PDFImageExtractor {
 
             @Override
             public void renderImage(ImageRenderInfo renderInfo) {
-                try {
-                    PdfImageObject image = renderInfo.getImage();
-                    if (image == null) {
-                        return;
-                    }
-                    byte[] imageBytes = image.getImageAsBytes();
-                    String imageHash = HashUtilityClass.hashBytes(imageBytes);
-
-                    Matrix ctm = renderInfo.getImageCTM();
-                    Vector[] corners = new Vector[4];
-                    corners[0] = new Vector(0, 0, 1).cross(ctm);
-                    corners[1] = new Vector(0, 1, 1).cross(ctm);
-                    corners[2] = new Vector(1, 1, 1).cross(ctm);
-                    corners[3] = new Vector(1, 0, 1).cross(ctm);
-
-                    float minX = Float.MAX_VALUE;
-                    float minY = Float.MAX_VALUE;
-                    float maxX = Float.MIN_VALUE;
-                    float maxY = Float.MIN_VALUE;
-
-                    for (Vector corner : corners) {
-                        float x = corner.get(Vector.I1);
-                        float y = corner.get(Vector.I2);
-                        minX = Math.min(minX, x);
-                        minY = Math.min(minY, y);
-                        maxX = Math.max(maxX, x);
-                        maxY = Math.max(maxY, y);
-                    }
-
-                    Rectangle rect = new Rectangle(minX, minY, maxX, maxY);
-                    images.add(new ImageChunk(imageHash, rect));
-                } catch (IOException e) {
-                    e.printStackTrace();
+                ImageChunk image = processImage(renderInfo);
+                if (image != null) {
+                    images.add(image);
                 }
             }
         });
         return images;
     }
+
+    /**
+     * Builds the image chunk for a single render event, or returns {@code null} when the image
+     * cannot be read.
+     */
+    ImageChunk processImage(ImageRenderInfo renderInfo) {
+        try {
+            ImageHash imageHash = comparisonProperties.getImageHashSource() == ImageHashSource.RAW_STREAM
+                    && renderInfo.getRef() instanceof PRIndirectReference reference
+                    ? rawImageHash(reference)
+                    : decodedImageHash(renderInfo);
+            if (imageHash == null) {
+                return null;
+            }
+            Long perceptualHash = comparisonProperties.getImageMatching() == ImageMatching.PERCEPTUAL
+                    ? perceptualHash(renderInfo)
+                    : null;
+
+            Matrix ctm = renderInfo.getImageCTM();
+            Vector[] corners = new Vector[4];
+            corners[0] = new Vector(0, 0, 1).cross(ctm);
+            corners[1] = new Vector(0, 1, 1).cross(ctm);
+            corners[2] = new Vector(1, 1, 1).cross(ctm);
+            corners[3] = new Vector(1, 0, 1).cross(ctm);
+
+            float minX = Float.MAX_VALUE;
+            float minY = Float.MAX_VALUE;
+            float maxX = Float.MIN_VALUE;
+            float maxY = Float.MIN_VALUE;
+
+            for (Vector corner : corners) {
+                float x = corner.get(Vector.I1);
+                float y = corner.get(Vector.I2);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+
+            Rectangle rect = new Rectangle(minX, minY, maxX, maxY);
+            return new ImageChunk(imageHash, rect, perceptualHash);
+        } catch (IOException e) {
+            log.warn("Skipping an image that cannot be read ({})", renderInfo.getRef(), e);
+            return null;
+        }
+    }
+
+    private ImageHash decodedImageHash(ImageRenderInfo renderInfo) throws IOException {
+        PdfImageObject image = renderInfo.getImage();
+        if (image == null) {
+            return null;
+        }
+        return imageHashFunction.hash(image.getImageAsBytes());
+    }
+
+    /**
+     * Returns the difference hash of the decoded image, or {@code null} when it cannot be decoded
+     * to pixels; such an image can still match exactly.
+     */
+    private Long perceptualHash(ImageRenderInfo renderInfo) {
+        Map<Integer, Long> memo = renderInfo.getRef() instanceof PRIndirectReference reference
+                ? perceptualHashes.computeIfAbsent(reference.getReader(), reader -> new ConcurrentHashMap<>())
+                : null;
+        if (memo != null && memo.get(renderInfo.getRef().getNumber()) instanceof Long cached) {
+            return cached;
+        }
+        try {
+            PdfImageObject image = renderInfo.getImage();
+            BufferedImage pixels = image != null ? image.getBufferedImage() : null;
+            if (pixels == null) {
+                return null;
+            }
+            long perceptualHash = PerceptualHash.dHash(pixels);
+            if (memo != null) {
+                memo.put(renderInfo.getRef().getNumber(), perceptualHash);
+            }
+            return perceptualHash;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Hashes an image XObject without decoding it: its still-encoded stream together with the
+     * dictionary entries needed to decode it. The same pixels encoded differently hash differently.
+     */
+    private ImageHash rawImageHash(PRIndirectReference reference) throws IOException {
+        Map<Integer, ImageHash> memo = rawImageHashes.computeIfAbsent(reference.getReader(),
+                reader -> new ConcurrentHashMap<>());
+        ImageHash cached = memo.get(reference.getNumber());
+        if (cached != null) {
+            return cached;
+        }
+        if (!(PdfReader.getPdfObjectRelease(reference) instanceof PRStream stream)) {
+            return null;
+        }
+        ByteArrayOutputStream fingerprint = new ByteArrayOutputStream();
+        for (PdfName key : IMAGE_ENTRIES) {
+            write(fingerprint, key.toString());
+            writeObject(stream.get(key), fingerprint, 0);
+        }
+        writeStream(stream, fingerprint);
+        ImageHash imageHash = imageHashFunction.hash(fingerprint.toByteArray());
+        memo.put(reference.getNumber(), imageHash);
+        return imageHash;
+    }
+
+    /**
+     * Writes an object with indirect references resolved, since object numbers differ between
+     * documents, and streams (ICC profiles, soft masks) replaced by the hash of their raw bytes.
+     */
+    private void writeObject(PdfObject object, ByteArrayOutputStream out, int depth) throws IOException {
+        if (object != null && object.isIndirect()) {
+            object = PdfReader.getPdfObjectRelease(object);
+        }
+        if (object == null || depth > MAX_DEPTH) {
+            write(out, "null");
+        } else if (object instanceof PRStream stream) {
+            List<PdfName> keys = new ArrayList<>(stream.getKeys());
+            keys.sort(PdfName::compareTo);
+            write(out, "stream");
+            for (PdfName key : keys) {
+                write(out, key.toString());
+                writeObject(stream.get(key), out, depth + 1);
+            }
+            writeStream(stream, out);
+        } else if (object.isDictionary()) {
+            PdfDictionary dictionary = (PdfDictionary) object;
+            List<PdfName> keys = new ArrayList<>(dictionary.getKeys());
+            keys.sort(PdfName::compareTo);
+            write(out, "<<");
+            for (PdfName key : keys) {
+                write(out, key.toString());
+                writeObject(dictionary.get(key), out, depth + 1);
+            }
+            write(out, ">>");
+        } else if (object.isArray()) {
+            write(out, "[");
+            for (PdfObject element : (PdfArray) object) {
+                writeObject(element, out, depth + 1);
+            }
+            write(out, "]");
+        } else {
+            write(out, object.type() + ":" + object);
+        }
+    }
+
+    private void writeStream(PRStream stream, ByteArrayOutputStream out) throws IOException {
+        ImageHash hash = imageHashFunction.hash(PdfReader.getStreamBytesRaw(stream));
+        write(out, hash.toString());
+    }
+
+    private static void write(ByteArrayOutputStream out, String value) {
+        out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        out.write(0);
+    }
 }
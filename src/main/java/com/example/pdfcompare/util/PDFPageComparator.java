@@ -1,48 +1,156 @@
 package com.example.pdfcompare.util;
 
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
+import com.example.pdfcompare.util.ComparisonMetrics.PageResult;
+import com.example.pdfcompare.util.ComparisonMetrics.Stage;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfReader;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class PDFPageComparator {
 
+    private static final PageContent MISSING_PAGE = new PageContent(PageText.EMPTY, List.of());
+
+    /**
+     * The words of page N of both documents; empty for a page a document does not have.
+     */
+    public record PageWords(PageText words1, PageText words2) { }
+
     private final TextComparator textComparator;
     private final ImageComparator imageComparator;
     private final PDFHighlighter pdfHighlighter;
-    private final PDFTextExtractor pdfTextExtractor;
-    private final PDFImageExtractor pdfImageExtractor;
+    private final PDFPageContentExtractor pdfPageContentExtractor;
+    private final PageHasher pageHasher;
+    private final PageContentCache pageContentCache;
+    private final ComparisonMetrics comparisonMetrics;
 
-    public void comparePage(PdfReader reader1, PdfReader reader2, int pageNum, PdfContentByte cb,
+    public void comparePage(PdfReader reader1, PdfReader reader2, int pageNum, PageHighlights highlights,
                             float width1, float width2, float height1, float height2, boolean isMultiple)
             throws IOException {
         // Highlight entire page if one PDF has an extra page.
         if (pageNum > reader1.getNumberOfPages() && pageNum <= reader2.getNumberOfPages()) {
-            Rectangle rect = new Rectangle(0, 0, width2, height2);
-            pdfHighlighter.highlightEntirePage(cb, rect, BaseColor.GREEN, isMultiple ? width1 : 0);
+            highlightInsertedPage(highlights, width1, width2, height2, isMultiple);
             return;
         } else if (pageNum <= reader1.getNumberOfPages() && pageNum > reader2.getNumberOfPages() && isMultiple) {
-            Rectangle rect = new Rectangle(0, 0, width1, height1);
-            pdfHighlighter.highlightEntirePage(cb, rect, BaseColor.RED, 0);
+            highlightDeletedPage(highlights, width1, height1);
+            return;
+        }
+        comparePages(reader1, pageNum, reader2, pageNum, highlights, width1, isMultiple);
+    }
+
+    /**
+     * Highlights a page that only exists in the second document.
+     */
+    public void highlightInsertedPage(PageHighlights highlights, float width1, float width2, float height2,
+                                      boolean isMultiple) {
+        Rectangle rect = new Rectangle(0, 0, width2, height2);
+        pdfHighlighter.highlightEntirePage(highlights, rect, BaseColor.GREEN, isMultiple ? width1 : 0);
+        comparisonMetrics.recordPage(PageResult.INSERTED);
+    }
+
+    /**
+     * Highlights a page that only exists in the first document.
+     */
+    public void highlightDeletedPage(PageHighlights highlights, float width1, float height1) {
+        Rectangle rect = new Rectangle(0, 0, width1, height1);
+        pdfHighlighter.highlightEntirePage(highlights, rect, BaseColor.RED, 0);
+        comparisonMetrics.recordPage(PageResult.DELETED);
+    }
+
+    /**
+     * Compares page {@code pageNum1} of the first document with page {@code pageNum2} of the
+     * second; the numbers differ when pages were paired by {@link PageAligner}.
+     */
+    public void comparePages(PdfReader reader1, int pageNum1, PdfReader reader2, int pageNum2,
+                             PageHighlights highlights, float width1, boolean isMultiple) throws IOException {
+        // Pages with the same content streams, resources and geometry render identically; nothing to highlight.
+        String hash1 = pageHasher.hashPage(reader1, pageNum1);
+        String hash2 = pageHasher.hashPage(reader2, pageNum2);
+        if (hash1 != null && hash1.equals(hash2)) {
+            comparisonMetrics.recordPage(PageResult.IDENTICAL);
             return;
         }
 
+        // Extract words and images of each page in a single content-stream pass.
+        var content1 = extractPage(reader1, pageNum1, hash1);
+        var content2 = extractPage(reader2, pageNum2, hash2);
+
+        comparisonMetrics.recordContent(content1);
+        comparisonMetrics.recordContent(content2);
+
         // Compare text differences.
-        var words1 = pdfTextExtractor.extractWords(reader1, pageNum);
-        var words2 = pdfTextExtractor.extractWords(reader2, pageNum);
-        textComparator.compareText(cb, words1, words2, width1, isMultiple);
+        long start = System.nanoTime();
+        int textDeltas = textComparator.compareText(highlights, content1.words(), content2.words(), width1, isMultiple);
+        comparisonMetrics.recordStage(Stage.TEXT_DIFF, System.nanoTime() - start);
 
         // Compare image differences.
-        var images1 = pdfImageExtractor.extractImages(reader1, pageNum);
-        var images2 = pdfImageExtractor.extractImages(reader2, pageNum);
-        imageComparator.compareImages(cb, images1, images2, width1, isMultiple);
+        start = System.nanoTime();
+        int imageDeltas = imageComparator.compareImages(highlights, content1.images(), content2.images(), width1, isMultiple);
+        comparisonMetrics.recordStage(Stage.IMAGE_DIFF, System.nanoTime() - start);
 
+        comparisonMetrics.recordDeltas(textDeltas, imageDeltas);
+        comparisonMetrics.recordPage(PageResult.COMPARED);
+    }
+
+    /**
+     * Compares only the images of a page and returns the words of both pages, for comparisons
+     * whose text is diffed across the whole document by {@link DocumentComparator}. A page that
+     * exists in one document only is not highlighted as a whole, since its text may just have
+     * reflowed; its images count as inserted or deleted.
+     */
+    public PageWords comparePageImages(PdfReader reader1, PdfReader reader2, int pageNum, PageHighlights highlights,
+                                       float width1, boolean isMultiple) throws IOException {
+        boolean inFirst = pageNum <= reader1.getNumberOfPages();
+        boolean inSecond = pageNum <= reader2.getNumberOfPages();
+        String hash1 = inFirst ? pageHasher.hashPage(reader1, pageNum) : null;
+        String hash2 = inSecond ? pageHasher.hashPage(reader2, pageNum) : null;
+
+        boolean identical = hash1 != null && hash1.equals(hash2);
+
+        // The words are needed even when both pages are identical, but then only one page is extracted.
+        PageContent content1 = inFirst ? extractPage(reader1, pageNum, hash1) : MISSING_PAGE;
+        PageContent content2 = identical ? content1 : inSecond ? extractPage(reader2, pageNum, hash2) : MISSING_PAGE;
+        PageWords words = new PageWords(content1.words(), content2.words());
+        if (identical) {
+            comparisonMetrics.recordPage(PageResult.IDENTICAL);
+            return words;
+        }
+        comparisonMetrics.recordContent(content1);
+        comparisonMetrics.recordContent(content2);
+
+        long start = System.nanoTime();
+        int imageDeltas = imageComparator.compareImages(highlights, content1.images(), content2.images(), width1, isMultiple);
+        comparisonMetrics.recordStage(Stage.IMAGE_DIFF, System.nanoTime() - start);
+
+        comparisonMetrics.recordDeltas(0, imageDeltas);
+        comparisonMetrics.recordPage(!inFirst ? PageResult.INSERTED : !inSecond ? PageResult.DELETED : PageResult.COMPARED);
+        return words;
+    }
+
+    /**
+     * Extracts a page, or takes it from the page content cache when its hash is known.
+     */
+    PageContent extractPage(PdfReader reader, int pageNum, String pageHash) throws IOException {
+        if (pageHash != null) {
+            PageContent cached = pageContentCache.get(pageHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PageContent content = pdfPageContentExtractor.extractPage(reader, pageNum);
+        if (pageHash != null) {
+            pageContentCache.put(pageHash, content);
+        }
+        return content;
     }
 
 }
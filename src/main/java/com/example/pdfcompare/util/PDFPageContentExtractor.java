@@ -0,0 +1,72 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.ImageRenderInfo;
+import com.itextpdf.text.pdf.parser.PdfReaderContentParser;
+import com.itextpdf.text.pdf.parser.RenderListener;
+import com.itextpdf.text.pdf.parser.TextRenderInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Extracts the words and images of a page in a single pass over its content stream,
+ * so each page is parsed once instead of once per extractor.
+ */
+@Component
+@RequiredArgsConstructor
+public class PDFPageContentExtractor {
+
+    private final PDFTextExtractor pdfTextExtractor;
+    private final PDFImageExtractor pdfImageExtractor;
+    private final ComparisonMetrics comparisonMetrics;
+
+    /**
+     * Also records the time spent on the page: image decoding and hashing as image extraction,
+     * and the rest of the pass (content stream parsing and word splitting) as text extraction.
+     */
+    public PageContent extractPage(PdfReader reader, int pageNum) throws IOException {
+        long start = System.nanoTime();
+        long[] imageNanos = new long[1];
+        PageText.Builder words = PageText.builder();
+        List<ImageChunk> images = new ArrayList<>();
+        PdfReaderContentParser parser = new PdfReaderContentParser(reader);
+
+        parser.processContent(pageNum, new RenderListener() {
+            @Override
+            public void beginTextBlock() { }
+
+            @Override
+            public void endTextBlock() {
+                words.endBlock();
+            }
+
+            @Override
+            public void renderText(TextRenderInfo renderInfo) {
+                pdfTextExtractor.processText(renderInfo, words);
+            }
+
+            @Override
+            public void renderImage(ImageRenderInfo renderInfo) {
+                long imageStart = System.nanoTime();
+                ImageChunk image = pdfImageExtractor.processImage(renderInfo);
+                if (image != null) {
+                    images.add(image);
+                }
+                imageNanos[0] += System.nanoTime() - imageStart;
+            }
+        });
+        comparisonMetrics.recordStage(ComparisonMetrics.Stage.TEXT_EXTRACTION, System.nanoTime() - start - imageNanos[0]);
+        comparisonMetrics.recordStage(ComparisonMetrics.Stage.IMAGE_EXTRACTION, imageNanos[0]);
+        // Extracted pages may be shared through the page content cache.
+        return new PageContent(words.build(), Collections.unmodifiableList(images));
+    }
+
+}
@@ -1,7 +1,6 @@
 package com.example.pdfcompare.util;
 
-import com.example.pdfcompare.model.TextChunk;
-import com.itextpdf.text.Rectangle;
+import com.example.pdfcompare.model.PageText;
 import com.itextpdf.text.pdf.PdfReader;
 import com.itextpdf.text.pdf.parser.ImageRenderInfo;
 import com.itextpdf.text.pdf.parser.PdfReaderContentParser;
@@ -11,14 +10,13 @@ import com.itextpdf.text.pdf.parser.Vector;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 @Component
 public class PDFTextExtractor {
 
-    public List<TextChunk> extractWords(PdfReader reader, int pageNum) throws IOException {
-        List<TextChunk> words = new ArrayList<>();
+    public PageText extractWords(PdfReader reader, int pageNum) throws IOException {
+        PageText.Builder words = PageText.builder();
         PdfReaderContentParser parser = new PdfReaderContentParser(reader);
 
         // Process the page content with an inline RenderListener.
@@ -27,52 +25,59 @@ public class PDFTextExtractor {
             public void beginTextBlock() { }
 
             @Override
-            public void endTextBlock() { }
+            public void endTextBlock() {
+                words.endBlock();
+            }
 
             @Override
             public void renderText(TextRenderInfo renderInfo) {
-                // Delegate to a helper method to process and collect text chunks.
-                words.addAll(processText(renderInfo));
+                // Delegate to a helper method that adds the text chunks to the page's list.
+                processText(renderInfo, words);
             }
 
             @Override
             public void renderImage(ImageRenderInfo renderInfo) { }
         });
-        return words;
+        return words.build();
     }
 
-    private List<TextChunk> processText(TextRenderInfo renderInfo) {
-        List<TextChunk> chunks = new ArrayList<>();
+    /**
+     * Splits the rendered text into whitespace-separated words and appends them to {@code out}.
+     * The text is scanned by index, so nothing is allocated per word; each word is bounded by
+     * the characters at its own offsets in the text.
+     */
+    void processText(TextRenderInfo renderInfo, PageText.Builder out) {
         String text = renderInfo.getText();
-        String[] wordArray = text.split("\\s+");
-        int wordIndex = 0;
         List<TextRenderInfo> charInfos = renderInfo.getCharacterRenderInfos();
+        int length = text.length();
+        int lastCharInfo = charInfos.size() - 1;
+        int i = 0;
 
-        for (String word : wordArray) {
-            // Using isBlank() (available since Java 11) to check for non-empty words.
-            if (!word.isBlank()) {
-                if (wordIndex < charInfos.size()) {
-                    TextRenderInfo firstChar = charInfos.get(wordIndex);
-                    // Use Math.min to ensure we don't exceed the bounds of charInfos.
-                    int lastCharIndex = Math.min(wordIndex + word.length() - 1, charInfos.size() - 1);
-                    TextRenderInfo lastChar = charInfos.get(lastCharIndex);
-
-                    Vector start = firstChar.getBaseline().getStartPoint();
-                    Vector end = lastChar.getAscentLine().getEndPoint();
+        while (i < length) {
+            while (i < length && isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            int wordStart = i;
+            while (i < length && !isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            if (wordStart == i || wordStart > lastCharInfo) {
+                continue;
+            }
+            TextRenderInfo firstChar = charInfos.get(wordStart);
+            // Use Math.min to ensure we don't exceed the bounds of charInfos.
+            TextRenderInfo lastChar = charInfos.get(Math.min(i - 1, lastCharInfo));
 
-                    float minX = start.get(Vector.I1);
-                    float minY = start.get(Vector.I2);
-                    float maxX = end.get(Vector.I1);
-                    float maxY = end.get(Vector.I2);
+            Vector start = firstChar.getBaseline().getStartPoint();
+            Vector end = lastChar.getAscentLine().getEndPoint();
 
-                    Rectangle rect = new Rectangle(minX, minY, maxX, maxY);
-                    chunks.add(new TextChunk(word, rect));
-                    wordIndex = lastCharIndex + 1;
-                }
-            } else {
-                wordIndex++;
-            }
+            out.add(text, wordStart, i, start.get(Vector.I1), start.get(Vector.I2),
+                    end.get(Vector.I1), end.get(Vector.I2));
         }
-        return chunks;
+    }
+
+    // The characters matched by the regex class \s, which words used to be split on.
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
@@ -0,0 +1,196 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pairs the pages of two documents by content instead of by position, so that a page inserted
+ * or deleted in the middle does not shift every later page onto the wrong counterpart.
+ * <p>
+ * Pages are first matched by their {@link PageHasher} hash, which does not need the pages to be
+ * parsed. Only the runs of pages between two matches are extracted, through the page content
+ * cache the comparison reads from afterwards, and paired by how many word pairs and images they
+ * share; a page too different from every candidate is treated as inserted or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageAligner {
+
+    /**
+     * Pages sharing less than this fraction of their content are not paired.
+     */
+    static final double MIN_SIMILARITY = 0.5;
+
+    // Beyond this many candidate pairs, a run is paired by position instead.
+    private static final int MAX_CANDIDATES = 250_000;
+
+    private final PageHasher pageHasher;
+    private final PDFPageComparator pageComparator;
+
+    /**
+     * Page {@code page1} of the first document shown next to page {@code page2} of the second.
+     * A page number of 0 means that side has no page.
+     */
+    public record PagePair(int page1, int page2) { }
+
+    /**
+     * Returns the output pages in order: matched pages in both documents' order, with
+     * unmatched pages placed where they occur.
+     */
+    public List<PagePair> align(PdfReader reader1, PdfReader reader2) throws IOException {
+        int pages1 = reader1.getNumberOfPages();
+        int pages2 = reader2.getNumberOfPages();
+        Map<String, Integer> ids = new HashMap<>();
+        String[] hashes1 = hashPages(reader1);
+        String[] hashes2 = hashPages(reader2);
+
+        List<PagePair> pairs = new ArrayList<>(Math.max(pages1, pages2));
+        int page1 = 1;
+        int page2 = 1;
+        for (MyersDiff.Delta delta : MyersDiff.diff(fingerprints(hashes1, ids), fingerprints(hashes2, ids))) {
+            for (; page1 <= delta.sourcePosition(); page1++, page2++) {
+                pairs.add(new PagePair(page1, page2));
+            }
+            alignRun(reader1, hashes1, page1, delta.sourceSize(), reader2, hashes2, page2, delta.targetSize(), pairs);
+            page1 += delta.sourceSize();
+            page2 += delta.targetSize();
+        }
+        for (; page1 <= pages1; page1++, page2++) {
+            pairs.add(new PagePair(page1, page2));
+        }
+        return pairs;
+    }
+
+    private String[] hashPages(PdfReader reader) throws IOException {
+        String[] hashes = new String[reader.getNumberOfPages()];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = pageHasher.hashPage(reader, i + 1);
+        }
+        return hashes;
+    }
+
+    private static int[] fingerprints(String[] hashes, Map<String, Integer> ids) {
+        int[] fingerprints = new int[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            fingerprints[i] = ids.computeIfAbsent(hashes[i], hash -> ids.size());
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Pairs the pages of a run that differ in both documents so that the total similarity of the
+     * pairs is highest, keeping both documents' page order.
+     */
+    private void alignRun(PdfReader reader1, String[] hashes1, int first1, int count1,
+                          PdfReader reader2, String[] hashes2, int first2, int count2,
+                          List<PagePair> pairs) throws IOException {
+        if (count1 == 0 || count2 == 0 || (long) count1 * count2 > MAX_CANDIDATES) {
+            int common = count1 == 0 || count2 == 0 ? 0 : Math.min(count1, count2);
+            for (int i = 0; i < common; i++) {
+                pairs.add(new PagePair(first1 + i, first2 + i));
+            }
+            for (int i = common; i < count1; i++) {
+                pairs.add(new PagePair(first1 + i, 0));
+            }
+            for (int i = common; i < count2; i++) {
+                pairs.add(new PagePair(0, first2 + i));
+            }
+            return;
+        }
+
+        int[][] sketches1 = new int[count1][];
+        for (int i = 0; i < count1; i++) {
+            sketches1[i] = sketch(pageComparator.extractPage(reader1, first1 + i, hashes1[first1 + i - 1]));
+        }
+        int[][] sketches2 = new int[count2][];
+        for (int j = 0; j < count2; j++) {
+            sketches2[j] = sketch(pageComparator.extractPage(reader2, first2 + j, hashes2[first2 + j - 1]));
+        }
+
+        // best[i][j]: highest total similarity pairing the first i pages with the first j pages.
+        double[][] best = new double[count1 + 1][count2 + 1];
+        boolean[][] paired = new boolean[count1 + 1][count2 + 1];
+        for (int i = 1; i <= count1; i++) {
+            for (int j = 1; j <= count2; j++) {
+                best[i][j] = Math.max(best[i - 1][j], best[i][j - 1]);
+                double similarity = similarity(sketches1[i - 1], sketches2[j - 1]);
+                if (similarity >= MIN_SIMILARITY && best[i - 1][j - 1] + similarity > best[i][j]) {
+                    best[i][j] = best[i - 1][j - 1] + similarity;
+                    paired[i][j] = true;
+                }
+            }
+        }
+
+        // Walk back from the end; unpaired pages of the first document come before those of the second.
+        List<PagePair> run = new ArrayList<>(count1 + count2);
+        int i = count1;
+        int j = count2;
+        while (i > 0 || j > 0) {
+            if (i > 0 && j > 0 && paired[i][j]) {
+                run.add(new PagePair(first1 + --i, first2 + --j));
+            } else if (j > 0 && (i == 0 || best[i][j - 1] >= best[i - 1][j])) {
+                run.add(new PagePair(0, first2 + --j));
+            } else {
+                run.add(new PagePair(first1 + --i, 0));
+            }
+        }
+        for (int k = run.size() - 1; k >= 0; k--) {
+            pairs.add(run.get(k));
+        }
+    }
+
+    /**
+     * The sorted hashes of each pair of consecutive words and of each image on the page.
+     * Word pairs are used rather than words, so that pages sharing only common words differ.
+     */
+    static int[] sketch(PageContent content) {
+        PageText words = content.words();
+        List<ImageChunk> images = content.images();
+        int wordPairs = Math.max(0, words.size() - 1);
+        int[] sketch = new int[wordPairs + images.size()];
+        for (int i = 0; i < wordPairs; i++) {
+            sketch[i] = 31 * words.wordHashCode(i) + words.wordHashCode(i + 1);
+        }
+        for (int i = 0; i < images.size(); i++) {
+            sketch[wordPairs + i] = images.get(i).imageHash().hashCode();
+        }
+        Arrays.sort(sketch);
+        return sketch;
+    }
+
+    /**
+     * The share of both sketches found in the other, from 0 for disjoint pages to 1 for equal ones.
+     */
+    static double similarity(int[] sketch1, int[] sketch2) {
+        if (sketch1.length == 0 || sketch2.length == 0) {
+            return sketch1.length == sketch2.length ? 1 : 0;
+        }
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < sketch1.length && j < sketch2.length) {
+            if (sketch1[i] == sketch2[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (sketch1[i] < sketch2[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return 2.0 * common / (sketch1.length + sketch2.length);
+    }
+
+}
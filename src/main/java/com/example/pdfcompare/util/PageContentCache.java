@@ -0,0 +1,43 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.PageContent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of extracted pages keyed by {@link PageHasher} hash, so a page that recurs
+ * across revisions of a document or across requests is only parsed once.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageContentCache {
+
+    private final ComparisonProperties comparisonProperties;
+
+    // Access-ordered, so the eldest entry is the least recently used one.
+    private final LinkedHashMap<String, PageContent> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PageContent> eldest) {
+            return size() > comparisonProperties.getPageCacheSize();
+        }
+    };
+
+    public synchronized PageContent get(String pageHash) {
+        return entries.get(pageHash);
+    }
+
+    public synchronized void put(String pageHash, PageContent content) {
+        if (comparisonProperties.getPageCacheSize() > 0) {
+            entries.put(pageHash, content);
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+}
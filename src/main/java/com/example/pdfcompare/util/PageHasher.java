@@ -0,0 +1,127 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PRStream;
+import com.itextpdf.text.pdf.PdfArray;
+import com.itextpdf.text.pdf.PdfDictionary;
+import com.itextpdf.text.pdf.PdfIndirectReference;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfObject;
+import com.itextpdf.text.pdf.PdfReader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Fingerprints a page by everything that determines how it renders when imported: the raw
+ * content streams, the resources they use and the page geometry. Two pages with the same hash
+ * produce the same words, images and imported template.
+ */
+@Component
+public class PageHasher {
+
+    // Digests of indirect objects (fonts, images, forms) per reader, so shared resources are hashed once per document.
+    private final Map<PdfReader, Map<Integer, byte[]>> objectDigests = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Returns the SHA-256 of the page as lowercase hex, or {@code null} when the reader has no such page.
+     */
+    public String hashPage(PdfReader reader, int pageNum) throws IOException {
+        if (pageNum < 1 || pageNum > reader.getNumberOfPages()) {
+            return null;
+        }
+        PdfDictionary page = reader.getPageN(pageNum);
+        Map<Integer, byte[]> memo = objectDigests.computeIfAbsent(reader, r -> new HashMap<>());
+        MessageDigest digest = newDigest();
+
+        Rectangle pageSize = reader.getPageSizeWithRotation(pageNum);
+        Rectangle cropBox = reader.getCropBox(pageNum);
+        update(digest, pageSize.getLeft() + " " + pageSize.getBottom() + " " + pageSize.getRight() + " "
+                + pageSize.getTop() + " " + pageSize.getRotation());
+        update(digest, cropBox.getLeft() + " " + cropBox.getBottom() + " " + cropBox.getRight() + " " + cropBox.getTop());
+        hashObject(page.get(PdfName.CONTENTS), digest, memo, new HashSet<>());
+        hashObject(page.get(PdfName.RESOURCES), digest, memo, new HashSet<>());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void hashObject(PdfObject object, MessageDigest digest, Map<Integer, byte[]> memo,
+                            Set<Integer> inProgress) throws IOException {
+        if (object == null) {
+            update(digest, "null");
+            return;
+        }
+        if (object.isIndirect()) {
+            PdfIndirectReference reference = (PdfIndirectReference) object;
+            int number = reference.getNumber();
+            byte[] objectDigest = memo.get(number);
+            if (objectDigest == null) {
+                if (!inProgress.add(number)) {
+                    // A reference cycle; the object itself is already being hashed further up.
+                    update(digest, "R" + number);
+                    return;
+                }
+                MessageDigest referenced = newDigest();
+                hashObject(PdfReader.getPdfObjectRelease(reference), referenced, memo, inProgress);
+                objectDigest = referenced.digest();
+                memo.put(number, objectDigest);
+                inProgress.remove(number);
+            }
+            digest.update(objectDigest);
+            return;
+        }
+        if (object.isDictionary() || object.isStream()) {
+            PdfDictionary dictionary = (PdfDictionary) object;
+            List<PdfName> keys = new ArrayList<>(dictionary.getKeys());
+            keys.sort(PdfName::compareTo);
+            update(digest, "<<");
+            for (PdfName key : keys) {
+                // Back-references up the page tree do not affect rendering.
+                if (PdfName.PARENT.equals(key) || PdfName.P.equals(key)) {
+                    continue;
+                }
+                update(digest, key.toString());
+                hashObject(dictionary.get(key), digest, memo, inProgress);
+            }
+            update(digest, ">>");
+            if (object instanceof PRStream stream) {
+                digest.update(PdfReader.getStreamBytesRaw(stream));
+            }
+            return;
+        }
+        if (object.isArray()) {
+            update(digest, "[");
+            for (PdfObject element : (PdfArray) object) {
+                hashObject(element, digest, memo, inProgress);
+            }
+            update(digest, "]");
+            return;
+        }
+        update(digest, object.type() + ":" + object);
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+}
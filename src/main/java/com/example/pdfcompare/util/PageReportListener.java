@@ -0,0 +1,17 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageReport;
+
+import java.io.IOException;
+
+/**
+ * Receives the report of each page from {@link ReportComparator} as soon as the page is
+ * compared, in page order. Throwing stops the comparison, e.g. when the client that the
+ * reports are streamed to has gone away.
+ */
+@FunctionalInterface
+public interface PageReportListener {
+
+    void onPageReport(PageReport report) throws IOException;
+
+}
@@ -0,0 +1,81 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.io.RandomAccessSourceFactory;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.RandomAccessFileOrArray;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A PDF input that can be opened more than once, e.g. by several comparison workers.
+ */
+public interface PdfSource {
+
+    /**
+     * Opens the reader used to import pages into the output document.
+     */
+    PdfReader open() throws IOException;
+
+    /**
+     * Opens a reader that loads objects lazily, page by page, as they are requested.
+     */
+    PdfReader openPartial() throws IOException;
+
+    /**
+     * Opens the document with PDFBox, to render its pages.
+     */
+    PDDocument openRenderable() throws IOException;
+
+    /**
+     * A PDF held on heap. {@link #open()} parses the whole document up front, as
+     * {@code new PdfReader(InputStream)} does.
+     */
+    static PdfSource of(byte[] pdfBytes) {
+        return new PdfSource() {
+            @Override
+            public PdfReader open() throws IOException {
+                return new PdfReader(pdfBytes);
+            }
+
+            @Override
+            public PdfReader openPartial() throws IOException {
+                return new PdfReader(new RandomAccessFileOrArray(
+                        new RandomAccessSourceFactory().createSource(pdfBytes)), null);
+            }
+
+            @Override
+            public PDDocument openRenderable() throws IOException {
+                return Loader.loadPDF(pdfBytes);
+            }
+        };
+    }
+
+    /**
+     * A PDF on disk. Both readers memory-map the file and only load the objects of the pages
+     * that are read, so the document is never copied onto the heap as a whole.
+     */
+    static PdfSource of(Path pdfFile) {
+        return new PdfSource() {
+            @Override
+            public PdfReader open() throws IOException {
+                return openPartial();
+            }
+
+            @Override
+            public PdfReader openPartial() throws IOException {
+                return new PdfReader(new RandomAccessFileOrArray(new RandomAccessSourceFactory()
+                        .setUsePlainRandomAccess(false)
+                        .createBestSource(pdfFile.toString())), null);
+            }
+
+            @Override
+            public PDDocument openRenderable() throws IOException {
+                return Loader.loadPDF(pdfFile.toFile());
+            }
+        };
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.example.pdfcompare.util;
+
+import lombok.experimental.UtilityClass;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Difference hashes (dHash) of images: the image is averaged down to a 9x8 grayscale grid and
+ * each bit tells whether a cell is brighter than its right neighbour. Re-encoding, recompressing
+ * or rescaling an image flips few bits, while different images differ in about half of them.
+ */
+@UtilityClass
+public class PerceptualHash {
+
+    private static final int COLUMNS = 9;
+    private static final int ROWS = 8;
+
+    public long dHash(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] columnStarts = cellStarts(width, COLUMNS);
+        int[] columnEnds = cellEnds(width, COLUMNS);
+        int[] rowStarts = cellStarts(height, ROWS);
+        int[] rowEnds = cellEnds(height, ROWS);
+        long[] luma = new long[COLUMNS * ROWS];
+        int[] row = new int[width];
+
+        for (int cellRow = 0; cellRow < ROWS; cellRow++) {
+            for (int y = rowStarts[cellRow]; y < rowEnds[cellRow]; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int cellColumn = 0; cellColumn < COLUMNS; cellColumn++) {
+                    long sum = 0;
+                    for (int x = columnStarts[cellColumn]; x < columnEnds[cellColumn]; x++) {
+                        int rgb = row[x];
+                        sum += ((rgb >> 16) & 0xff) * 299L + ((rgb >> 8) & 0xff) * 587L + (rgb & 0xff) * 114L;
+                    }
+                    luma[cellRow * COLUMNS + cellColumn] += sum;
+                }
+            }
+        }
+
+        long hash = 0;
+        for (int cellRow = 0; cellRow < ROWS; cellRow++) {
+            for (int cellColumn = 0; cellColumn < COLUMNS - 1; cellColumn++) {
+                // Compares the cells' means without dividing; both cells span the same rows.
+                long left = luma[cellRow * COLUMNS + cellColumn]
+                        * (columnEnds[cellColumn + 1] - columnStarts[cellColumn + 1]);
+                long right = luma[cellRow * COLUMNS + cellColumn + 1]
+                        * (columnEnds[cellColumn] - columnStarts[cellColumn]);
+                hash = (hash << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Number of bits two hashes differ in.
+     */
+    public int distance(long hash1, long hash2) {
+        return Long.bitCount(hash1 ^ hash2);
+    }
+
+    /**
+     * Cell {@code i} of {@code cells} over {@code size} pixels covers {@code [starts[i], ends[i])}.
+     * Every cell covers at least one pixel, so images smaller than the grid repeat pixels across cells.
+     */
+    private int[] cellStarts(int size, int cells) {
+        int[] starts = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            starts[i] = i * size / cells;
+        }
+        return starts;
+    }
+
+    private int[] cellEnds(int size, int cells) {
+        int[] ends = new int[cells];
+        for (int i = 0; i < cells; i++) {
+            ends[i] = Math.max(i * size / cells + 1, (i + 1) * size / cells);
+        }
+        return ends;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.util.ComparisonMetrics.PageResult;
+import com.example.pdfcompare.util.ComparisonMetrics.Stage;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.RequiredArgsConstructor;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares two pages by rendering them with PDFBox and diffing the pixels in square tiles, so
+ * that changes the text and image extractors cannot see, such as vector drawings, annotations
+ * and form fields, are found as well. A tile is left at its first differing pixel row. Pages
+ * are spread over threads by the page workers, so the tiles of a page are diffed on the
+ * thread comparing it.
+ */
+@Component
+@RequiredArgsConstructor
+public class RasterComparator {
+
+    private final PDFHighlighter pdfHighlighter;
+    private final PageHasher pageHasher;
+    private final ComparisonProperties comparisonProperties;
+    private final ComparisonMetrics comparisonMetrics;
+
+    /**
+     * A run of changed tiles in one tile row, in pixels from the top left corner of the rendering.
+     */
+    record Region(int x, int y, int width, int height) { }
+
+    /**
+     * Compares page {@code pageNum1} of the first document with page {@code pageNum2} of the
+     * second; each document is passed both as the reader it is hashed with and as the PDFBox
+     * document it is rendered from.
+     */
+    public void comparePages(PdfReader reader1, PDDocument document1, int pageNum1,
+                             PdfReader reader2, PDDocument document2, int pageNum2,
+                             PageHighlights highlights, float width1, boolean isMultiple) throws IOException {
+        // Pages with the same content streams, resources and geometry render identically.
+        String hash1 = pageHasher.hashPage(reader1, pageNum1);
+        String hash2 = pageHasher.hashPage(reader2, pageNum2);
+        if (hash1 != null && hash1.equals(hash2)) {
+            comparisonMetrics.recordPage(PageResult.IDENTICAL);
+            return;
+        }
+
+        long start = System.nanoTime();
+        int dpi = comparisonProperties.getRasterDpi();
+        BufferedImage image1 = new PDFRenderer(document1).renderImageWithDPI(pageNum1 - 1, dpi, ImageType.RGB);
+        BufferedImage image2 = new PDFRenderer(document2).renderImageWithDPI(pageNum2 - 1, dpi, ImageType.RGB);
+        List<Region> regions = changedRegions(pixels(image1), image1.getWidth(), image1.getHeight(),
+                pixels(image2), image2.getWidth(), image2.getHeight(), comparisonProperties.getRasterTileSize());
+
+        float scale = 72f / dpi;
+        PDPage page1 = document1.getPage(pageNum1 - 1);
+        PDPage page2 = document2.getPage(pageNum2 - 1);
+        for (Region region : regions) {
+            if (isMultiple) {
+                highlight(highlights, region, image1, page1, scale, BaseColor.RED, 0);
+            }
+            highlight(highlights, region, image2, page2, scale, BaseColor.GREEN, isMultiple ? width1 : 0);
+        }
+        comparisonMetrics.recordStage(Stage.RASTER_DIFF, System.nanoTime() - start);
+        comparisonMetrics.recordPage(PageResult.COMPARED);
+    }
+
+    /**
+     * Highlights the part of a region that lies on a page; the renderings of two pages of
+     * different sizes only overlap partly.
+     */
+    private void highlight(PageHighlights highlights, Region region, BufferedImage image, PDPage page,
+                           float scale, BaseColor color, float xOffset) {
+        int right = Math.min(region.x() + region.width(), image.getWidth());
+        int bottom = Math.min(region.y() + region.height(), image.getHeight());
+        if (right <= region.x() || bottom <= region.y()) {
+            return;
+        }
+        Rectangle rectangle = toUserSpace(page.getCropBox(), page.getRotation(),
+                region.x() * scale, region.y() * scale, right * scale, bottom * scale);
+        pdfHighlighter.highlightRectangle(highlights, rectangle, color, xOffset);
+    }
+
+    /**
+     * Maps a rectangle of a rendering, in points from its top left corner, back to the page's
+     * user space, where highlights are drawn. Renderings show the crop box turned clockwise by the
+     * page's /Rotate; user space is unrotated, with its origin at the bottom left.
+     */
+    private static Rectangle toUserSpace(PDRectangle cropBox, int rotation, float x0, float y0, float x1, float y1) {
+        float left = cropBox.getLowerLeftX();
+        float bottom = cropBox.getLowerLeftY();
+        float width = cropBox.getWidth();
+        float height = cropBox.getHeight();
+        return switch (rotation) {
+            case 90 -> new Rectangle(left + y0, bottom + x0, left + y1, bottom + x1);
+            case 180 -> new Rectangle(left + width - x1, bottom + y0, left + width - x0, bottom + y1);
+            case 270 -> new Rectangle(left + width - y1, bottom + height - x1, left + width - y0, bottom + height - x0);
+            default -> new Rectangle(left + x0, bottom + height - y1, left + x1, bottom + height - y0);
+        };
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        // ImageType.RGB renders into a TYPE_INT_RGB image, backed by one int per pixel.
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * Returns the changed tiles of two renderings, with horizontally adjacent changed tiles
+     * joined into one region, in row order. Where only one rendering has pixels, as when the
+     * pages differ in size, tiles count as changed.
+     */
+    static List<Region> changedRegions(int[] pixels1, int width1, int height1,
+                                       int[] pixels2, int width2, int height2, int tileSize) {
+        int width = Math.max(width1, width2);
+        int height = Math.max(height1, height2);
+        int tileColumns = (width + tileSize - 1) / tileSize;
+        int tileRows = (height + tileSize - 1) / tileSize;
+        List<Region> regions = new ArrayList<>();
+        for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+            addChangedRegionsInRow(regions, pixels1, width1, height1, pixels2, width2, height2,
+                    tileSize, tileRow, tileColumns);
+        }
+        return regions;
+    }
+
+    private static void addChangedRegionsInRow(List<Region> regions, int[] pixels1, int width1, int height1,
+                                               int[] pixels2, int width2, int height2,
+                                               int tileSize, int tileRow, int tileColumns) {
+        int y0 = tileRow * tileSize;
+        int y1 = y0 + tileSize;
+        int runStart = -1;
+        for (int tileColumn = 0; tileColumn <= tileColumns; tileColumn++) {
+            boolean changed = tileColumn < tileColumns
+                    && tileChanged(pixels1, width1, height1, pixels2, width2, height2,
+                    tileColumn * tileSize, y0, tileColumn * tileSize + tileSize, y1);
+            if (changed && runStart < 0) {
+                runStart = tileColumn;
+            } else if (!changed && runStart >= 0) {
+                regions.add(new Region(runStart * tileSize, y0, (tileColumn - runStart) * tileSize, tileSize));
+                runStart = -1;
+            }
+        }
+    }
+
+    private static boolean tileChanged(int[] pixels1, int width1, int height1, int[] pixels2, int width2, int height2,
+                                       int x0, int y0, int x1, int y1) {
+        int xEnd = Math.min(x1, width1);
+        int yEnd = Math.min(y1, height1);
+        if (xEnd != Math.min(x1, width2) || yEnd != Math.min(y1, height2)) {
+            return true;
+        }
+        for (int y = y0; y < yEnd; y++) {
+            // A vectorized comparison of one pixel row of the tile.
+            if (!Arrays.equals(pixels1, y * width1 + x0, y * width1 + xEnd,
+                    pixels2, y * width2 + x0, y * width2 + xEnd)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Rectangle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Unions rectangles into disjoint ones with a sweep line from bottom to top, so that a region
+ * covered by many overlapping or touching boxes is filled with as few rectangles as its shape
+ * needs, however many boxes it was made of.
+ * <p>
+ * The distinct bottom and top edges split the plane into horizontal bands. In each band, the
+ * x-intervals of the boxes crossing it are merged; an interval that continues an interval of
+ * the band below with the same ends extends that rectangle upwards instead of starting one.
+ */
+final class RectangleUnion {
+
+    private RectangleUnion() {
+    }
+
+    static List<Rectangle> union(List<Rectangle> rects) {
+        if (rects.size() < 2) {
+            return rects;
+        }
+        List<Rectangle> byBottom = new ArrayList<>(rects);
+        byBottom.sort(Comparator.comparingDouble(Rectangle::getBottom));
+        float[] edges = new float[rects.size() * 2];
+        for (int i = 0; i < rects.size(); i++) {
+            edges[2 * i] = rects.get(i).getBottom();
+            edges[2 * i + 1] = rects.get(i).getTop();
+        }
+        Arrays.sort(edges);
+
+        List<Rectangle> union = new ArrayList<>();
+        List<Rectangle> active = new ArrayList<>();
+        // Rectangles still growing upwards, as {left, right, bottom}, ordered by left.
+        List<float[]> open = new ArrayList<>();
+        int next = 0;
+        for (int e = 0; e < edges.length - 1; e++) {
+            float bottom = edges[e];
+            float top = edges[e + 1];
+            if (top == bottom) {
+                continue;
+            }
+            while (next < byBottom.size() && byBottom.get(next).getBottom() <= bottom) {
+                active.add(byBottom.get(next++));
+            }
+            active.removeIf(rect -> rect.getTop() <= bottom);
+
+            List<float[]> intervals = mergedIntervals(active);
+            List<float[]> stillOpen = new ArrayList<>(intervals.size());
+            int o = 0;
+            for (float[] interval : intervals) {
+                // Close rectangles left of this interval; extend one with the same ends.
+                while (o < open.size() && open.get(o)[0] < interval[0]) {
+                    close(open.get(o++), bottom, union);
+                }
+                if (o < open.size() && open.get(o)[0] == interval[0] && open.get(o)[1] == interval[1]) {
+                    stillOpen.add(open.get(o++));
+                } else {
+                    stillOpen.add(new float[]{interval[0], interval[1], bottom});
+                }
+            }
+            while (o < open.size()) {
+                close(open.get(o++), bottom, union);
+            }
+            open = stillOpen;
+        }
+        for (float[] rect : open) {
+            close(rect, edges[edges.length - 1], union);
+        }
+        return union;
+    }
+
+    /**
+     * The union of the rectangles' x-extents, as {left, right} intervals ordered by left;
+     * touching extents are merged.
+     */
+    private static List<float[]> mergedIntervals(List<Rectangle> rects) {
+        List<float[]> intervals = new ArrayList<>();
+        if (rects.isEmpty()) {
+            return intervals;
+        }
+        List<Rectangle> byLeft = new ArrayList<>(rects);
+        byLeft.sort(Comparator.comparingDouble(Rectangle::getLeft));
+        float[] current = {byLeft.get(0).getLeft(), byLeft.get(0).getRight()};
+        for (int i = 1; i < byLeft.size(); i++) {
+            Rectangle rect = byLeft.get(i);
+            if (rect.getLeft() <= current[1]) {
+                current[1] = Math.max(current[1], rect.getRight());
+            } else {
+                intervals.add(current);
+                current = new float[]{rect.getLeft(), rect.getRight()};
+            }
+        }
+        intervals.add(current);
+        return intervals;
+    }
+
+    private static void close(float[] rect, float top, List<Rectangle> union) {
+        union.add(new Rectangle(rect[0], rect[2], rect[1], top));
+    }
+
+}
@@ -0,0 +1,175 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.model.PageReport.Change;
+import com.example.pdfcompare.model.PageReport.ChangeType;
+import com.example.pdfcompare.model.PageReport.Region;
+import com.example.pdfcompare.model.PageReport.Status;
+import com.example.pdfcompare.model.PageText;
+import com.example.pdfcompare.util.ComparisonMetrics.PageResult;
+import com.example.pdfcompare.util.ComparisonMetrics.Stage;
+import com.example.pdfcompare.util.PageAligner.PagePair;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.DeltaType;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares two documents like {@link PDFComparator}, but reports the changed words and images
+ * of each page instead of writing a highlighted PDF. No page is imported or highlighted, so a
+ * report costs only the extraction and the diffs.
+ * <p>
+ * Pages are paired by {@link PageAligner} when page alignment is enabled, and by position
+ * otherwise. Text is always diffed page by page, and pages are never rendered.
+ * <p>
+ * Reports can be handed to a {@link PageReportListener} page by page. The page loop stops as
+ * soon as the listener fails or the comparing thread is interrupted, and the readers are
+ * closed, so an abandoned comparison does not go on using CPU.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportComparator {
+
+    private final PDFPageComparator pageComparator;
+    private final PageAligner pageAligner;
+    private final TextComparator textComparator;
+    private final ImageComparator imageComparator;
+    private final PageHasher pageHasher;
+    private final ComparisonProperties comparisonProperties;
+    private final ComparisonMetrics comparisonMetrics;
+
+    public List<PageReport> comparePDFs(PdfSource pdf1Source, PdfSource pdf2Source) throws IOException {
+        List<PageReport> reports = new ArrayList<>();
+        comparePDFs(pdf1Source, pdf2Source, reports::add);
+        return reports;
+    }
+
+    public void comparePDFs(PdfSource pdf1Source, PdfSource pdf2Source, PageReportListener listener)
+            throws IOException {
+        comparisonMetrics.comparisonStarted();
+        PdfReader reader1 = null;
+        PdfReader reader2 = null;
+        try {
+            long start = System.nanoTime();
+            reader1 = pdf1Source.open();
+            reader2 = pdf2Source.open();
+            comparisonMetrics.recordStage(Stage.OPEN, System.nanoTime() - start);
+            compareDocuments(reader1, reader2, listener);
+        } finally {
+            if (reader1 != null) {
+                reader1.close();
+            }
+            if (reader2 != null) {
+                reader2.close();
+            }
+            comparisonMetrics.comparisonFinished();
+        }
+    }
+
+    private void compareDocuments(PdfReader reader1, PdfReader reader2, PageReportListener listener)
+            throws IOException {
+        List<PagePair> pairs;
+        if (comparisonProperties.isAlignPages()) {
+            long start = System.nanoTime();
+            pairs = pageAligner.align(reader1, reader2);
+            comparisonMetrics.recordStage(Stage.PAGE_ALIGNMENT, System.nanoTime() - start);
+        } else {
+            int pages1 = reader1.getNumberOfPages();
+            int pages2 = reader2.getNumberOfPages();
+            pairs = new ArrayList<>();
+            for (int page = 1; page <= Math.max(pages1, pages2); page++) {
+                pairs.add(new PagePair(page <= pages1 ? page : 0, page <= pages2 ? page : 0));
+            }
+        }
+
+        for (PagePair pages : pairs) {
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException("Comparison cancelled");
+            }
+            listener.onPageReport(comparePages(reader1, reader2, pages));
+        }
+    }
+
+    private PageReport comparePages(PdfReader reader1, PdfReader reader2, PagePair pages) throws IOException {
+        if (pages.page1() == 0) {
+            comparisonMetrics.recordPage(PageResult.INSERTED);
+            return new PageReport(0, pages.page2(), Status.INSERTED, List.of(), List.of());
+        }
+        if (pages.page2() == 0) {
+            comparisonMetrics.recordPage(PageResult.DELETED);
+            return new PageReport(pages.page1(), 0, Status.DELETED, List.of(), List.of());
+        }
+        String hash1 = pageHasher.hashPage(reader1, pages.page1());
+        String hash2 = pageHasher.hashPage(reader2, pages.page2());
+        if (hash1 != null && hash1.equals(hash2)) {
+            comparisonMetrics.recordPage(PageResult.IDENTICAL);
+            return new PageReport(pages.page1(), pages.page2(), Status.IDENTICAL, List.of(), List.of());
+        }
+
+        PageContent content1 = pageComparator.extractPage(reader1, pages.page1(), hash1);
+        PageContent content2 = pageComparator.extractPage(reader2, pages.page2(), hash2);
+        comparisonMetrics.recordContent(content1);
+        comparisonMetrics.recordContent(content2);
+
+        long start = System.nanoTime();
+        List<Change> words = new ArrayList<>();
+        for (MyersDiff.Delta delta : textComparator.diff(content1.words(), content2.words())) {
+            words.add(new Change(changeType(delta.type()),
+                    words(content1.words(), delta.sourcePosition(), delta.sourceSize()),
+                    words(content2.words(), delta.targetPosition(), delta.targetSize())));
+        }
+        comparisonMetrics.recordStage(Stage.TEXT_DIFF, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        List<Change> images = new ArrayList<>();
+        for (AbstractDelta<ImageHash> delta : imageComparator.diff(content1.images(), content2.images())) {
+            images.add(new Change(changeType(delta.getType()),
+                    images(content1.images(), delta.getSource().getPosition(), delta.getSource().size()),
+                    images(content2.images(), delta.getTarget().getPosition(), delta.getTarget().size())));
+        }
+        comparisonMetrics.recordStage(Stage.IMAGE_DIFF, System.nanoTime() - start);
+
+        comparisonMetrics.recordDeltas(words.size(), images.size());
+        comparisonMetrics.recordPage(PageResult.COMPARED);
+        Status status = words.isEmpty() && images.isEmpty() ? Status.IDENTICAL : Status.CHANGED;
+        return new PageReport(pages.page1(), pages.page2(), status, words, images);
+    }
+
+    private static ChangeType changeType(DeltaType type) {
+        return switch (type) {
+            case INSERT -> ChangeType.INSERTED;
+            case DELETE -> ChangeType.DELETED;
+            default -> ChangeType.CHANGED;
+        };
+    }
+
+    private static List<Region> words(PageText words, int position, int size) {
+        List<Region> regions = new ArrayList<>(size);
+        for (int i = position; i < position + size; i++) {
+            regions.add(new Region(words.word(i), words.left(i), words.bottom(i), words.right(i), words.top(i)));
+        }
+        return regions;
+    }
+
+    private static List<Region> images(List<ImageChunk> images, int position, int size) {
+        List<Region> regions = new ArrayList<>(size);
+        for (int i = position; i < Math.min(position + size, images.size()); i++) {
+            Rectangle rectangle = images.get(i).rectangle();
+            regions.add(new Region(null, rectangle.getLeft(), rectangle.getBottom(), rectangle.getRight(),
+                    rectangle.getTop()));
+        }
+        return regions;
+    }
+
+}
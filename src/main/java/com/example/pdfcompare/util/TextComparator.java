@@ -1,18 +1,13 @@
 package com.example.pdfcompare.util;
 
-import com.example.pdfcompare.model.TextChunk;
-import com.github.difflib.patch.AbstractDelta;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import com.github.difflib.DiffUtils;
-import com.github.difflib.patch.Chunk;
-import com.github.difflib.patch.Patch;
 import com.itextpdf.text.BaseColor;
-import com.itextpdf.text.pdf.PdfContentByte;
 
 import java.util.List;
-import java.util.stream.IntStream;
 
 @Component
 @RequiredArgsConstructor
@@ -20,37 +15,46 @@ public class TextComparator {
 
     private final PDFHighlighter pdfHighlighter;
 
-    public void compareText(PdfContentByte cb, List<TextChunk> words1,
-                            List<TextChunk> words2, float width1, boolean isMultiple) {
-        // Create immutable lists of text using explicit type declarations.
-        List<String> texts1 = words1.stream().map(TextChunk::text).toList();
-        List<String> texts2 = words2.stream().map(TextChunk::text).toList();
-
-        Patch<String> patch = DiffUtils.diff(texts1, texts2);
-        for (AbstractDelta<String> delta : patch.getDeltas()) {
-            switch (delta.getType()) {
+    /**
+     * Highlights the differences between both lists and returns the number of differences found.
+     * Unchanged lines at the start and end of the page are skipped as a whole; the words in between are diffed.
+     */
+    public int compareText(PageHighlights highlights, PageText words1,
+                           PageText words2, float width1, boolean isMultiple) {
+        List<MyersDiff.Delta> deltas = diff(words1, words2);
+        for (MyersDiff.Delta delta : deltas) {
+            switch (delta.type()) {
                 case DELETE -> {
                     if (isMultiple) {
-                        highlightChunk(delta.getSource(), words1, cb, BaseColor.RED, 0);
+                        highlightWords(delta.sourcePosition(), delta.sourceSize(), words1, highlights, BaseColor.RED, 0);
                     }
                 }
                 case INSERT ->
-                        highlightChunk(delta.getTarget(), words2, cb, BaseColor.GREEN, isMultiple ? width1 : 0);
+                        highlightWords(delta.targetPosition(), delta.targetSize(), words2, highlights, BaseColor.GREEN, isMultiple ? width1 : 0);
                 case CHANGE -> {
                     if (isMultiple) {
-                        highlightChunk(delta.getSource(), words1, cb, BaseColor.RED, 0);
+                        highlightWords(delta.sourcePosition(), delta.sourceSize(), words1, highlights, BaseColor.RED, 0);
                     }
-                    highlightChunk(delta.getTarget(), words2, cb, BaseColor.GREEN, isMultiple ? width1 : 0);
+                    highlightWords(delta.targetPosition(), delta.targetSize(), words2, highlights, BaseColor.GREEN, isMultiple ? width1 : 0);
                 }
+                default -> { }
             }
         }
+        return deltas.size();
+    }
+
+    /**
+     * The differences between both lists, as positions in each, without highlighting them.
+     */
+    List<MyersDiff.Delta> diff(PageText words1, PageText words2) {
+        return WordDiff.diff(words1, words2);
     }
 
-    private void highlightChunk(Chunk<String> chunk, List<TextChunk> words,
-                                PdfContentByte cb, BaseColor color, float xOffset) {
-        IntStream.range(chunk.getPosition(), chunk.getPosition() + chunk.size())
-                .filter(j -> j < words.size())
-                .forEach(j -> pdfHighlighter.drawRectangle(cb, words.get(j).rectangle(), color, xOffset));
+    private void highlightWords(int position, int size, PageText words,
+                                PageHighlights highlights, BaseColor color, float xOffset) {
+        for (int j = position; j < position + size; j++) {
+            pdfHighlighter.drawWord(highlights, words, j, color, xOffset);
+        }
     }
 
 }
@@ -0,0 +1,104 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageText;
+
+import java.util.Arrays;
+
+/**
+ * Maps the words of the pages being compared to int ids, so that equal words get equal ids
+ * and the diff compares ints instead of strings. Words are looked up in place in their page's
+ * buffer; only the first occurrence of each distinct word is remembered.
+ */
+final class TokenDictionary {
+
+    private static final int EMPTY = -1;
+
+    // Open addressing: slots hold ids, and each id points back at its first occurrence.
+    private int[] slots;
+    private PageText[] pages;
+    private int[] indices;
+    private int[] hashes;
+    private int size;
+
+    TokenDictionary(int expectedWords) {
+        slots = new int[tableSize(expectedWords)];
+        Arrays.fill(slots, EMPTY);
+        pages = new PageText[Math.max(16, expectedWords)];
+        indices = new int[pages.length];
+        hashes = new int[pages.length];
+    }
+
+    int[] encode(PageText words) {
+        return encode(words, 0, words.size());
+    }
+
+    /**
+     * Encodes the words {@code [from, to)} of a page.
+     */
+    int[] encode(PageText words, int from, int to) {
+        int[] ids = new int[to - from];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = idOf(words, from + i);
+        }
+        return ids;
+    }
+
+    /**
+     * The number of distinct words seen so far.
+     */
+    int size() {
+        return size;
+    }
+
+    private int idOf(PageText words, int index) {
+        int mask = slots.length - 1;
+        int hash = mix(words.wordHashCode(index));
+        int slot = hash & mask;
+        while (slots[slot] != EMPTY) {
+            int id = slots[slot];
+            if (hashes[id] == hash && pages[id].wordEquals(indices[id], words, index)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size++;
+        if (id == pages.length) {
+            pages = Arrays.copyOf(pages, id * 2);
+            indices = Arrays.copyOf(indices, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        pages[id] = words;
+        indices[id] = index;
+        hashes[id] = hash;
+        slots[slot] = id;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id;
+        }
+    }
+
+    // Spreads the string hash so that similar words do not cluster in neighbouring slots.
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // A power of two with room for the expected words at a load factor below one half.
+    private static int tableSize(int expectedWords) {
+        return Integer.highestOneBit(Math.max(8, expectedWords) * 2 - 1) << 1;
+    }
+
+}
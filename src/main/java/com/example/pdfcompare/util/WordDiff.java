@@ -0,0 +1,54 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageText;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Word diff of two pages that skips their unchanged first and last blocks (lines of text
+ * objects) as a whole, and diffs the words in between. The deltas are the same as those of the
+ * diff over all words of both pages, but the words of the skipped blocks are never encoded.
+ */
+final class WordDiff {
+
+    private WordDiff() {
+    }
+
+    /**
+     * The word-level deltas between both pages, with positions that are word indices.
+     */
+    static List<MyersDiff.Delta> diff(PageText words1, PageText words2) {
+        int head = 0;
+        while (head < words1.blockCount() && head < words2.blockCount() && words1.blockEquals(head, words2, head)) {
+            head++;
+        }
+        // Continues the common prefix word by word, as the page-wide diff does before trimming
+        // the common suffix, so that the suffix below never takes words that it would not take.
+        int from1 = words1.blockStart(head);
+        int from2 = words2.blockStart(head);
+        while (from1 < words1.size() && from2 < words2.size()
+                && words1.wordHashCode(from1) == words2.wordHashCode(from2) && words1.wordEquals(from1, words2, from2)) {
+            from1++;
+            from2++;
+        }
+        int tail1 = words1.blockCount();
+        int tail2 = words2.blockCount();
+        while (tail1 > 0 && tail2 > 0 && words1.blockStart(tail1 - 1) >= from1 && words2.blockStart(tail2 - 1) >= from2
+                && words1.blockEquals(tail1 - 1, words2, tail2 - 1)) {
+            tail1--;
+            tail2--;
+        }
+        int to1 = words1.blockStart(tail1);
+        int to2 = words2.blockStart(tail2);
+
+        TokenDictionary tokens = new TokenDictionary((to1 - from1) + (to2 - from2));
+        List<MyersDiff.Delta> deltas = new ArrayList<>();
+        for (MyersDiff.Delta delta : MyersDiff.diff(tokens.encode(words1, from1, to1), tokens.encode(words2, from2, to2))) {
+            deltas.add(new MyersDiff.Delta(delta.type(), from1 + delta.sourcePosition(), delta.sourceSize(),
+                    from2 + delta.targetPosition(), delta.targetSize()));
+        }
+        return deltas;
+    }
+
+}
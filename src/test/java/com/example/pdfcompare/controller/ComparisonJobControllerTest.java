@@ -0,0 +1,105 @@
+package com.example.pdfcompare.controller;
+
+import com.example.pdfcompare.base.AbstractRestControllerTest;
+import com.example.pdfcompare.model.ComparisonJobStatus;
+import com.example.pdfcompare.model.ComparisonJobStatus.State;
+import com.example.pdfcompare.service.ComparisonJobService;
+import com.example.pdfcompare.service.ComparisonRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ComparisonJobControllerTest extends AbstractRestControllerTest {
+
+    @MockitoBean
+    ComparisonJobService comparisonJobService;
+
+    @Test
+    void testSubmit_thenAcceptedWithLocation() throws Exception {
+        // GIVEN
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, "a".getBytes());
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, "b".getBytes());
+        when(comparisonJobService.submit(any(), any(), eq(true)))
+                .thenReturn(new ComparisonJobStatus("job-1", State.QUEUED, 0, 0, null));
+
+        // WHEN / THEN
+        mockMvc.perform(multipart("/api/v1/pdf/jobs").file(file1).file(file2).param("isMultiple", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", endsWith("/api/v1/pdf/jobs/job-1")))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.state").value("QUEUED"));
+    }
+
+    @Test
+    void testSubmit_whenRejected_thenServiceUnavailable() throws Exception {
+        // GIVEN
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, "a".getBytes());
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, "b".getBytes());
+        when(comparisonJobService.submit(any(), any(), eq(false))).thenThrow(new ComparisonRejectedException("full"));
+
+        // WHEN / THEN
+        mockMvc.perform(multipart("/api/v1/pdf/jobs").file(file1).file(file2))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void testGetStatus_thenProgressIsReported() throws Exception {
+        // GIVEN
+        when(comparisonJobService.getStatus("job-1"))
+                .thenReturn(Optional.of(new ComparisonJobStatus("job-1", State.RUNNING, 2, 5, null)));
+
+        // WHEN / THEN
+        mockMvc.perform(get("/api/v1/pdf/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.pagesDone").value(2))
+                .andExpect(jsonPath("$.totalPages").value(5));
+    }
+
+    @Test
+    void testGetStatus_whenUnknown_thenNotFound() throws Exception {
+        // GIVEN
+        when(comparisonJobService.getStatus("missing")).thenReturn(Optional.empty());
+
+        // WHEN / THEN
+        mockMvc.perform(get("/api/v1/pdf/jobs/missing")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/v1/pdf/jobs/missing/result")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testGetResult_whenRunning_thenConflict() throws Exception {
+        // GIVEN
+        when(comparisonJobService.getStatus("job-1"))
+                .thenReturn(Optional.of(new ComparisonJobStatus("job-1", State.RUNNING, 2, 5, null)));
+
+        // WHEN / THEN
+        mockMvc.perform(get("/api/v1/pdf/jobs/job-1/result")).andExpect(status().isConflict());
+    }
+
+    @Test
+    void testGetResult_whenSucceeded_thenPdfIsServed() throws Exception {
+        // GIVEN
+        when(comparisonJobService.getStatus("job-1"))
+                .thenReturn(Optional.of(new ComparisonJobStatus("job-1", State.SUCCEEDED, 5, 5, null)));
+        when(comparisonJobService.getResult("job-1")).thenReturn(Optional.of(new ByteArrayInputStream("result".getBytes())));
+
+        // WHEN / THEN
+        mockMvc.perform(get("/api/v1/pdf/jobs/job-1/result"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(content().bytes("result".getBytes()));
+    }
+
+}
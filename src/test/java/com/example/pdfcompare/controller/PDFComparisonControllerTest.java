@@ -1,17 +1,26 @@
 package com.example.pdfcompare.controller;
 
 import com.example.pdfcompare.base.AbstractRestControllerTest;
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.service.ComparisonRejectedException;
 import com.example.pdfcompare.service.PDFComparisonService;
+import com.example.pdfcompare.util.PageReportListener;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -52,4 +61,165 @@ class PDFComparisonControllerTest extends AbstractRestControllerTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testComparePDFsStreaming() throws Exception {
+        // GIVEN: Two MultipartFiles and a service that writes the result into the response stream.
+        byte[] dummyPdfBytes = "dummy pdf content".getBytes();
+        byte[] expectedResult = "result".getBytes();
+
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(3);
+            outputStream.write(expectedResult);
+            return null;
+        }).when(pdfComparisonService).comparePDFs(any(), any(), eq(true), any(OutputStream.class), any());
+
+        // WHEN: Perform the multipart POST request and wait for the streamed body.
+        MvcResult asyncResult = mockMvc.perform(multipart("/api/v1/pdf/compare/stream")
+                        .file(file1)
+                        .file(file2)
+                        .param("isMultiple", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.containsString("attachment")))
+                .andReturn();
+
+        // THEN: The streamed content matches the expected result and the buffering variant is not used.
+        assertThat(mvcResult.getResponse().getContentAsByteArray()).isEqualTo(expectedResult);
+        verify(pdfComparisonService, times(1)).comparePDFs(any(), any(), eq(true), any(OutputStream.class), any());
+        verify(pdfComparisonService, never()).comparePDFs(any(), any(), anyBoolean());
+
+    }
+
+    @Test
+    void testComparePDFsStreaming_whenAllComparisonThreadsBusy_thenServiceUnavailable() throws Exception {
+        // GIVEN: no comparison thread frees up in time.
+        byte[] dummyPdfBytes = "dummy pdf content".getBytes();
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        when(pdfComparisonService.reserveComparison())
+                .thenThrow(new ComparisonRejectedException("All comparison threads are busy, try again later"));
+
+        // WHEN / THEN: the request is rejected before any of the response is streamed.
+        mockMvc.perform(multipart("/api/v1/pdf/compare/stream")
+                        .file(file1)
+                        .file(file2))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable());
+
+        verify(pdfComparisonService, never()).comparePDFs(any(), any(), anyBoolean(), any(OutputStream.class), any());
+
+    }
+
+    @Test
+    void testCompareReport() throws Exception {
+        // GIVEN: Two MultipartFiles and a service reporting one changed word.
+        byte[] dummyPdfBytes = "dummy pdf content".getBytes();
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        PageReport.Change change = new PageReport.Change(PageReport.ChangeType.CHANGED,
+                List.of(new PageReport.Region("sixty", 10, 20, 40, 30)),
+                List.of(new PageReport.Region("ninety", 10, 20, 45, 30)));
+        when(pdfComparisonService.compareReport(any(), any()))
+                .thenReturn(List.of(new PageReport(1, 1, PageReport.Status.CHANGED, List.of(change), List.of())));
+
+        // WHEN / THEN: The report is returned as JSON, and no PDF is generated.
+        mockMvc.perform(multipart("/api/v1/pdf/compare/report")
+                        .file(file1)
+                        .file(file2))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].status").value("CHANGED"))
+                .andExpect(jsonPath("$[0].words[0].before[0].text").value("sixty"))
+                .andExpect(jsonPath("$[0].words[0].after[0].right").value(45.0));
+
+        verify(pdfComparisonService, times(1)).compareReport(any(), any());
+        verify(pdfComparisonService, never()).comparePDFs(any(), any(), anyBoolean());
+
+    }
+
+    @Test
+    void testCompareReportStreaming() throws Exception {
+        // GIVEN: a service reporting two pages one after the other.
+        byte[] dummyPdfBytes = "dummy pdf content".getBytes();
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        PageReport page1 = new PageReport(1, 1, PageReport.Status.IDENTICAL, List.of(), List.of());
+        PageReport page2 = new PageReport(0, 2, PageReport.Status.INSERTED, List.of(), List.of());
+        doAnswer(invocation -> {
+            PageReportListener listener = invocation.getArgument(2);
+            listener.onPageReport(page1);
+            listener.onPageReport(page2);
+            return null;
+        }).when(pdfComparisonService).compareReport(any(), any(), any(PageReportListener.class), any());
+
+        // WHEN
+        MvcResult asyncResult = mockMvc.perform(multipart("/api/v1/pdf/compare/report/stream")
+                        .file(file1)
+                        .file(file2))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult mvcResult = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        // THEN: one JSON document per line, in page order.
+        String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], PageReport.class)).isEqualTo(page1);
+        assertThat(objectMapper.readValue(lines[1], PageReport.class)).isEqualTo(page2);
+
+    }
+
+    @Test
+    void testCompareReportStreaming_whenAllComparisonThreadsBusy_thenServiceUnavailable() throws Exception {
+        // GIVEN: no comparison thread frees up in time.
+        byte[] dummyPdfBytes = "dummy pdf content".getBytes();
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        when(pdfComparisonService.reserveComparison())
+                .thenThrow(new ComparisonRejectedException("All comparison threads are busy, try again later"));
+
+        // WHEN / THEN: the client gets a 503 rather than an empty report stream.
+        mockMvc.perform(multipart("/api/v1/pdf/compare/report/stream")
+                        .file(file1)
+                        .file(file2))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isServiceUnavailable());
+
+        verify(pdfComparisonService, never()).compareReport(any(), any(), any(PageReportListener.class), any());
+
+    }
+
+    @Test
+    void testComparePDFs_equalityMode_returnsJsonWithoutPdf() throws Exception {
+        // GIVEN
+        byte[] dummyPdfBytes = "dummy pdf content".getBytes();
+        MockMultipartFile file1 = new MockMultipartFile("file1", "file1.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        MockMultipartFile file2 = new MockMultipartFile("file2", "file2.pdf", MediaType.APPLICATION_PDF_VALUE, dummyPdfBytes);
+        when(pdfComparisonService.compareEquality(any(), any())).thenReturn(EqualityResult.differentAt(3));
+
+        // WHEN / THEN
+        mockMvc.perform(multipart("/api/v1/pdf/compare")
+                        .file(file1)
+                        .file(file2)
+                        .param("mode", "equality"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.equal").value(false))
+                .andExpect(jsonPath("$.firstDifferingPage").value(3));
+
+        verify(pdfComparisonService, times(1)).compareEquality(any(), any());
+        verify(pdfComparisonService, never()).comparePDFs(any(), any(), anyBoolean());
+
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.example.pdfcompare.model;
+
+import com.itextpdf.text.Rectangle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageTextTest {
+
+    @Test
+    void testBuild_thenWordsAndBoundsAreKeptPerIndex() {
+        // GIVEN
+        PageText.Builder builder = PageText.builder();
+
+        // WHEN: one word added from a range of a longer string, one from a rectangle.
+        builder.add("  Hello world", 2, 7, 1, 2, 3, 4);
+        builder.add("World", new Rectangle(5, 6, 7, 8));
+        PageText text = builder.build();
+
+        // THEN
+        assertEquals(2, text.size());
+        assertEquals("Hello", text.word(0));
+        assertEquals("World", text.word(1));
+        assertArrayEquals(new String[]{"Hello", "World"}, text.words());
+        assertEquals(1, text.left(0));
+        assertEquals(2, text.bottom(0));
+        assertEquals(3, text.right(0));
+        assertEquals(4, text.top(0));
+        Rectangle rectangle = text.rectangle(1);
+        assertEquals(5, rectangle.getLeft());
+        assertEquals(8, rectangle.getTop());
+    }
+
+    @Test
+    void testBuild_whenManyWords_thenStorageGrows() {
+        // GIVEN
+        PageText.Builder builder = PageText.builder();
+
+        // WHEN
+        for (int i = 0; i < 1000; i++) {
+            String word = "w" + i;
+            builder.add(word, 0, word.length(), i, i, i + 1, i + 1);
+        }
+        PageText text = builder.build();
+
+        // THEN
+        assertEquals(1000, text.size());
+        assertEquals("w999", text.word(999));
+        assertEquals(999, text.left(999));
+        assertEquals(1000, text.top(999));
+    }
+
+    @Test
+    void testBuild_whenNoWords_thenEmpty() {
+        // WHEN
+        PageText text = PageText.builder().build();
+
+        // THEN
+        assertSame(PageText.EMPTY, text);
+        assertTrue(text.isEmpty());
+        assertEquals(0, text.words().length);
+    }
+
+    @Test
+    void testWordHashCodeAndEquals_thenMatchTheWordStrings() {
+        // GIVEN
+        PageText words1 = PageText.builder().add("Hello world", 0, 5, 0, 0, 1, 1).add("fee", new Rectangle(0, 0, 1, 1)).build();
+        PageText words2 = PageText.builder().add("fees", new Rectangle(0, 0, 1, 1)).add("Hello", new Rectangle(0, 0, 1, 1)).build();
+
+        // THEN
+        assertEquals("Hello".hashCode(), words1.wordHashCode(0));
+        assertEquals("fee".hashCode(), words1.wordHashCode(1));
+        assertTrue(words1.wordEquals(0, words2, 1));
+        assertFalse(words1.wordEquals(1, words2, 0));
+    }
+
+    @Test
+    void testBuild_whenBaselineChangesOrBlockEnds_thenNewBlock() {
+        // GIVEN
+        PageText.Builder builder = PageText.builder();
+
+        // WHEN: two words on one line, one on the next line, then one in a new text block on that line.
+        builder.add("a", new Rectangle(0, 20, 5, 25)).add("b", new Rectangle(10, 20, 15, 25));
+        builder.add("c", new Rectangle(0, 10, 5, 15));
+        builder.endBlock().endBlock();
+        builder.add("d", new Rectangle(10, 10, 15, 15));
+        PageText text = builder.build();
+
+        // THEN
+        assertEquals(3, text.blockCount());
+        assertEquals(0, text.blockStart(0));
+        assertEquals(2, text.blockStart(1));
+        assertEquals(3, text.blockStart(2));
+        assertEquals(4, text.blockStart(3));
+        assertEquals(31 * "a".hashCode() + "b".hashCode(), text.blockHashCode(0));
+        PageText other = PageText.builder().add("c", new Rectangle(0, 0, 5, 5)).add("z", new Rectangle(0, 10, 5, 15)).build();
+        assertTrue(text.blockEquals(1, other, 0));
+        assertFalse(text.blockEquals(2, other, 1));
+    }
+
+    @Test
+    void testAddAll_thenPagesAreJoinedWithTheirBlocks() {
+        // GIVEN: two pages whose words sit on the same baseline.
+        PageText page1 = PageText.builder().add("a", 0, 1, 1, 10, 2, 12).add("b", 0, 1, 3, 10, 4, 12)
+                .endBlock().add("c", 0, 1, 1, 10, 2, 12).build();
+        PageText page2 = PageText.builder().add("d", 0, 1, 5, 10, 6, 12).build();
+
+        // WHEN
+        PageText joined = PageText.builder().addAll(page1).addAll(PageText.EMPTY).addAll(page2).build();
+
+        // THEN: the blocks of each page are kept, and a page never continues the previous one's block.
+        assertArrayEquals(new String[]{"a", "b", "c", "d"}, joined.words());
+        assertEquals(3, joined.blockCount());
+        assertEquals(2, joined.blockStart(1));
+        assertEquals(3, joined.blockStart(2));
+        assertEquals(page1.blockHashCode(0), joined.blockHashCode(0));
+        assertTrue(joined.blockEquals(2, page2, 0));
+        assertEquals(5, joined.left(3));
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComparisonExecutorTest {
+
+    private final ExecutorService cpuPool = Executors.newFixedThreadPool(1, runnable -> new Thread(runnable, "cpu-worker"));
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        cpuPool.shutdownNow();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testRun_whenNoPoolConfigured_thenRunsOnCallingThread() throws Exception {
+        // GIVEN
+        ComparisonExecutor executor = new ComparisonExecutor(properties(0, Duration.ofSeconds(1)), cpuPool);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        // WHEN
+        executor.run(() -> ranOn.set(Thread.currentThread()));
+
+        // THEN
+        assertSame(Thread.currentThread(), ranOn.get());
+    }
+
+    @Test
+    void testRun_whenPoolConfigured_thenRunsOnPlatformPoolThread() throws Exception {
+        // GIVEN
+        ComparisonExecutor executor = new ComparisonExecutor(properties(1, Duration.ofSeconds(1)), cpuPool);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        // WHEN: called from a virtual thread, as request handling is in virtual-thread mode.
+        callers.submit(() -> {
+            executor.run(() -> ranOn.set(Thread.currentThread()));
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+
+        // THEN
+        assertEquals("cpu-worker", ranOn.get().getName());
+        assertFalse(ranOn.get().isVirtual());
+    }
+
+    @Test
+    void testRun_whenTaskFails_thenCauseIsRethrown() {
+        // GIVEN
+        ComparisonExecutor executor = new ComparisonExecutor(properties(1, Duration.ofSeconds(1)), cpuPool);
+
+        // WHEN / THEN
+        IOException thrown = assertThrows(IOException.class, () -> executor.run(() -> {
+            throw new IOException("broken pdf");
+        }));
+        assertEquals("broken pdf", thrown.getMessage());
+    }
+
+    @Test
+    void testRun_whenAllThreadsBusy_thenRejectedAfterTimeout() throws Exception {
+        // GIVEN: the only comparison thread is held by a running task.
+        ComparisonExecutor executor = new ComparisonExecutor(properties(1, Duration.ofMillis(50)), cpuPool);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = callers.submit(() -> {
+            executor.run(() -> {
+                started.countDown();
+                release.await();
+            });
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // WHEN / THEN
+        assertThrows(ComparisonRejectedException.class, () -> executor.run(() -> { }));
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        executor.run(() -> { }); // the permit is back once the first task finished
+    }
+
+    @Test
+    void testRun_whenCallerIsInterrupted_thenPermitIsHeldUntilTheTaskStops() throws Exception {
+        // GIVEN: a task that ignores interruption, as a comparison between two page checks does.
+        ComparisonExecutor executor = new ComparisonExecutor(properties(1, Duration.ofMillis(50)), cpuPool);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> caller = callers.submit(() -> {
+            executor.run(() -> {
+                started.countDown();
+                while (release.getCount() > 0) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException ignored) {
+                        // Keep running, like a comparison that does not check for interruption.
+                    }
+                }
+            });
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // WHEN: the caller gives up while the task keeps running.
+        caller.cancel(true);
+
+        // THEN: no new task is admitted to queue behind it until it has finished.
+        try {
+            // Without the permit, the task would wait in the pool queue and this call would block.
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThrows(ComparisonRejectedException.class, () -> executor.run(() -> { })));
+        } finally {
+            release.countDown();
+        }
+        callers.submit(() -> {
+            executor.run(() -> { });
+            return null;
+        }).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testAcquire_whenPermitIsClosedWithoutRunning_thenItIsReleased() throws Exception {
+        // GIVEN: the only comparison thread reserved, as for a streamed response.
+        ComparisonExecutor executor = new ComparisonExecutor(properties(1, Duration.ofMillis(50)), cpuPool);
+        ComparisonExecutor.Permit permit = executor.acquire();
+
+        // WHEN / THEN: nothing else is admitted until the permit is closed, e.g. on a cache hit.
+        assertThrows(ComparisonRejectedException.class, executor::acquire);
+        permit.close();
+        permit.close(); // closing twice releases once
+        executor.acquire().close();
+        executor.run(() -> { });
+    }
+
+    @Test
+    void testRun_withAcquiredPermit_thenTaskReleasesItAndClosingDoesNothing() throws Exception {
+        // GIVEN
+        ComparisonExecutor executor = new ComparisonExecutor(properties(1, Duration.ofMillis(50)), cpuPool);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        // WHEN
+        try (ComparisonExecutor.Permit permit = executor.acquire()) {
+            executor.run(permit, () -> ranOn.set(Thread.currentThread()));
+        }
+
+        // THEN: the permit went back once, so exactly one comparison is admitted.
+        assertEquals("cpu-worker", ranOn.get().getName());
+        ComparisonExecutor.Permit next = executor.acquire();
+        assertThrows(ComparisonRejectedException.class, executor::acquire);
+        next.close();
+    }
+
+    private ComparisonProperties properties(int cpuThreads, Duration acquireTimeout) {
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setCpuThreads(cpuThreads);
+        properties.setCpuAcquireTimeout(acquireTimeout);
+        return properties;
+    }
+
+}
@@ -0,0 +1,195 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.config.JobProperties;
+import com.example.pdfcompare.model.ComparisonJobStatus;
+import com.example.pdfcompare.model.ComparisonJobStatus.State;
+import com.example.pdfcompare.util.ComparisonListener;
+import com.example.pdfcompare.util.PDFComparator;
+import com.example.pdfcompare.util.PdfSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ComparisonJobServiceImplTest {
+
+    @TempDir
+    Path storeDirectory;
+
+    private final PDFComparator pdfComparator = mock(PDFComparator.class);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private JobProperties jobProperties;
+
+    @BeforeEach
+    void setUp() {
+        jobProperties = new JobProperties();
+        jobProperties.setStoreDirectory(storeDirectory);
+        jobProperties.setMemoryBudget(DataSize.ofBytes(100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSubmit_whenComparisonSucceeds_thenProgressAndResultAreAvailable() throws Exception {
+        // GIVEN: a comparison of three pages writing a small result.
+        doAnswer(invocation -> {
+            ComparisonListener listener = invocation.getArgument(4);
+            listener.onStart(3);
+            for (int page = 1; page <= 3; page++) {
+                listener.onPageCompared(page);
+            }
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("result".getBytes());
+            return null;
+        }).when(pdfComparator).comparePDFs(any(PdfSource.class), any(PdfSource.class), any(OutputStream.class),
+                eq(true), any(ComparisonListener.class));
+        ComparisonJobServiceImpl service = new ComparisonJobServiceImpl(pdfComparator, jobProperties, executor);
+
+        // WHEN
+        ComparisonJobStatus submitted = service.submit(pdf("file1"), pdf("file2"), true);
+        awaitJobs();
+
+        // THEN
+        assertEquals(State.QUEUED, submitted.state());
+        ComparisonJobStatus status = service.getStatus(submitted.id()).orElseThrow();
+        assertEquals(State.SUCCEEDED, status.state());
+        assertEquals(3, status.pagesDone());
+        assertEquals(3, status.totalPages());
+        try (InputStream result = service.getResult(submitted.id()).orElseThrow()) {
+            assertEquals("result", new String(result.readAllBytes()));
+        }
+        assertEquals(1, countStoreFiles(), "Only the result is kept once the spooled inputs are compared");
+    }
+
+    @Test
+    void testSubmit_whenComparisonFails_thenJobFailsAndBudgetIsReleased() throws Exception {
+        // GIVEN
+        doThrow(new IOException("broken pdf")).when(pdfComparator).comparePDFs(any(PdfSource.class),
+                any(PdfSource.class), any(OutputStream.class), anyBoolean(), any(ComparisonListener.class));
+        ComparisonJobServiceImpl service = new ComparisonJobServiceImpl(pdfComparator, jobProperties, executor);
+
+        // WHEN
+        ComparisonJobStatus submitted = service.submit(pdf("file1"), pdf("file2"), false);
+        awaitJobs();
+
+        // THEN
+        ComparisonJobStatus status = service.getStatus(submitted.id()).orElseThrow();
+        assertEquals(State.FAILED, status.state());
+        assertEquals("broken pdf", status.error());
+        assertTrue(service.getResult(submitted.id()).isEmpty());
+        assertEquals(0, countStoreFiles());
+    }
+
+    @Test
+    void testSubmit_whenBudgetIsExhausted_thenRejected() throws Exception {
+        // GIVEN: a worker that never gets to run, so the first job stays queued.
+        ExecutorService blockedExecutor = mock(ExecutorService.class);
+        ComparisonJobServiceImpl service = new ComparisonJobServiceImpl(pdfComparator, jobProperties, blockedExecutor);
+        service.submit(new MockMultipartFile("file1", new byte[40]), new MockMultipartFile("file2", new byte[40]), false);
+
+        // WHEN / THEN: another 40 bytes does not fit in the 100 byte budget.
+        assertThrows(ComparisonRejectedException.class, () ->
+                service.submit(new MockMultipartFile("file1", new byte[20]), new MockMultipartFile("file2", new byte[20]), false));
+        verify(blockedExecutor, times(1)).execute(any());
+    }
+
+    @Test
+    void testSubmit_whenInputsExceedBudget_thenRejected() {
+        // GIVEN
+        ComparisonJobServiceImpl service = new ComparisonJobServiceImpl(pdfComparator, jobProperties, executor);
+
+        // WHEN / THEN
+        assertThrows(ComparisonRejectedException.class, () ->
+                service.submit(new MockMultipartFile("file1", new byte[60]), new MockMultipartFile("file2", new byte[60]), false));
+    }
+
+    @Test
+    void testGetResult_whenJobExpiresWhileResultIsRead_thenResultIsStillServed() throws Exception {
+        // GIVEN: a finished job whose result expires right away.
+        jobProperties.setResultTtl(Duration.ZERO);
+        doAnswer(invocation -> {
+            OutputStream outputStream = invocation.getArgument(2);
+            outputStream.write("result".getBytes());
+            return null;
+        }).when(pdfComparator).comparePDFs(any(PdfSource.class), any(PdfSource.class), any(OutputStream.class),
+                anyBoolean(), any(ComparisonListener.class));
+        ComparisonJobServiceImpl service = new ComparisonJobServiceImpl(pdfComparator, jobProperties, executor);
+        ComparisonJobStatus submitted = service.submit(pdf("file1"), pdf("file2"), false);
+        awaitJobs();
+
+        try (InputStream result = service.getResult(submitted.id()).orElseThrow()) {
+            // WHEN: the job is purged while its result is being downloaded.
+            Thread.sleep(5);
+            assertTrue(service.getStatus(submitted.id()).isEmpty());
+
+            // THEN
+            assertEquals(0, countStoreFiles());
+            assertEquals("result", new String(result.readAllBytes()));
+        }
+        assertTrue(service.getResult(submitted.id()).isEmpty());
+    }
+
+    @Test
+    void testConstructor_whenStoreHoldsFiles_thenOnlyThoseOlderThanTheTtlAreDeleted() throws Exception {
+        // GIVEN: a leftover of a previous run, and a file of a job another instance is running.
+        Path stale = Files.writeString(storeDirectory.resolve("stale.pdf"), "stale");
+        Files.setLastModifiedTime(stale, FileTime.from(Instant.now().minus(jobProperties.getResultTtl()).minusSeconds(60)));
+        Path live = Files.writeString(storeDirectory.resolve("live-1.pdf"), "live");
+
+        // WHEN
+        new ComparisonJobServiceImpl(pdfComparator, jobProperties, executor);
+
+        // THEN
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(live));
+    }
+
+    @Test
+    void testGetStatus_whenUnknown_thenEmpty() {
+        // GIVEN
+        ComparisonJobServiceImpl service = new ComparisonJobServiceImpl(pdfComparator, jobProperties, executor);
+
+        // WHEN / THEN
+        assertTrue(service.getStatus("unknown").isEmpty());
+    }
+
+    private MockMultipartFile pdf(String name) {
+        return new MockMultipartFile(name, name + ".pdf", "application/pdf", "dummy".getBytes());
+    }
+
+    private void awaitJobs() throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    private long countStoreFiles() throws IOException {
+        try (Stream<Path> files = Files.list(storeDirectory)) {
+            return files.count();
+        }
+    }
+
+}
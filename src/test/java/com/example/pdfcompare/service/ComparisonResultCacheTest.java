@@ -0,0 +1,158 @@
+package com.example.pdfcompare.service;
+
+import com.example.pdfcompare.config.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComparisonResultCacheTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    private CacheProperties cacheProperties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties = new CacheProperties();
+        cacheProperties.setDiskDirectory(cacheDirectory);
+        cacheProperties.setMemoryMaxSize(DataSize.ofBytes(10));
+        cacheProperties.setDiskMaxSize(DataSize.ofBytes(20));
+        cacheProperties.setMaxEntrySize(DataSize.ofBytes(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testGet_whenMissing_thenMissIsCounted() {
+        // GIVEN
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+
+        // WHEN / THEN
+        assertTrue(cache.get("key").isEmpty());
+        assertEquals(1, count("pdfcompare.cache.gets", "miss", "none"));
+    }
+
+    @Test
+    void testPutAndGet_whenInMemory_thenMemoryHit() {
+        // GIVEN
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+        cache.put("key", new byte[] {1, 2, 3});
+
+        // WHEN / THEN
+        assertArrayEquals(new byte[] {1, 2, 3}, cache.get("key").orElseThrow());
+        assertEquals(1, count("pdfcompare.cache.gets", "hit", "memory"));
+        assertTrue(Files.exists(cacheFile("key")), "Entries are written through to disk");
+    }
+
+    @Test
+    void testPut_whenMemoryTierIsFull_thenLeastRecentlyUsedIsEvictedAndServedFromDisk() {
+        // GIVEN: three 4-byte entries against a 10-byte memory tier, with "a" used after "b".
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+        cache.put("a", new byte[] {1, 1, 1, 1});
+        cache.put("b", new byte[] {2, 2, 2, 2});
+        cache.get("a");
+
+        // WHEN
+        cache.put("c", new byte[] {3, 3, 3, 3});
+
+        // THEN: "b" left the memory tier but is still on disk, and is promoted on access.
+        assertEquals(1, meterRegistry.get("pdfcompare.cache.evictions").tag("tier", "memory").counter().count());
+        assertArrayEquals(new byte[] {2, 2, 2, 2}, cache.get("b").orElseThrow());
+        assertEquals(1, count("pdfcompare.cache.gets", "hit", "disk"));
+        assertArrayEquals(new byte[] {2, 2, 2, 2}, cache.get("b").orElseThrow());
+        assertEquals(2, count("pdfcompare.cache.gets", "hit", "memory"));
+    }
+
+    @Test
+    void testPut_whenDiskTierIsFull_thenLeastRecentlyUsedFileIsDeleted() {
+        // GIVEN: a 20-byte disk tier and no memory tier.
+        cacheProperties.setMemoryMaxSize(DataSize.ofBytes(0));
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+        cache.put("a", new byte[8]);
+        cache.put("b", new byte[8]);
+
+        // WHEN
+        cache.put("c", new byte[8]);
+
+        // THEN
+        assertFalse(Files.exists(cacheFile("a")));
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("b").isPresent());
+        assertTrue(cache.get("c").isPresent());
+        assertEquals(1, meterRegistry.get("pdfcompare.cache.evictions").tag("tier", "disk").counter().count());
+    }
+
+    @Test
+    void testPut_whenEntryTooLarge_thenNotCached() {
+        // GIVEN
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+
+        // WHEN
+        cache.put("key", new byte[11]);
+
+        // THEN
+        assertTrue(cache.get("key").isEmpty());
+    }
+
+    @Test
+    void testConstructor_whenDiskEntriesExist_thenTheyAreServed() throws Exception {
+        // GIVEN: a result left on disk by a previous run, plus an abandoned staged write.
+        Files.write(cacheFile("key"), new byte[] {7});
+        Files.write(cacheDirectory.resolve("other.tmp"), new byte[] {8});
+
+        // WHEN
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+
+        // THEN
+        assertArrayEquals(new byte[] {7}, cache.get("key").orElseThrow());
+        assertFalse(Files.exists(cacheDirectory.resolve("other.tmp")));
+    }
+
+    @Test
+    void testConstructor_whenDiskEntriesOfAnotherFormatVersionExist_thenTheyAreDeleted() throws Exception {
+        // GIVEN: results written before the output format changed.
+        Path unversioned = Files.write(cacheDirectory.resolve("key.pdf"), new byte[] {7});
+        Path older = Files.write(cacheDirectory.resolve("v" + (ComparisonResultCache.FORMAT_VERSION - 1) + "-key.pdf"),
+                new byte[] {7});
+
+        // WHEN
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+
+        // THEN
+        assertTrue(cache.get("key").isEmpty());
+        assertFalse(Files.exists(unversioned));
+        assertFalse(Files.exists(older));
+    }
+
+    @Test
+    void testDisabled_thenNothingIsCached() {
+        // GIVEN
+        cacheProperties.setEnabled(false);
+        ComparisonResultCache cache = new ComparisonResultCache(cacheProperties, meterRegistry);
+
+        // WHEN
+        cache.put("key", new byte[] {1});
+
+        // THEN
+        assertTrue(cache.get("key").isEmpty());
+        assertFalse(Files.exists(cacheFile("key")));
+    }
+
+    private Path cacheFile(String key) {
+        return cacheDirectory.resolve("v" + ComparisonResultCache.FORMAT_VERSION + "-" + key + ".pdf");
+    }
+
+    private double count(String name, String result, String tier) {
+        return meterRegistry.get(name).tag("result", result).tag("tier", tier).counter().count();
+    }
+
+}
@@ -1,19 +1,38 @@
 package com.example.pdfcompare.service;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.util.EqualityComparator;
+import com.example.pdfcompare.util.HashUtilityClass;
 import com.example.pdfcompare.util.PDFComparator;
+import com.example.pdfcompare.util.PageReportListener;
+import com.example.pdfcompare.util.PdfSource;
+import com.example.pdfcompare.util.ReportComparator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.*;
 
 class PDFComparisonServiceImplTest extends AbstractBaseServiceTest {
@@ -24,12 +43,42 @@ class PDFComparisonServiceImplTest extends AbstractBaseServiceTest {
     @Mock
     private PDFComparator pdfComparator;
 
+    @Mock
+    private ReportComparator reportComparator;
+
+    @Mock
+    private EqualityComparator equalityComparator;
+
+    @Mock
+    private ComparisonProperties comparisonProperties;
+
+    @Mock
+    private ComparisonResultCache resultCache;
+
+    @Mock
+    private ComparisonExecutor comparisonExecutor;
+
+    @Mock
+    private ComparisonExecutor.Permit permit;
+
     @Mock
     private MultipartFile pdf1;
 
     @Mock
     private MultipartFile pdf2;
 
+    @BeforeEach
+    void setUp() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<ComparisonExecutor.Task>getArgument(0).run();
+            return null;
+        }).when(comparisonExecutor).run(any());
+        doAnswer(invocation -> {
+            invocation.<ComparisonExecutor.Task>getArgument(1).run();
+            return null;
+        }).when(comparisonExecutor).run(any(ComparisonExecutor.Permit.class), any());
+    }
+
     @Test
     void testComparePDFs() throws Exception {
         // GIVEN: Two MultipartFiles that return an InputStream with dummy content.
@@ -59,4 +108,249 @@ class PDFComparisonServiceImplTest extends AbstractBaseServiceTest {
         verify(pdfComparator, times(1)).comparePDFs(any(InputStream.class), any(InputStream.class), any(OutputStream.class), eq(isMultiple));
     }
 
-}
\ No newline at end of file
+    @Test
+    void testComparePDFs_toOutputStream() throws Exception {
+        // GIVEN: Two MultipartFiles and a caller-provided output stream.
+        byte[] dummyData = "dummy".getBytes(StandardCharsets.UTF_8);
+        when(pdf1.getInputStream()).thenReturn(new ByteArrayInputStream(dummyData));
+        when(pdf2.getInputStream()).thenReturn(new ByteArrayInputStream(dummyData));
+        ByteArrayOutputStream responseStream = new ByteArrayOutputStream();
+
+        doAnswer(invocation -> {
+            OutputStream os = invocation.getArgument(2);
+            os.write("result".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdfComparator).comparePDFs(any(InputStream.class), any(InputStream.class), any(OutputStream.class), eq(false));
+
+        // WHEN: Calling the streaming service method.
+        service.comparePDFs(pdf1, pdf2, false, responseStream, permit);
+
+        // THEN: The comparator writes straight into the caller's stream, on the reserved comparison thread.
+        assertEquals("result", responseStream.toString(StandardCharsets.UTF_8));
+        verify(comparisonExecutor).run(same(permit), any());
+        verify(pdfComparator, times(1)).comparePDFs(any(InputStream.class), any(InputStream.class), same(responseStream), eq(false));
+    }
+
+    @Test
+    void testCompareReport_returnsReportWithoutGeneratingPdf() throws Exception {
+        // GIVEN
+        when(pdf1.getBytes()).thenReturn("dummy1".getBytes(StandardCharsets.UTF_8));
+        when(pdf2.getBytes()).thenReturn("dummy2".getBytes(StandardCharsets.UTF_8));
+        List<PageReport> expected = List.of(new PageReport(1, 1, PageReport.Status.IDENTICAL, List.of(), List.of()));
+        doAnswer(invocation -> {
+            invocation.<PageReportListener>getArgument(2).onPageReport(expected.get(0));
+            return null;
+        }).when(reportComparator).comparePDFs(any(PdfSource.class), any(PdfSource.class), any(PageReportListener.class));
+
+        // WHEN
+        List<PageReport> report = service.compareReport(pdf1, pdf2);
+
+        // THEN: the report ran on the comparison executor, and neither the PDF comparator nor the cache was used.
+        assertEquals(expected, report);
+        verify(comparisonExecutor, times(1)).run(any());
+        verifyNoInteractions(pdfComparator, resultCache);
+    }
+
+    @Test
+    void testCompareReport_toListener_runsOnTheReservedPermit() throws Exception {
+        // GIVEN
+        when(pdf1.getBytes()).thenReturn("dummy1".getBytes(StandardCharsets.UTF_8));
+        when(pdf2.getBytes()).thenReturn("dummy2".getBytes(StandardCharsets.UTF_8));
+        PageReport page = new PageReport(1, 1, PageReport.Status.IDENTICAL, List.of(), List.of());
+        doAnswer(invocation -> {
+            invocation.<PageReportListener>getArgument(2).onPageReport(page);
+            return null;
+        }).when(reportComparator).comparePDFs(any(PdfSource.class), any(PdfSource.class), any(PageReportListener.class));
+        List<PageReport> received = new ArrayList<>();
+
+        // WHEN
+        service.compareReport(pdf1, pdf2, received::add, permit);
+
+        // THEN
+        assertEquals(List.of(page), received);
+        verify(comparisonExecutor).run(same(permit), any());
+        verify(comparisonExecutor, never()).run(any());
+    }
+
+    @Test
+    void testCompareEquality_diskInputMode_comparesSpooledFiles(@TempDir Path spoolDirectory) throws Exception {
+        // GIVEN
+        when(comparisonProperties.getInputMode()).thenReturn(ComparisonProperties.InputMode.DISK);
+        when(comparisonProperties.getSpoolDirectory()).thenReturn(spoolDirectory);
+        when(equalityComparator.compare(any(Path.class), any(Path.class))).thenReturn(EqualityResult.differentAt(4));
+
+        // WHEN
+        EqualityResult result = service.compareEquality(pdf1, pdf2);
+
+        // THEN: the uploads were spooled, compared and deleted, and no PDF was generated.
+        assertEquals(EqualityResult.differentAt(4), result);
+        verify(pdf1).transferTo(any(Path.class));
+        verify(equalityComparator, never()).compare(any(byte[].class), any(byte[].class));
+        verifyNoInteractions(pdfComparator, resultCache);
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count(), "Spooled uploads should be deleted");
+        }
+    }
+
+    @Test
+    void testComparePDFs_diskInputMode_spoolsUploadsAndDeletesThem(@TempDir Path spoolDirectory) throws Exception {
+        // GIVEN: DISK input mode with a dedicated spool directory.
+        when(comparisonProperties.getInputMode()).thenReturn(ComparisonProperties.InputMode.DISK);
+        when(comparisonProperties.getSpoolDirectory()).thenReturn(spoolDirectory);
+        doAnswer(invocation -> {
+            Path target = invocation.getArgument(0);
+            Files.write(target, "dummy".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdf1).transferTo(any(Path.class));
+        doAnswer(invocation -> {
+            Path target = invocation.getArgument(0);
+            Files.write(target, "dummy".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdf2).transferTo(any(Path.class));
+
+        List<Long> spooledFileCounts = new ArrayList<>();
+        doAnswer(invocation -> {
+            try (Stream<Path> files = Files.list(spoolDirectory)) {
+                spooledFileCounts.add(files.count());
+            }
+            return null;
+        }).when(pdfComparator).comparePDFs(any(PdfSource.class), any(PdfSource.class), any(OutputStream.class), eq(true));
+
+        // WHEN
+        service.comparePDFs(pdf1, pdf2, true, new ByteArrayOutputStream(), permit);
+
+        // THEN: both uploads were on disk during the comparison, and are removed afterwards.
+        assertEquals(List.of(2L), spooledFileCounts);
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            assertEquals(0, files.count(), "Spooled uploads should be deleted");
+        }
+        verify(pdf1, never()).getInputStream();
+        verify(pdfComparator, never()).comparePDFs(any(InputStream.class), any(InputStream.class), any(OutputStream.class), anyBoolean());
+    }
+
+    @Test
+    void testComparePDFs_whenCached_thenComparatorIsNotCalled() throws Exception {
+        // GIVEN: a cached result for the two inputs.
+        byte[] dummyData = "dummy".getBytes(StandardCharsets.UTF_8);
+        when(pdf1.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(pdf2.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(resultCache.isEnabled()).thenReturn(true);
+        when(comparisonProperties.getDiffMode()).thenReturn(ComparisonProperties.DiffMode.CONTENT);
+        when(comparisonProperties.getTextDiffScope()).thenReturn(ComparisonProperties.TextDiffScope.PAGE);
+        when(comparisonProperties.getImageHashSource()).thenReturn(ComparisonProperties.ImageHashSource.DECODED);
+        when(comparisonProperties.getImageMatching()).thenReturn(ComparisonProperties.ImageMatching.EXACT);
+        String expectedKey = HashUtilityClass.sha256(new ByteArrayInputStream(dummyData)) + "-"
+                + HashUtilityClass.sha256(new ByteArrayInputStream(dummyData)) + "-multiple-CONTENT-PAGE-positional-DECODED-EXACT";
+        when(resultCache.get(expectedKey)).thenReturn(Optional.of("cached".getBytes(StandardCharsets.UTF_8)));
+
+        // WHEN
+        byte[] result = service.comparePDFs(pdf1, pdf2, true);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        service.comparePDFs(pdf1, pdf2, true, streamed, permit);
+
+        // THEN
+        assertEquals("cached", new String(result, StandardCharsets.UTF_8));
+        assertEquals("cached", streamed.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(pdfComparator);
+        verify(permit).close();
+        verify(resultCache, never()).put(any(), any());
+    }
+
+    @Test
+    void testComparePDFs_whenNotCached_thenResultIsStored() throws Exception {
+        // GIVEN: an empty cache.
+        byte[] dummyData = "dummy".getBytes(StandardCharsets.UTF_8);
+        when(pdf1.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(pdf2.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(resultCache.isEnabled()).thenReturn(true);
+        when(resultCache.getMaxEntryBytes()).thenReturn(1024L);
+        doAnswer(invocation -> {
+            OutputStream os = invocation.getArgument(2);
+            os.write("result".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdfComparator).comparePDFs(any(InputStream.class), any(InputStream.class), any(OutputStream.class), eq(false));
+
+        // WHEN
+        service.comparePDFs(pdf1, pdf2, false);
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        service.comparePDFs(pdf1, pdf2, false, streamed, permit);
+
+        // THEN: both the buffered and the streamed result are stored under the same key.
+        assertEquals("result", streamed.toString(StandardCharsets.UTF_8));
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<byte[]> results = ArgumentCaptor.forClass(byte[].class);
+        verify(resultCache, times(2)).put(keys.capture(), results.capture());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertTrue(keys.getValue().contains("-single"));
+        assertEquals("result", new String(results.getAllValues().get(0), StandardCharsets.UTF_8));
+        assertEquals("result", new String(results.getAllValues().get(1), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testComparePDFs_whenOutputSettingsDiffer_thenResultsAreCachedUnderDifferentKeys() throws Exception {
+        // GIVEN
+        byte[] dummyData = "dummy".getBytes(StandardCharsets.UTF_8);
+        when(pdf1.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(pdf2.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(resultCache.isEnabled()).thenReturn(true);
+        when(resultCache.getMaxEntryBytes()).thenReturn(1024L);
+
+        // WHEN: the same inputs are compared with each setting that changes the output.
+        List<String> keys = new ArrayList<>();
+        keys.add(cachedKey());
+        when(comparisonProperties.getTextDiffScope()).thenReturn(ComparisonProperties.TextDiffScope.DOCUMENT);
+        keys.add(cachedKey());
+        when(comparisonProperties.isAlignPages()).thenReturn(true);
+        keys.add(cachedKey());
+        when(comparisonProperties.getImageHashSource()).thenReturn(ComparisonProperties.ImageHashSource.RAW_STREAM);
+        keys.add(cachedKey());
+        when(comparisonProperties.getImageMatching()).thenReturn(ComparisonProperties.ImageMatching.PERCEPTUAL);
+        when(comparisonProperties.getPerceptualHashThreshold()).thenReturn(8);
+        keys.add(cachedKey());
+        when(comparisonProperties.getPerceptualHashThreshold()).thenReturn(4);
+        keys.add(cachedKey());
+        when(comparisonProperties.getDiffMode()).thenReturn(ComparisonProperties.DiffMode.RASTER);
+        when(comparisonProperties.getRasterDpi()).thenReturn(96);
+        when(comparisonProperties.getRasterTileSize()).thenReturn(16);
+        keys.add(cachedKey());
+        when(comparisonProperties.getRasterDpi()).thenReturn(150);
+        keys.add(cachedKey());
+        when(comparisonProperties.getRasterTileSize()).thenReturn(32);
+        keys.add(cachedKey());
+
+        // THEN
+        assertEquals(keys.size(), keys.stream().distinct().count(), keys.toString());
+    }
+
+    @Test
+    void testComparePDFs_whenStreamedResultTooLarge_thenNotStored() throws Exception {
+        // GIVEN
+        byte[] dummyData = "dummy".getBytes(StandardCharsets.UTF_8);
+        when(pdf1.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(pdf2.getInputStream()).thenAnswer(invocation -> new ByteArrayInputStream(dummyData));
+        when(resultCache.isEnabled()).thenReturn(true);
+        when(resultCache.getMaxEntryBytes()).thenReturn(3L);
+        doAnswer(invocation -> {
+            OutputStream os = invocation.getArgument(2);
+            os.write("result".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(pdfComparator).comparePDFs(any(InputStream.class), any(InputStream.class), any(OutputStream.class), eq(false));
+
+        // WHEN
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        service.comparePDFs(pdf1, pdf2, false, streamed, permit);
+
+        // THEN: the client still gets the whole result.
+        assertEquals("result", streamed.toString(StandardCharsets.UTF_8));
+        verify(resultCache, never()).put(any(), any());
+    }
+
+    private String cachedKey() throws Exception {
+        clearInvocations(resultCache);
+        service.comparePDFs(pdf1, pdf2, false);
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        verify(resultCache).put(key.capture(), any());
+        return key.getValue();
+    }
+
+}
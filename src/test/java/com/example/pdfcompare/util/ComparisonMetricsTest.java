@@ -0,0 +1,69 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.Rectangle;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComparisonMetricsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ComparisonMetrics metrics = new ComparisonMetrics(meterRegistry);
+
+    @Test
+    void testRecordStage_thenTimerOfThatStageIsUpdated() {
+        // WHEN
+        metrics.recordStage(ComparisonMetrics.Stage.TEXT_DIFF, TimeUnit.MILLISECONDS.toNanos(5));
+
+        // THEN
+        var timer = meterRegistry.get("pdfcompare.comparison.stage").tag("stage", "text_diff").timer();
+        assertEquals(1, timer.count());
+        assertEquals(5, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(0, meterRegistry.get("pdfcompare.comparison.stage").tag("stage", "open").timer().count());
+    }
+
+    @Test
+    void testComparisonStartedAndFinished_thenActiveGaugeFollows() {
+        // WHEN
+        metrics.comparisonStarted();
+        metrics.comparisonStarted();
+        metrics.comparisonFinished();
+
+        // THEN
+        assertEquals(1, meterRegistry.get("pdfcompare.comparison.active").gauge().value());
+    }
+
+    @Test
+    void testRecordContentPagesAndDeltas_thenCountersAreUpdated() {
+        // GIVEN
+        Rectangle rectangle = new Rectangle(0, 0, 10, 10);
+        PageContent content = new PageContent(
+                PageText.builder().add("Hello", rectangle).add("World", rectangle).build(),
+                List.of(new ImageChunk(new ImageHash(1, 1), rectangle)));
+
+        // WHEN
+        metrics.recordContent(content);
+        metrics.recordPage(ComparisonMetrics.PageResult.COMPARED);
+        metrics.recordPage(ComparisonMetrics.PageResult.IDENTICAL);
+        metrics.recordDeltas(3, 1);
+
+        // THEN
+        assertEquals(2, meterRegistry.get("pdfcompare.comparison.words").counter().count());
+        assertEquals(1, meterRegistry.get("pdfcompare.comparison.images").counter().count());
+        assertEquals(2, meterRegistry.get("pdfcompare.comparison.page.words").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("pdfcompare.comparison.pages").tag("result", "compared").counter().count());
+        assertEquals(1, meterRegistry.get("pdfcompare.comparison.pages").tag("result", "identical").counter().count());
+        assertEquals(3, meterRegistry.get("pdfcompare.comparison.deltas").tag("type", "text").counter().count());
+        assertEquals(1, meterRegistry.get("pdfcompare.comparison.deltas").tag("type", "image").counter().count());
+    }
+
+}
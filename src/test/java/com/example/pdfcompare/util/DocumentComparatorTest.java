@@ -0,0 +1,81 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.Highlight;
+import com.example.pdfcompare.model.PageHighlights;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.pdf.PdfReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.pdfcompare.util.TestPdfs.pdf;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentComparatorTest {
+
+    private final ComparisonMetrics metrics = new ComparisonMetrics(new SimpleMeterRegistry());
+    private final PDFHighlighter highlighter = new PDFHighlighter();
+    private final PDFPageComparator pageComparator = new PDFPageComparator(new TextComparator(highlighter),
+            new ImageComparator(highlighter, new ComparisonProperties()), highlighter,
+            new PDFPageContentExtractor(new PDFTextExtractor(), new PDFImageExtractor(HashUtilityClass::murmur3x128, new ComparisonProperties()), metrics),
+            new PageHasher(), new PageContentCache(new ComparisonProperties()), metrics);
+    private final DocumentComparator comparator = new DocumentComparator(pageComparator, highlighter, metrics);
+
+    @Test
+    void testCompareDocuments_reflowedText_onlyInsertedWordsAreHighlighted() throws Exception {
+        // GIVEN: a paragraph inserted at the start pushes every later paragraph onto the next page.
+        PdfReader reader1 = new PdfReader(pdf(200, 12, "alpha beta", "gamma delta"));
+        PdfReader reader2 = new PdfReader(pdf(300, 12, "inserted words", "alpha beta", "gamma delta"));
+
+        // WHEN
+        List<PageHighlights> highlights = comparator.compareDocuments(reader1, reader2, true);
+
+        // THEN: page 1 highlights the two inserted words next to the first document's page.
+        assertEquals(3, highlights.size());
+        List<Highlight> page1 = highlights.get(0).getHighlights();
+        assertEquals(2, page1.size());
+        for (Highlight highlight : page1) {
+            assertEquals(BaseColor.GREEN, highlight.color());
+            assertEquals(200f, highlight.xOffset());
+        }
+        assertTrue(highlights.get(1).isEmpty());
+        assertTrue(highlights.get(2).isEmpty());
+    }
+
+    @Test
+    void testCompareDocuments_deletedWords_highlightedOnTheirOwnPageOnlyWhenMultiple() throws Exception {
+        // GIVEN: the second page of the first document was removed.
+        byte[] pdf1 = pdf(200, 12, "alpha beta", "gamma delta");
+        byte[] pdf2 = pdf(200, 12, "alpha beta");
+
+        // WHEN
+        List<PageHighlights> multiple = comparator.compareDocuments(new PdfReader(pdf1), new PdfReader(pdf2), true);
+        List<PageHighlights> single = comparator.compareDocuments(new PdfReader(pdf1), new PdfReader(pdf2), false);
+
+        // THEN
+        assertTrue(multiple.get(0).isEmpty());
+        assertEquals(2, multiple.get(1).getHighlights().size());
+        assertEquals(BaseColor.RED, multiple.get(1).getHighlights().get(0).color());
+        assertEquals(0f, multiple.get(1).getHighlights().get(0).xOffset());
+        assertTrue(single.stream().allMatch(PageHighlights::isEmpty));
+    }
+
+    @Test
+    void testCompareDocuments_changedWordOnLaterPage_highlightedOnThatPage() throws Exception {
+        // GIVEN
+        PdfReader reader1 = new PdfReader(pdf(200, 12, "alpha beta", "gamma delta", "epsilon zeta"));
+        PdfReader reader2 = new PdfReader(pdf(200, 12, "alpha beta", "gamma changed", "epsilon zeta"));
+
+        // WHEN
+        List<PageHighlights> highlights = comparator.compareDocuments(reader1, reader2, true);
+
+        // THEN: the old word in red and the new one in green, both on page 2.
+        assertTrue(highlights.get(0).isEmpty());
+        List<Highlight> page2 = highlights.get(1).getHighlights();
+        assertEquals(List.of(BaseColor.RED, BaseColor.GREEN), page2.stream().map(Highlight::color).toList());
+        assertTrue(highlights.get(2).isEmpty());
+    }
+
+}
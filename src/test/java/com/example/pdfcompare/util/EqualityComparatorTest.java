@@ -0,0 +1,142 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.config.ComparisonProperties.ImageMatching;
+import com.example.pdfcompare.model.EqualityResult;
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.example.pdfcompare.util.TestPdfs.PAGE_A;
+import static com.example.pdfcompare.util.TestPdfs.PAGE_B;
+import static com.example.pdfcompare.util.TestPdfs.PAGE_C;
+import static com.example.pdfcompare.util.TestPdfs.pdf;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EqualityComparatorTest {
+
+    private final ComparisonProperties properties = new ComparisonProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ComparisonMetrics metrics = new ComparisonMetrics(registry);
+    private final PDFHighlighter highlighter = new PDFHighlighter();
+    private final PageHasher pageHasher = new PageHasher();
+    private final ImageComparator imageComparator = new ImageComparator(highlighter, properties);
+    private final PDFPageComparator pageComparator = new PDFPageComparator(new TextComparator(highlighter),
+            imageComparator, highlighter,
+            new PDFPageContentExtractor(new PDFTextExtractor(), new PDFImageExtractor(HashUtilityClass::murmur3x128, properties), metrics),
+            pageHasher, new PageContentCache(properties), metrics);
+    private final EqualityComparator equalityComparator = new EqualityComparator(pageComparator, imageComparator,
+            pageHasher, metrics);
+
+    @Test
+    void testCompare_sameFile_equalWithoutOpeningIt() throws Exception {
+        // GIVEN: bytes that are not even a PDF, so opening them would fail.
+        byte[] pdf = "not a pdf".getBytes();
+
+        // WHEN
+        EqualityResult result = equalityComparator.compare(pdf, pdf.clone());
+
+        // THEN
+        assertEquals(EqualityResult.EQUAL, result);
+    }
+
+    @Test
+    void testCompare_regeneratedDocument_equal() throws Exception {
+        // GIVEN: the same document written twice, so only its ID and dates differ.
+        byte[] pdf1 = pdf(PAGE_A, PAGE_B, PAGE_C);
+        byte[] pdf2 = pdf(PAGE_A, PAGE_B, PAGE_C);
+        assertFalse(Arrays.equals(pdf1, pdf2));
+
+        // WHEN
+        EqualityResult result = equalityComparator.compare(pdf1, pdf2);
+
+        // THEN
+        assertEquals(EqualityResult.EQUAL, result);
+    }
+
+    @Test
+    void testCompare_sameWordsInDifferentContentStreams_equal() throws Exception {
+        // GIVEN: the same words in a different font size, so the page hashes differ.
+        byte[] pdf1 = pdf(300, 12, PAGE_A, PAGE_B);
+        byte[] pdf2 = pdf(300, 11, PAGE_A, PAGE_B);
+        assertNotEquals(pageHasher.hashPage(new PdfReader(pdf1), 1), pageHasher.hashPage(new PdfReader(pdf2), 1));
+
+        // WHEN
+        EqualityResult result = equalityComparator.compare(pdf1, pdf2);
+
+        // THEN
+        assertEquals(EqualityResult.EQUAL, result);
+    }
+
+    @Test
+    void testCompare_changedWord_firstDifferingPage() throws Exception {
+        // GIVEN
+        byte[] pdf1 = pdf(PAGE_A, PAGE_B, PAGE_C);
+        byte[] pdf2 = pdf(PAGE_A, PAGE_B.replace("sixty", "ninety"), PAGE_C.replace("ninety", "sixty"));
+
+        // WHEN
+        EqualityResult result = equalityComparator.compare(pdf1, pdf2);
+
+        // THEN: the comparison stopped at page 2; page 3 was never compared.
+        assertEquals(EqualityResult.differentAt(2), result);
+        assertEquals(2, registry.find("pdfcompare.comparison.pages").counters().stream()
+                .mapToDouble(counter -> counter.count()).sum());
+    }
+
+    @Test
+    void testCompare_extraPage_differsAtTheFirstPageOnlyOneDocumentHas(@TempDir Path directory) throws Exception {
+        // GIVEN
+        Path file1 = Files.write(directory.resolve("1.pdf"), pdf(PAGE_A, PAGE_B));
+        Path file2 = Files.write(directory.resolve("2.pdf"), pdf(PAGE_A, PAGE_B, PAGE_C));
+
+        // WHEN
+        EqualityResult result = equalityComparator.compare(file1, file2);
+
+        // THEN
+        assertEquals(EqualityResult.differentAt(3), result);
+    }
+
+    @Test
+    void testCompare_perceptualMatching_lookAlikeImagesEqual() throws Exception {
+        // GIVEN: pages with the same words, and an image re-encoded so that only its perceptual
+        // hash is close to the original's.
+        properties.setImageMatching(ImageMatching.PERCEPTUAL);
+        PdfReader reader1 = new PdfReader(pdf(PAGE_A));
+        PdfReader reader2 = new PdfReader(pdf(300, 11, PAGE_A));
+        Rectangle rectangle = new Rectangle(0, 0, 100, 100);
+        PageText words = PageText.builder().add("invoice", rectangle).build();
+        PDFPageComparator extractor = mock(PDFPageComparator.class);
+        when(extractor.extractPage(same(reader1), eq(1), any())).thenReturn(new PageContent(words,
+                List.of(new ImageChunk(new ImageHash(1, 1), rectangle, 0b1111_0000L))));
+        when(extractor.extractPage(same(reader2), eq(1), any())).thenReturn(new PageContent(words,
+                List.of(new ImageChunk(new ImageHash(3, 3), rectangle, 0b1111_0111L))));
+        PdfSource source1 = mock(PdfSource.class);
+        PdfSource source2 = mock(PdfSource.class);
+        when(source1.open()).thenReturn(reader1);
+        when(source2.open()).thenReturn(reader2);
+
+        // WHEN
+        EqualityResult result = new EqualityComparator(extractor, imageComparator, pageHasher, metrics)
+                .compare(source1, source2);
+
+        // THEN: the page is equal, as PDFComparator would not highlight the image either.
+        assertEquals(EqualityResult.EQUAL, result);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.example.pdfcompare.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HammingIndexTest {
+
+    @Test
+    void testNearest_matchesBruteForce() {
+        // GIVEN: clustered hashes, so that many lie within the search radius
+        Random random = new Random(42);
+        long[] centres = {random.nextLong(), random.nextLong(), random.nextLong()};
+        long[] hashes = new long[500];
+        int[] indexes = new int[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = flip(centres[i % centres.length], random, random.nextInt(12));
+            indexes[i] = i * 10;
+        }
+
+        for (int maxDistance : new int[]{0, 1, 5, 8, 20, 64}) {
+            HammingIndex index = new HammingIndex(hashes, indexes, maxDistance);
+            for (int query = 0; query < 100; query++) {
+                long hash = flip(centres[query % centres.length], random, random.nextInt(12));
+
+                // WHEN: only every other hash is available
+                int nearest = index.nearest(hash, i -> i % 20 == 0);
+
+                // THEN
+                int bestDistance = Integer.MAX_VALUE;
+                for (int i = 0; i < hashes.length; i += 2) {
+                    bestDistance = Math.min(bestDistance, PerceptualHash.distance(hash, hashes[i]));
+                }
+                if (bestDistance > maxDistance) {
+                    assertEquals(-1, nearest);
+                } else {
+                    assertEquals(0, nearest % 20);
+                    assertEquals(bestDistance, PerceptualHash.distance(hash, hashes[nearest / 10]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testNearest_emptyIndex_returnsMinusOne() {
+        assertEquals(-1, new HammingIndex(new long[0], new int[0], 8).nearest(0L, i -> true));
+    }
+
+    private static long flip(long hash, Random random, int bits) {
+        for (int i = 0; i < bits; i++) {
+            hash ^= 1L << random.nextInt(64);
+        }
+        return hash;
+    }
+
+}
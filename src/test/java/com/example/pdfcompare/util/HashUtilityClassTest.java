@@ -4,13 +4,21 @@ import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
 
+import com.example.pdfcompare.model.ImageHash;
+
+import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
@@ -19,65 +27,85 @@ import org.mockito.Mockito;
 class HashUtilityClassTest {
 
     @Test
-    void testHashBytes_normalCase() {
+    void testMd5_normalCase() {
         // Given: a known input
         byte[] data = "Hello".getBytes(StandardCharsets.UTF_8);
-        // Expected MD5 hash for "Hello" (computed externally)
-        String expectedHash = "8b1a9953c4611296a827abf8c47804d7";
 
         // When: calling the utility method
-        String result = HashUtilityClass.hashBytes(data);
+        ImageHash result = HashUtilityClass.md5(data, 0, data.length);
 
-        // Then: the result should match the expected hash
-        assertThat(result).isEqualTo(expectedHash);
+        // Then: the result is the MD5 of "Hello", 8b1a9953c4611296a827abf8c47804d7
+        assertEquals(new ImageHash(0x8b1a9953c4611296L, 0xa827abf8c47804d7L), result);
+        assertEquals("8b1a9953c4611296a827abf8c47804d7", result.toString());
     }
 
     @Test
-    void testHashBytes_exceptionCase() {
+    void testMd5_exceptionCase() {
         // Given: a known input
         byte[] data = "Hello".getBytes(StandardCharsets.UTF_8);
-        String expectedFallback = Arrays.toString(data);
 
         // And: mock the static method MessageDigest.getInstance to throw an exception
         try (MockedStatic<MessageDigest> mockedMessageDigest = Mockito.mockStatic(MessageDigest.class)) {
             mockedMessageDigest.when(() -> MessageDigest.getInstance("MD5"))
                     .thenThrow(new NoSuchAlgorithmException("Simulated exception"));
 
-            // When: calling the utility method, which will catch the exception and return fallback
-            String result = HashUtilityClass.hashBytes(data);
-
-            // Then: the fallback value is returned
-            assertThat(result).isEqualTo(expectedFallback);
-
-            // And: verify that MessageDigest.getInstance("MD5") was called exactly once
+            // When & Then: the failure is reported rather than replaced by a stringified copy of the data
+            IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                    () -> HashUtilityClass.md5(data, 0, data.length));
+            assertInstanceOf(NoSuchAlgorithmException.class, thrown.getCause());
             mockedMessageDigest.verify(() -> MessageDigest.getInstance("MD5"), times(1));
         }
     }
 
     @Test
-    void testHashBytes_withLeadingZeros() {
-        // Given: any input; we simulate that the MessageDigest returns 16 zero bytes.
-        byte[] data = "anything".getBytes(StandardCharsets.UTF_8);
-        // Create a fake MessageDigest that returns an array of 16 zero bytes.
-        MessageDigest fakeDigest = Mockito.mock(MessageDigest.class);
-        Mockito.when(fakeDigest.digest(data)).thenReturn(new byte[16]); // 16 bytes of 0
-
-        try (MockedStatic<MessageDigest> mdMock = Mockito.mockStatic(MessageDigest.class)) {
-            mdMock.when(() -> MessageDigest.getInstance("MD5")).thenReturn(fakeDigest);
-
-            // When: compute the hash.
-            String result = HashUtilityClass.hashBytes(data);
-
-            // Then: since new BigInteger(1, new byte[16]).toString(16) returns "0",
-            // the while-loop should pad it to 32 characters ("00000000000000000000000000000000").
-            String expected = "00000000000000000000000000000000";
-            assertEquals(expected, result);
-
-            // Verify that MessageDigest.getInstance("MD5") and digest(data) were called.
-            mdMock.verify(() -> MessageDigest.getInstance("MD5"), times(1));
-            verify(fakeDigest, times(1)).digest(data);
+    void testMd5_withLeadingZeros() {
+        // Given: an all-zero digest still prints as 32 hex digits.
+        ImageHash zero = new ImageHash(0, 0);
+
+        // Then
+        assertEquals("00000000000000000000000000000000", zero.toString());
+    }
+
+    @Test
+    void testMurmur3x128_referenceValues() {
+        // Given: the reference vectors of MurmurHash3_x64_128 with seed 0
+        byte[] fox = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertEquals(new ImageHash(0, 0), HashUtilityClass.murmur3x128(new byte[0], 0, 0));
+        assertEquals(new ImageHash(0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L),
+                HashUtilityClass.murmur3x128(fox, 0, fox.length));
+    }
+
+    @Test
+    void testMurmur3x128_offsetAndEveryTailLength() {
+        // Given: inputs of every length up to three blocks, hashed alone and inside a larger array
+        byte[] data = new byte[48];
+        new Random(42).nextBytes(data);
+        Set<ImageHash> hashes = new HashSet<>();
+
+        for (int length = 0; length <= 40; length++) {
+            byte[] alone = Arrays.copyOfRange(data, 5, 5 + length);
+
+            // When
+            ImageHash hash = HashUtilityClass.murmur3x128(data, 5, length);
+
+            // Then: only the range is hashed, and no two lengths collide
+            assertEquals(HashUtilityClass.murmur3x128(alone, 0, length), hash);
+            assertTrue(hashes.add(hash), "Length " + length + " collides with a shorter prefix");
         }
     }
 
+    @Test
+    void testSha256_stream() throws Exception {
+        // Given: a known input
+        byte[] data = "Hello".getBytes(StandardCharsets.UTF_8);
+
+        // When: hashing it as a stream
+        String result = HashUtilityClass.sha256(new ByteArrayInputStream(data));
+
+        // Then: the result matches the SHA-256 of "Hello"
+        assertThat(result).isEqualTo("185f8db32271fe25f561a6fc938b2e264306ec304eda518007d1764826381969");
+    }
 
-}
\ No newline at end of file
+}
@@ -1,13 +1,17 @@
 package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.config.ComparisonProperties.ImageMatching;
 import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageHighlights;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.PdfContentByte;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 
 import java.util.List;
 
@@ -23,7 +27,10 @@ class ImageComparatorTest extends AbstractBaseServiceTest {
     private PDFHighlighter pdfHighlighter;
 
     @Mock
-    private PdfContentByte cb;
+    private PageHighlights highlights;
+
+    @Spy
+    private ComparisonProperties comparisonProperties = new ComparisonProperties();
 
     /**
      * GIVEN a DELETE scenario (images1 has an extra element compared to images2)
@@ -36,8 +43,8 @@ class ImageComparatorTest extends AbstractBaseServiceTest {
         // GIVEN
         Rectangle rect1 = new Rectangle(0, 0, 100, 100);
         Rectangle rect2 = new Rectangle(100, 100, 200, 200);
-        ImageChunk imageChunk1 = new ImageChunk("hash1", rect1);
-        ImageChunk imageChunk2 = new ImageChunk("hash2", rect2);
+        ImageChunk imageChunk1 = new ImageChunk(new ImageHash(1, 1), rect1);
+        ImageChunk imageChunk2 = new ImageChunk(new ImageHash(2, 2), rect2);
         // images1 has two images, images2 has only the first image.
         List<ImageChunk> images1 = List.of(imageChunk1, imageChunk2);
         List<ImageChunk> images2 = List.of(imageChunk1);
@@ -45,11 +52,11 @@ class ImageComparatorTest extends AbstractBaseServiceTest {
         boolean isMultiple = true;
 
         // WHEN
-        imageComparator.compareImages(cb, images1, images2, width1, isMultiple);
+        imageComparator.compareImages(highlights, images1, images2, width1, isMultiple);
 
         // THEN: DiffUtils.diff will produce a DELETE delta for "image:hash2".
         // The method should call highlightRectangle on the deleted image with RED and xOffset = 0.
-        verify(pdfHighlighter, times(1)).highlightRectangle(cb, rect2, BaseColor.RED, 0f);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect2, BaseColor.RED, 0f);
         verifyNoMoreInteractions(pdfHighlighter);
     }
 
@@ -64,8 +71,8 @@ class ImageComparatorTest extends AbstractBaseServiceTest {
         // GIVEN
         Rectangle rect1 = new Rectangle(0, 0, 100, 100);
         Rectangle rect2 = new Rectangle(200, 200, 300, 300);
-        ImageChunk imageChunk1 = new ImageChunk("hash1", rect1);
-        ImageChunk imageChunk2 = new ImageChunk("hash2", rect2);
+        ImageChunk imageChunk1 = new ImageChunk(new ImageHash(1, 1), rect1);
+        ImageChunk imageChunk2 = new ImageChunk(new ImageHash(2, 2), rect2);
         // images1 has one image, images2 has two images.
         List<ImageChunk> images1 = List.of(imageChunk1);
         List<ImageChunk> images2 = List.of(imageChunk1, imageChunk2);
@@ -73,11 +80,11 @@ class ImageComparatorTest extends AbstractBaseServiceTest {
         boolean isMultiple = false; // So offset = (isMultiple ? width1 : 0) becomes 0
 
         // WHEN
-        imageComparator.compareImages(cb, images1, images2, width1, isMultiple);
+        imageComparator.compareImages(highlights, images1, images2, width1, isMultiple);
 
         // THEN: DiffUtils.diff should produce an INSERT delta for "image:hash2".
         // The method should call highlightRectangle on the inserted image with GREEN and xOffset = 0.
-        verify(pdfHighlighter, times(1)).highlightRectangle(cb, rect2, BaseColor.GREEN, 0f);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect2, BaseColor.GREEN, 0f);
         verifyNoMoreInteractions(pdfHighlighter);
     }
 
@@ -94,22 +101,71 @@ class ImageComparatorTest extends AbstractBaseServiceTest {
         Rectangle rect1 = new Rectangle(0, 0, 100, 100);
         Rectangle rect2 = new Rectangle(50, 50, 150, 150);
         // images1 and images2 have one element each, but with different identifiers.
-        ImageChunk imageChunk1 = new ImageChunk("hash1", rect1);
-        ImageChunk imageChunk2 = new ImageChunk("hash2", rect2);
+        ImageChunk imageChunk1 = new ImageChunk(new ImageHash(1, 1), rect1);
+        ImageChunk imageChunk2 = new ImageChunk(new ImageHash(2, 2), rect2);
         List<ImageChunk> images1 = List.of(imageChunk1);
         List<ImageChunk> images2 = List.of(imageChunk2);
         float width1 = 100f;
         boolean isMultiple = true;
 
         // WHEN
-        imageComparator.compareImages(cb, images1, images2, width1, isMultiple);
+        imageComparator.compareImages(highlights, images1, images2, width1, isMultiple);
 
         // THEN: DiffUtils.diff should produce a CHANGE delta.
         // For CHANGE, if isMultiple is true, the method highlights the source (from images1) in RED with offset 0
         // and the target (from images2) in GREEN with offset width1.
-        verify(pdfHighlighter, times(1)).highlightRectangle(cb, rect1, BaseColor.RED, 0f);
-        verify(pdfHighlighter, times(1)).highlightRectangle(cb, rect2, BaseColor.GREEN, width1);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect1, BaseColor.RED, 0f);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect2, BaseColor.GREEN, width1);
         verifyNoMoreInteractions(pdfHighlighter);
     }
 
-}
\ No newline at end of file
+    /**
+     * GIVEN perceptual matching, one re-encoded image whose perceptual hash is 3 bits off its
+     * original, and one replaced image whose perceptual hash is far off
+     * WHEN compareImages is called,
+     * THEN only the replaced image is highlighted.
+     */
+    @Test
+    void testCompareImages_Perceptual_ReencodedImageMatches() {
+        // GIVEN
+        comparisonProperties.setImageMatching(ImageMatching.PERCEPTUAL);
+        Rectangle rect1 = new Rectangle(0, 0, 100, 100);
+        Rectangle rect2 = new Rectangle(0, 100, 100, 200);
+        List<ImageChunk> images1 = List.of(
+                new ImageChunk(new ImageHash(1, 1), rect1, 0b1111_0000L),
+                new ImageChunk(new ImageHash(2, 2), rect2, 0x00ff_00ff_00ff_00ffL));
+        List<ImageChunk> images2 = List.of(
+                new ImageChunk(new ImageHash(3, 3), rect1, 0b1111_0111L),
+                new ImageChunk(new ImageHash(4, 4), rect2, 0xff00_ff00_ff00_ff00L));
+
+        // WHEN
+        int deltas = imageComparator.compareImages(highlights, images1, images2, 100f, true);
+
+        // THEN
+        assertEquals(1, deltas);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect2, BaseColor.RED, 0f);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect2, BaseColor.GREEN, 100f);
+        verifyNoMoreInteractions(pdfHighlighter);
+    }
+
+    /**
+     * GIVEN exact matching and two images that only look alike
+     * WHEN compareImages is called,
+     * THEN the image is reported as changed.
+     */
+    @Test
+    void testCompareImages_Exact_LookAlikeImageDiffers() {
+        // GIVEN
+        Rectangle rect = new Rectangle(0, 0, 100, 100);
+        List<ImageChunk> images1 = List.of(new ImageChunk(new ImageHash(1, 1), rect, 0L));
+        List<ImageChunk> images2 = List.of(new ImageChunk(new ImageHash(3, 3), rect, 0L));
+
+        // WHEN
+        int deltas = imageComparator.compareImages(highlights, images1, images2, 100f, false);
+
+        // THEN
+        assertEquals(1, deltas);
+        verify(pdfHighlighter, times(1)).highlightRectangle(highlights, rect, BaseColor.GREEN, 0f);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.example.pdfcompare.util;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.DeltaType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MyersDiffTest {
+
+    @Test
+    void testDiff_whenWordReplacedDeletedAndInserted_thenOneDeltaEach() {
+        // GIVEN
+        int[] source = {1, 2, 3, 4, 5, 6};
+        int[] target = {1, 9, 3, 5, 6, 7};
+
+        // WHEN
+        List<MyersDiff.Delta> deltas = MyersDiff.diff(source, target);
+
+        // THEN
+        assertEquals(List.of(
+                new MyersDiff.Delta(DeltaType.CHANGE, 1, 1, 1, 1),
+                new MyersDiff.Delta(DeltaType.DELETE, 3, 1, 3, 0),
+                new MyersDiff.Delta(DeltaType.INSERT, 6, 0, 5, 1)), deltas);
+    }
+
+    @Test
+    void testDiff_whenSequencesEqualOrEmpty_thenEdgeCases() {
+        assertTrue(MyersDiff.diff(new int[]{1, 2, 3}, new int[]{1, 2, 3}).isEmpty());
+        assertTrue(MyersDiff.diff(new int[0], new int[0]).isEmpty());
+        assertEquals(List.of(new MyersDiff.Delta(DeltaType.INSERT, 0, 0, 0, 2)),
+                MyersDiff.diff(new int[0], new int[]{1, 2}));
+        assertEquals(List.of(new MyersDiff.Delta(DeltaType.CHANGE, 0, 2, 0, 2)),
+                MyersDiff.diff(new int[]{1, 2}, new int[]{3, 4}));
+    }
+
+    @Test
+    void testDiff_whenRandomEdits_thenMinimalAndAppliesToTarget() {
+        Random random = new Random(7);
+        for (int round = 0; round < 500; round++) {
+            // GIVEN: a sequence over a small alphabet and a randomly edited copy of it.
+            int[] source = random.ints(random.nextInt(60), 0, 6).toArray();
+            int[] target = edit(source, random);
+
+            // WHEN
+            List<MyersDiff.Delta> deltas = MyersDiff.diff(source, target);
+
+            // THEN: applying the deltas gives the target, with as few edits as DiffUtils needs.
+            assertArrayEquals(target, apply(source, target, deltas), "round " + round);
+            assertEquals(editCount(source, target), deltas.stream()
+                    .mapToInt(delta -> delta.sourceSize() + delta.targetSize()).sum(), "round " + round);
+        }
+    }
+
+    private static int[] edit(int[] source, Random random) {
+        List<Integer> edited = new ArrayList<>(Arrays.stream(source).boxed().toList());
+        int edits = random.nextInt(10);
+        for (int i = 0; i < edits; i++) {
+            int position = edited.isEmpty() ? 0 : random.nextInt(edited.size());
+            switch (random.nextInt(3)) {
+                case 0 -> edited.add(position, random.nextInt(6));
+                case 1 -> {
+                    if (!edited.isEmpty()) {
+                        edited.remove(position);
+                    }
+                }
+                default -> {
+                    if (!edited.isEmpty()) {
+                        edited.set(position, random.nextInt(6));
+                    }
+                }
+            }
+        }
+        return edited.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] apply(int[] source, int[] target, List<MyersDiff.Delta> deltas) {
+        List<Integer> result = new ArrayList<>();
+        int next = 0;
+        for (MyersDiff.Delta delta : deltas) {
+            for (; next < delta.sourcePosition(); next++) {
+                result.add(source[next]);
+            }
+            for (int i = 0; i < delta.targetSize(); i++) {
+                result.add(target[delta.targetPosition() + i]);
+            }
+            next += delta.sourceSize();
+        }
+        for (; next < source.length; next++) {
+            result.add(source[next]);
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int editCount(int[] source, int[] target) {
+        List<AbstractDelta<Integer>> deltas = DiffUtils.diff(Arrays.stream(source).boxed().toList(),
+                Arrays.stream(target).boxed().toList()).getDeltas();
+        return deltas.stream().mapToInt(delta -> delta.getSource().size() + delta.getTarget().size()).sum();
+    }
+
+}
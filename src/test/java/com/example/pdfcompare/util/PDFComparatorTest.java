@@ -1,6 +1,10 @@
 package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.PageHighlights;
+import org.mockito.InOrder;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
@@ -12,6 +16,11 @@ import com.itextpdf.text.pdf.PdfWriter;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
@@ -27,6 +36,27 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
     @Mock
     private PDFPageComparator pageComparator;
 
+    @Mock
+    private DocumentComparator documentComparator;
+
+    @Mock
+    private PageAligner pageAligner;
+
+    @Mock
+    private RasterComparator rasterComparator;
+
+    @Mock
+    private PDFHighlighter pdfHighlighter;
+
+    @Mock
+    private ComparisonProperties comparisonProperties;
+
+    @Mock
+    private ExecutorService pageComparisonExecutor;
+
+    @Mock
+    private ComparisonMetrics comparisonMetrics;
+
     /**
      * GIVEN two minimal valid PDFs (each with one page of size 200x200)
      * WHEN comparePDFs is called with isMultiple = true
@@ -51,7 +81,7 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
         // We expect that pageComparator.comparePage() is invoked once with pageNumber 1.
         verify(pageComparator, times(1))
                 .comparePage(any(PdfReader.class), any(PdfReader.class), eq(1),
-                        any(), eq(200f), eq(200f), eq(200f), eq(200f), eq(isMultiple));
+                        any(PageHighlights.class), eq(200f), eq(200f), eq(200f), eq(200f), eq(isMultiple));
         // And ensure that some output was written.
         assertTrue(outputStream.size() > 0, "Output PDF should be generated");
     }
@@ -78,10 +108,32 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
         // For isMultiple false, combinedWidth equals width2 (200).
         verify(pageComparator, times(1))
                 .comparePage(any(PdfReader.class), any(PdfReader.class), eq(1),
-                        any(), eq(200f), eq(200f), eq(200f), eq(200f), eq(isMultiple));
+                        any(PageHighlights.class), eq(200f), eq(200f), eq(200f), eq(200f), eq(isMultiple));
         assertTrue(outputStream.size() > 0, "Output PDF should be generated");
     }
 
+    /**
+     * GIVEN two PDFs of three pages
+     * WHEN comparePDFs is called with a listener
+     * THEN the listener is told the page count and each page number in order.
+     */
+    @Test
+    void testComparePDFs_listenerReceivesProgressInPageOrder() throws Exception {
+        // GIVEN
+        byte[] pdfBytes = generateMinimalPDFBytes(200, 200, 3);
+        ComparisonListener listener = mock(ComparisonListener.class);
+
+        // WHEN
+        comparator.comparePDFs(PdfSource.of(pdfBytes), PdfSource.of(pdfBytes), new ByteArrayOutputStream(), true, listener);
+
+        // THEN
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onStart(3);
+        inOrder.verify(listener).onPageCompared(1);
+        inOrder.verify(listener).onPageCompared(2);
+        inOrder.verify(listener).onPageCompared(3);
+    }
+
     @Test
     void testComparePDFs_whenPageComparatorThrowsIOException_thenRuntimeException() throws Exception {
         // GIVEN: Generate minimal PDF bytes and wrap them in input streams.
@@ -94,7 +146,7 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
         // Stub pageComparator.comparePage to throw IOException when invoked for page 1.
         doThrow(new IOException("Simulated exception")).when(pageComparator)
                 .comparePage(any(PdfReader.class), any(PdfReader.class), eq(1),
-                        any(), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+                        any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
 
         // WHEN & THEN: Expect that comparePDFs throws a RuntimeException wrapping the IOException.
         RuntimeException thrown = assertThrows(RuntimeException.class, () -> {
@@ -105,6 +157,29 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
         assertEquals("Simulated exception", thrown.getCause().getMessage());
     }
 
+    @Test
+    void testComparePDFs_whenPageComparisonFails_thenReadersAreClosed() throws Exception {
+        // GIVEN: sources handing out readers the test can observe, and a failing page comparison.
+        byte[] pdfBytes = generateMinimalPDFBytes();
+        PdfReader reader1 = spy(new PdfReader(pdfBytes));
+        PdfReader reader2 = spy(new PdfReader(pdfBytes));
+        PdfSource source1 = mock(PdfSource.class);
+        PdfSource source2 = mock(PdfSource.class);
+        when(source1.open()).thenReturn(reader1);
+        when(source2.open()).thenReturn(reader2);
+        doThrow(new IOException("Simulated exception")).when(pageComparator)
+                .comparePage(any(PdfReader.class), any(PdfReader.class), eq(1),
+                        any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+
+        // WHEN
+        assertThrows(RuntimeException.class,
+                () -> comparator.comparePDFs(source1, source2, new ByteArrayOutputStream(), true));
+
+        // THEN
+        verify(reader1).close();
+        verify(reader2).close();
+    }
+
     @Test
     void testComparePDFs_pdf1HasTwoPages_pdf2HasOnePage() throws Exception {
         // pdf1 has 2 pages, pdf2 has 1 page => totalPages = 2
@@ -122,7 +197,7 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
             // Page 1: both PDFs have a page => (200, 200, 200, 200)
             verify(pageComparator, times(1))
                     .comparePage(any(PdfReader.class), any(PdfReader.class),
-                            eq(1), any(),
+                            eq(1), any(PageHighlights.class),
                             eq(200f), eq(200f),   // width1, width2
                             eq(200f), eq(200f),   // height1, height2
                             eq(true));
@@ -130,7 +205,7 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
             // Page 2: pdf1 has a page, pdf2 does not => (200, 0, 200, 0)
             verify(pageComparator, times(1))
                     .comparePage(any(PdfReader.class), any(PdfReader.class),
-                            eq(2), any(),
+                            eq(2), any(PageHighlights.class),
                             eq(200f), eq(0f),     // width1=200, width2=0
                             eq(200f), eq(0f),     // height1=200, height2=0
                             eq(true));
@@ -140,6 +215,195 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
     }
 
 
+    /**
+     * GIVEN two 7-page PDFs and a page comparator that highlights a page-specific rectangle
+     * WHEN comparePDFs is called sequentially and with 1 and 4 worker threads
+     * THEN every page is compared once per run and the page content of all outputs is identical.
+     */
+    @Test
+    void testComparePDFs_parallelOutputMatchesSequential() throws Exception {
+        byte[] pdf1Bytes = generateMinimalPDFBytes(200, 200, 7);
+        byte[] pdf2Bytes = generateMinimalPDFBytes(200, 200, 7);
+
+        PDFPageComparator highlightingPageComparator = mock(PDFPageComparator.class);
+        PDFHighlighter highlighter = new PDFHighlighter();
+        doAnswer(invocation -> {
+            int pageNumber = invocation.getArgument(2);
+            PageHighlights highlights = invocation.getArgument(3);
+            highlighter.drawRectangle(highlights, new Rectangle(pageNumber, pageNumber, 50, 60),
+                    com.itextpdf.text.BaseColor.RED, 0);
+            return null;
+        }).when(highlightingPageComparator).comparePage(any(PdfReader.class), any(PdfReader.class), anyInt(),
+                any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+
+        List<List<byte[]>> pageContents = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int parallelism : new int[] {1, 2, 4}) {
+                ComparisonProperties properties = new ComparisonProperties();
+                properties.setParallelism(parallelism);
+                PDFComparator parallelComparator =
+                        new PDFComparator(highlightingPageComparator, documentComparator, pageAligner, rasterComparator,
+                                highlighter, properties, executor, comparisonMetrics);
+
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                parallelComparator.comparePDFs(new ByteArrayInputStream(pdf1Bytes),
+                        new ByteArrayInputStream(pdf2Bytes), outputStream, true);
+                pageContents.add(readPageContents(outputStream.toByteArray()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(highlightingPageComparator, times(21)).comparePage(any(PdfReader.class), any(PdfReader.class),
+                anyInt(), any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+        assertEquals(7, pageContents.get(0).size());
+        for (List<byte[]> contents : pageContents) {
+            for (int page = 0; page < contents.size(); page++) {
+                assertArrayEquals(pageContents.get(0).get(page), contents.get(page),
+                        "Page " + (page + 1) + " should not depend on the thread count");
+            }
+        }
+    }
+
+    @Test
+    void testComparePDFs_parallel_whenPageComparatorThrowsIOException_thenRuntimeException() throws Exception {
+        byte[] pdfBytes = generateMinimalPDFBytes(200, 200, 3);
+        doThrow(new IOException("Simulated exception")).when(pageComparator)
+                .comparePage(any(PdfReader.class), any(PdfReader.class), eq(2),
+                        any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setParallelism(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PDFComparator parallelComparator = new PDFComparator(pageComparator, documentComparator, pageAligner,
+                    rasterComparator, pdfHighlighter, properties, executor, comparisonMetrics);
+            RuntimeException thrown = assertThrows(RuntimeException.class, () ->
+                    parallelComparator.comparePDFs(new ByteArrayInputStream(pdfBytes),
+                            new ByteArrayInputStream(pdfBytes), new ByteArrayOutputStream(), true));
+            assertInstanceOf(IOException.class, thrown.getCause());
+            assertEquals("Simulated exception", thrown.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testComparePDFs_parallel_whenPageComparatorThrowsError_thenErrorIsRethrown() throws Exception {
+        byte[] pdfBytes = generateMinimalPDFBytes(200, 200, 4);
+        doThrow(new StackOverflowError("Simulated error")).when(pageComparator)
+                .comparePage(any(PdfReader.class), any(PdfReader.class), eq(2),
+                        any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setParallelism(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            PDFComparator parallelComparator = new PDFComparator(pageComparator, documentComparator, pageAligner,
+                    rasterComparator, pdfHighlighter, properties, executor, comparisonMetrics);
+            // The pages after the failed one are never compared, but the writer must not wait for them.
+            StackOverflowError thrown = assertTimeoutPreemptively(Duration.ofSeconds(10), () ->
+                    assertThrows(StackOverflowError.class, () ->
+                            parallelComparator.comparePDFs(new ByteArrayInputStream(pdfBytes),
+                                    new ByteArrayInputStream(pdfBytes), new ByteArrayOutputStream(), true)));
+            assertEquals("Simulated error", thrown.getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * GIVEN a two-page and a three-page PDF, the DOCUMENT text diff scope and 2 worker threads
+     * WHEN comparePDFs is called
+     * THEN both documents are compared as a whole on the calling thread, no page is compared
+     *      on its own, and the highlights of each page are rendered.
+     */
+    @Test
+    void testComparePDFs_documentScope_thenDocumentsAreComparedAsAWhole() throws Exception {
+        // GIVEN
+        byte[] pdf1Bytes = generateMinimalPDFBytes(200, 200, 2);
+        byte[] pdf2Bytes = generateMinimalPDFBytes(300, 200, 3);
+        when(comparisonProperties.getTextDiffScope()).thenReturn(ComparisonProperties.TextDiffScope.DOCUMENT);
+        when(comparisonProperties.getParallelism()).thenReturn(2);
+        List<PageHighlights> documentHighlights = List.of(new PageHighlights(), new PageHighlights(), new PageHighlights());
+        when(documentComparator.compareDocuments(any(PdfReader.class), any(PdfReader.class), eq(true)))
+                .thenReturn(documentHighlights);
+
+        // WHEN
+        comparator.comparePDFs(new ByteArrayInputStream(pdf1Bytes), new ByteArrayInputStream(pdf2Bytes),
+                new ByteArrayOutputStream(), true);
+
+        // THEN
+        verify(documentComparator, times(1)).compareDocuments(any(PdfReader.class), any(PdfReader.class), eq(true));
+        verifyNoInteractions(pageComparator, pageComparisonExecutor);
+        for (PageHighlights highlights : documentHighlights) {
+            verify(pdfHighlighter).render(any(), same(highlights));
+        }
+    }
+
+    /**
+     * GIVEN a two-page and a three-page PDF whose aligned pages put an inserted page second
+     * WHEN comparePDFs is called with page alignment enabled
+     * THEN each output page compares its aligned pair, the inserted page is highlighted as a
+     *      whole, and the listener counts the aligned pages.
+     */
+    @Test
+    void testComparePDFs_alignPages_thenAlignedPairsAreCompared() throws Exception {
+        // GIVEN
+        byte[] pdf1Bytes = generateMinimalPDFBytes(200, 200, 2);
+        byte[] pdf2Bytes = generateMinimalPDFBytes(300, 250, 3);
+        when(comparisonProperties.isAlignPages()).thenReturn(true);
+        when(comparisonProperties.getParallelism()).thenReturn(1);
+        when(pageAligner.align(any(PdfReader.class), any(PdfReader.class))).thenReturn(List.of(
+                new PageAligner.PagePair(1, 1), new PageAligner.PagePair(0, 2), new PageAligner.PagePair(2, 3)));
+        ComparisonListener listener = mock(ComparisonListener.class);
+
+        // WHEN
+        comparator.comparePDFs(PdfSource.of(pdf1Bytes), PdfSource.of(pdf2Bytes), new ByteArrayOutputStream(), true,
+                listener);
+
+        // THEN
+        verify(listener).onStart(3);
+        verify(pageComparator).comparePages(any(PdfReader.class), eq(1), any(PdfReader.class), eq(1),
+                any(PageHighlights.class), eq(200f), eq(true));
+        verify(pageComparator).highlightInsertedPage(any(PageHighlights.class), eq(0f), eq(300f), eq(250f), eq(true));
+        verify(pageComparator).comparePages(any(PdfReader.class), eq(2), any(PdfReader.class), eq(3),
+                any(PageHighlights.class), eq(200f), eq(true));
+        verify(pageComparator, never()).comparePage(any(PdfReader.class), any(PdfReader.class), anyInt(),
+                any(PageHighlights.class), anyFloat(), anyFloat(), anyFloat(), anyFloat(), anyBoolean());
+    }
+
+    /**
+     * GIVEN a two-page and a three-page PDF and the RASTER diff mode
+     * WHEN comparePDFs is called
+     * THEN the pages both documents have are rendered and compared, and the extra page is
+     *      highlighted as before without being rendered.
+     */
+    @Test
+    void testComparePDFs_rasterMode_thenSharedPagesAreComparedByRendering() throws Exception {
+        // GIVEN
+        byte[] pdf1Bytes = generateMinimalPDFBytes(200, 200, 2);
+        byte[] pdf2Bytes = generateMinimalPDFBytes(300, 250, 3);
+        when(comparisonProperties.getDiffMode()).thenReturn(ComparisonProperties.DiffMode.RASTER);
+        when(comparisonProperties.getTextDiffScope()).thenReturn(ComparisonProperties.TextDiffScope.DOCUMENT);
+        when(comparisonProperties.getParallelism()).thenReturn(1);
+
+        // WHEN
+        comparator.comparePDFs(PdfSource.of(pdf1Bytes), PdfSource.of(pdf2Bytes), new ByteArrayOutputStream(), true);
+
+        // THEN
+        for (int page = 1; page <= 2; page++) {
+            verify(rasterComparator).comparePages(any(PdfReader.class), any(PDDocument.class), eq(page),
+                    any(PdfReader.class), any(PDDocument.class), eq(page), any(PageHighlights.class), eq(200f),
+                    eq(true));
+        }
+        verify(pageComparator).comparePage(any(PdfReader.class), any(PdfReader.class), eq(3),
+                any(PageHighlights.class), eq(0f), eq(300f), eq(0f), eq(250f), eq(true));
+        verifyNoMoreInteractions(pageComparator);
+        verifyNoInteractions(documentComparator);
+    }
+
     // ------------------------------------------------------------------------
     // Helper Methods
     // ------------------------------------------------------------------------
@@ -179,6 +443,22 @@ class PDFComparatorTest extends AbstractBaseServiceTest {
     }
 
 
+    /**
+     * Reads the decoded content stream of every page of a generated PDF.
+     */
+    private List<byte[]> readPageContents(byte[] pdfBytes) throws IOException {
+        PdfReader reader = new PdfReader(pdfBytes);
+        try {
+            List<byte[]> contents = new ArrayList<>();
+            for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                contents.add(reader.getPageContent(page));
+            }
+            return contents;
+        } finally {
+            reader.close();
+        }
+    }
+
     /**
      * Generate an "empty" PDF that has 0 pages.
      * This can be done by opening and closing a Document without adding any pages.
@@ -1,16 +1,29 @@
 package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
 import com.itextpdf.text.pdf.PdfContentByte;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Phrase;
 import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.ColumnText;
 import com.itextpdf.text.pdf.PdfGState;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -87,4 +100,170 @@ class PDFHighlighterTest extends AbstractBaseServiceTest {
         inOrder.verify(cb).restoreState();
     }
 
-}
\ No newline at end of file
+    @Test
+    void testRecordAndRender() {
+        // GIVEN: a page-level and a word-level highlight recorded for a page.
+        PageHighlights highlights = new PageHighlights();
+        Rectangle pageRect = new Rectangle(0, 0, 200, 300);
+        Rectangle wordRect = new Rectangle(5, 15, 50, 60);
+        pdfHighlighter.highlightEntirePage(highlights, pageRect, BaseColor.GREEN, 0f);
+        pdfHighlighter.highlightRectangle(highlights, wordRect, BaseColor.RED, 20f);
+
+        // THEN: nothing is drawn while recording.
+        verifyNoInteractions(cb);
+        assertEquals(2, highlights.getHighlights().size());
+        assertEquals(PDFHighlighter.ENTIRE_PAGE_OPACITY, highlights.getHighlights().get(0).opacity());
+        assertEquals(PDFHighlighter.RECTANGLE_OPACITY, highlights.getHighlights().get(1).opacity());
+
+        // WHEN: the page highlights are rendered.
+        pdfHighlighter.render(cb, highlights);
+
+        // THEN: they are replayed in recording order.
+        InOrder inOrder = inOrder(cb);
+        inOrder.verify(cb).saveState();
+        inOrder.verify(cb).setColorFill(eq(BaseColor.GREEN));
+        inOrder.verify(cb).rectangle(eq(0f), eq(0f), eq(200f), eq(300f));
+        inOrder.verify(cb).fill();
+        inOrder.verify(cb).restoreState();
+        inOrder.verify(cb).saveState();
+        inOrder.verify(cb).setColorFill(eq(BaseColor.RED));
+        inOrder.verify(cb).rectangle(eq(25f), eq(15f), eq(45f), eq(45f));
+        inOrder.verify(cb).fill();
+        inOrder.verify(cb).restoreState();
+    }
+
+    @Test
+    void testDrawWord_thenRecordsTheWordBounds() {
+        // GIVEN
+        PageHighlights highlights = new PageHighlights();
+        PageText words = PageText.builder()
+                .add("Hello", new Rectangle(0, 0, 10, 10))
+                .add("World", new Rectangle(5, 15, 50, 60))
+                .build();
+
+        // WHEN
+        pdfHighlighter.drawWord(highlights, words, 1, BaseColor.RED, 20f);
+
+        // THEN
+        assertEquals(1, highlights.getHighlights().size());
+        Rectangle recorded = highlights.getHighlights().get(0).rectangle();
+        assertEquals(5f, recorded.getLeft());
+        assertEquals(15f, recorded.getBottom());
+        assertEquals(50f, recorded.getRight());
+        assertEquals(60f, recorded.getTop());
+        assertEquals(20f, highlights.getHighlights().get(0).xOffset());
+        assertEquals(PDFHighlighter.RECTANGLE_OPACITY, highlights.getHighlights().get(0).opacity());
+    }
+
+    @Test
+    void testRender_sameStyleHighlights_filledAsOnePathWithOneGraphicsState() {
+        // GIVEN: three changed words on one line, one on the next line, all in the same style,
+        // and a word in another colour in between.
+        PageHighlights highlights = new PageHighlights();
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(0, 100, 20, 110), BaseColor.GREEN, 0f);
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(23, 100, 40, 110), BaseColor.GREEN, 0f);
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(0, 50, 30, 60), BaseColor.RED, 0f);
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(43, 100, 60, 110), BaseColor.GREEN, 0f);
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(0, 88, 20, 98), BaseColor.GREEN, 0f);
+
+        // WHEN
+        pdfHighlighter.render(cb, highlights);
+
+        // THEN: one batch per colour, the words of the first line joined into one rectangle.
+        ArgumentCaptor<PdfGState> graphicsStates = ArgumentCaptor.forClass(PdfGState.class);
+        verify(cb, times(2)).saveState();
+        verify(cb, times(2)).setGState(graphicsStates.capture());
+        verify(cb, times(2)).fill();
+        assertSame(graphicsStates.getAllValues().get(0), graphicsStates.getAllValues().get(1));
+        InOrder inOrder = inOrder(cb);
+        inOrder.verify(cb).setColorFill(eq(BaseColor.GREEN));
+        inOrder.verify(cb).rectangle(eq(0f), eq(88f), eq(20f), eq(10f));
+        inOrder.verify(cb).rectangle(eq(0f), eq(100f), eq(60f), eq(10f));
+        inOrder.verify(cb).fill();
+        inOrder.verify(cb).setColorFill(eq(BaseColor.RED));
+        inOrder.verify(cb).rectangle(eq(0f), eq(50f), eq(30f), eq(10f));
+        inOrder.verify(cb).fill();
+        verify(cb, times(3)).rectangle(anyFloat(), anyFloat(), anyFloat(), anyFloat());
+    }
+
+    @Test
+    void testRender_boxesOfRotatedText_drawnWithNormalizedCorners() {
+        // GIVEN: word boxes as extracted from text set at 270 degrees, with the bottom above the
+        // top, and at 180 degrees, with both corners swapped.
+        PageHighlights highlights = new PageHighlights();
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(100, 700, 112, 670), BaseColor.GREEN, 0f);
+        pdfHighlighter.drawRectangle(highlights, new Rectangle(60, 110, 20, 100), BaseColor.GREEN, 200f);
+
+        // WHEN
+        pdfHighlighter.render(cb, highlights);
+
+        // THEN: both are filled, with positive sizes.
+        verify(cb).rectangle(eq(100f), eq(670f), eq(12f), eq(30f));
+        verify(cb).rectangle(eq(220f), eq(100f), eq(40f), eq(10f));
+        verify(cb, times(2)).rectangle(anyFloat(), anyFloat(), anyFloat(), anyFloat());
+    }
+
+    @Test
+    void testRender_wordsExtractedFromTextAt270Degrees_filled() throws Exception {
+        // GIVEN: the boxes of words drawn at 270 degrees, as PDFTextExtractor extracts them
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(PageSize.A4);
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        document.open();
+        ColumnText.showTextAligned(writer.getDirectContent(), Element.ALIGN_LEFT, new Phrase("alpha beta gamma"),
+                100, 700, 270);
+        document.close();
+        PageText words = new PDFTextExtractor().extractWords(new PdfReader(baos.toByteArray()), 1);
+        PageHighlights highlights = new PageHighlights();
+        for (int i = 0; i < words.size(); i++) {
+            pdfHighlighter.drawWord(highlights, words, i, BaseColor.GREEN, 0f);
+        }
+
+        // WHEN
+        pdfHighlighter.render(cb, highlights);
+
+        // THEN: every word is covered by a rectangle of positive size.
+        ArgumentCaptor<Float> lefts = ArgumentCaptor.forClass(Float.class);
+        ArgumentCaptor<Float> bottoms = ArgumentCaptor.forClass(Float.class);
+        ArgumentCaptor<Float> widths = ArgumentCaptor.forClass(Float.class);
+        ArgumentCaptor<Float> heights = ArgumentCaptor.forClass(Float.class);
+        verify(cb, atLeastOnce()).rectangle(lefts.capture(), bottoms.capture(), widths.capture(), heights.capture());
+        assertEquals(3, words.size());
+        for (int i = 0; i < widths.getAllValues().size(); i++) {
+            assertTrue(widths.getAllValues().get(i) > 0 && heights.getAllValues().get(i) > 0);
+        }
+        float covered = 0;
+        for (int i = 0; i < heights.getAllValues().size(); i++) {
+            covered += heights.getAllValues().get(i);
+        }
+        float extent = 0;
+        for (int i = 0; i < words.size(); i++) {
+            extent += Math.abs(words.top(i) - words.bottom(i));
+        }
+        assertEquals(extent, covered, 0.01f);
+    }
+
+    @Test
+    void testJoinLines_onlyNearbyBoxesOfTheSameLineAreJoined() {
+        // GIVEN: overlapping and nearby boxes on one line, a distant one on the same line,
+        // and a box at the same height but with a different top.
+        List<Rectangle> boxes = List.of(
+                new Rectangle(0, 0, 10, 10),
+                new Rectangle(8, 0, 20, 10),
+                new Rectangle(24, 0, 30, 10),
+                new Rectangle(50, 0, 60, 10),
+                new Rectangle(0, 0, 10, 12));
+
+        // WHEN
+        List<Rectangle> joined = PDFHighlighter.joinLines(boxes);
+
+        // THEN
+        assertEquals(3, joined.size());
+        assertEquals(List.of(0f, 30f, 50f, 60f, 0f, 10f), List.of(
+                joined.get(0).getLeft(), joined.get(0).getRight(),
+                joined.get(1).getLeft(), joined.get(1).getRight(),
+                joined.get(2).getLeft(), joined.get(2).getRight()));
+        assertEquals(12f, joined.get(2).getTop());
+    }
+
+}
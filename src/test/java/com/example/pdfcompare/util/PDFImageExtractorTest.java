@@ -1,19 +1,28 @@
 package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.config.ComparisonProperties.ImageHashSource;
+import com.example.pdfcompare.config.ComparisonProperties.ImageMatching;
 import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
 import com.itextpdf.text.pdf.parser.*;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Image;
 import com.itextpdf.text.Rectangle;
 import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedConstruction;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -23,8 +32,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class PDFImageExtractorTest extends AbstractBaseServiceTest {
 
-    @InjectMocks
-    private PDFImageExtractor extractor;
+    private final PDFImageExtractor extractor = new PDFImageExtractor(HashUtilityClass::murmur3x128, new ComparisonProperties());
 
     @Mock
     private ImageRenderInfo mockImageRenderInfo;
@@ -42,8 +50,7 @@ class PDFImageExtractorTest extends AbstractBaseServiceTest {
     void testExtractImages_ImageNotNull() throws Exception {
         // Arrange: Prepare a dummy byte array and compute the expected hash.
         byte[] dummyBytes = new byte[] {1, 2, 3};
-        String expectedHash = HashUtilityClass.hashBytes(dummyBytes);
-        String expectedImageChunkIdentifier = "image:" + expectedHash;
+        ImageHash expectedHash = HashUtilityClass.murmur3x128(dummyBytes, 0, dummyBytes.length);
 
                 // Create a dummy PdfImageObject and stub its behavior.
         PdfImageObject dummyImage = mock(PdfImageObject.class);
@@ -77,7 +84,7 @@ class PDFImageExtractorTest extends AbstractBaseServiceTest {
             assertNotNull(result, "Result should not be null.");
             assertEquals(1, result.size(), "Expected one image chunk.");
             ImageChunk chunk = result.get(0);
-            assertEquals(expectedImageChunkIdentifier, chunk.getIdentifier(), "Image hash should match expected.");
+            assertEquals(expectedHash, chunk.imageHash(), "Image hash should match expected.");
             // With identity matrix, corners become: (0,0,1), (0,1,1), (1,1,1), (1,0,1) so rectangle is (0, 0, 1, 1)
             Rectangle rect = chunk.rectangle();
             assertEquals(0, rect.getLeft(), 0.001, "Left should be 0");
@@ -130,4 +137,112 @@ class PDFImageExtractorTest extends AbstractBaseServiceTest {
         verify(mockImageRenderInfo, times(1)).getImage();
     }
 
-}
\ No newline at end of file
+    /**
+     * GIVEN an image XObject placed on both pages of a document, and the same document read twice
+     * WHEN images are extracted with raw stream hashing
+     * THEN every placement has the same hash, across documents too, and the stream is hashed once per document.
+     */
+    @Test
+    void testExtractImages_rawStream_sharedImageHashedOncePerDocument() throws Exception {
+        // GIVEN
+        AtomicInteger hashed = new AtomicInteger();
+        PDFImageExtractor rawExtractor = new PDFImageExtractor((data, offset, length) -> {
+            hashed.incrementAndGet();
+            return HashUtilityClass.murmur3x128(data, offset, length);
+        }, rawStreamProperties());
+        byte[] pdf = pdfWithLogo(Image.getInstance(2, 2, 3, 8, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}), 2);
+        PdfReader reader1 = new PdfReader(pdf);
+        PdfReader reader2 = new PdfReader(pdf);
+
+        // WHEN
+        List<ImageChunk> page1 = rawExtractor.extractImages(reader1, 1);
+        int hashedForFirstPlacement = hashed.get();
+        List<ImageChunk> page2 = rawExtractor.extractImages(reader1, 2);
+        List<ImageChunk> otherDocument = rawExtractor.extractImages(reader2, 1);
+
+        // THEN
+        assertEquals(1, page1.size());
+        assertEquals(page1.get(0).imageHash(), page2.get(0).imageHash());
+        assertEquals(page1.get(0).imageHash(), otherDocument.get(0).imageHash());
+        assertEquals(hashedForFirstPlacement, hashed.get() - hashedForFirstPlacement,
+                "The second page should be served from the memo, the other document hashed again");
+    }
+
+    /**
+     * GIVEN two images with different pixels
+     * WHEN they are hashed from their raw streams
+     * THEN their hashes differ.
+     */
+    @Test
+    void testExtractImages_rawStream_differentPixelsDiffer() throws Exception {
+        // GIVEN
+        PDFImageExtractor rawExtractor = new PDFImageExtractor(HashUtilityClass::murmur3x128, rawStreamProperties());
+        PdfReader reader1 = new PdfReader(pdfWithLogo(Image.getInstance(1, 1, 3, 8, new byte[]{1, 2, 3}), 1));
+        PdfReader reader2 = new PdfReader(pdfWithLogo(Image.getInstance(1, 1, 3, 8, new byte[]{1, 2, 4}), 1));
+
+        // WHEN
+        ImageHash hash1 = rawExtractor.extractImages(reader1, 1).get(0).imageHash();
+        ImageHash hash2 = rawExtractor.extractImages(reader2, 1).get(0).imageHash();
+
+        // THEN
+        assertNotEquals(hash1, hash2);
+    }
+
+    /**
+     * GIVEN the same picture embedded once as raw pixels and once as a JPEG
+     * WHEN images are extracted with perceptual matching
+     * THEN their fingerprints differ but their perceptual hashes are within the default threshold.
+     */
+    @Test
+    void testExtractImages_perceptual_reencodedImageHashesClose() throws Exception {
+        // GIVEN
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setImageMatching(ImageMatching.PERCEPTUAL);
+        PDFImageExtractor perceptualExtractor = new PDFImageExtractor(HashUtilityClass::murmur3x128, properties);
+        BufferedImage picture = PerceptualHashTest.scene(120, 80, false);
+        byte[] pixels = new byte[120 * 80 * 3];
+        for (int y = 0, i = 0; y < 80; y++) {
+            for (int x = 0; x < 120; x++) {
+                int rgb = picture.getRGB(x, y);
+                pixels[i++] = (byte) (rgb >> 16);
+                pixels[i++] = (byte) (rgb >> 8);
+                pixels[i++] = (byte) rgb;
+            }
+        }
+        PdfReader raw = new PdfReader(pdfWithLogo(Image.getInstance(120, 80, 3, 8, pixels), 1));
+        PdfReader jpeg = new PdfReader(pdfWithLogo(Image.getInstance(PerceptualHashTest.jpeg(picture)), 1));
+
+        // WHEN
+        ImageChunk image1 = perceptualExtractor.extractImages(raw, 1).get(0);
+        ImageChunk image2 = perceptualExtractor.extractImages(jpeg, 1).get(0);
+
+        // THEN
+        assertNotEquals(image1.imageHash(), image2.imageHash());
+        assertNotNull(image1.perceptualHash());
+        assertNotNull(image2.perceptualHash());
+        assertTrue(PerceptualHash.distance(image1.perceptualHash(), image2.perceptualHash())
+                <= properties.getPerceptualHashThreshold());
+    }
+
+    private static ComparisonProperties rawStreamProperties() {
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setImageHashSource(ImageHashSource.RAW_STREAM);
+        return properties;
+    }
+
+    private static byte[] pdfWithLogo(Image logo, int pages) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(0, 0, 100, 100));
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int i = 0; i < pages; i++) {
+            if (i > 0) {
+                document.newPage();
+            }
+            document.add(logo);
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+}
@@ -2,10 +2,12 @@ package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
 import com.example.pdfcompare.model.ImageChunk;
-import com.example.pdfcompare.model.TextChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfReader;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -33,13 +35,19 @@ class PDFPageComparatorTest extends AbstractBaseServiceTest {
     private PDFHighlighter pdfHighlighter;
 
     @Mock
-    private PDFTextExtractor pdfTextExtractor;
+    private PDFPageContentExtractor pdfPageContentExtractor;
 
     @Mock
-    private PDFImageExtractor pdfImageExtractor;
+    private PageHasher pageHasher;
 
     @Mock
-    private PdfContentByte cb;
+    private PageContentCache pageContentCache;
+
+    @Mock
+    private ComparisonMetrics comparisonMetrics;
+
+    @Mock
+    private PageHighlights highlights;
 
     @Mock
     private PdfReader reader1;
@@ -67,12 +75,12 @@ class PDFPageComparatorTest extends AbstractBaseServiceTest {
         when(reader2.getNumberOfPages()).thenReturn(3);
 
         // Act
-        comparator.comparePage(reader1, reader2, pageNum, cb, width1, width2, height1, height2, isMultiple);
+        comparator.comparePage(reader1, reader2, pageNum, highlights, width1, width2, height1, height2, isMultiple);
 
         // Assert
         Rectangle expectedRect = new Rectangle(0, 0, width2, height2);
-        verify(pdfHighlighter, atLeastOnce()).highlightEntirePage(eq(cb), eq(expectedRect), eq(BaseColor.GREEN), eq(width1));
-        verifyNoInteractions(textComparator, imageComparator, pdfTextExtractor, pdfImageExtractor);
+        verify(pdfHighlighter, atLeastOnce()).highlightEntirePage(eq(highlights), eq(expectedRect), eq(BaseColor.GREEN), eq(width1));
+        verifyNoInteractions(textComparator, imageComparator, pdfPageContentExtractor);
     }
 
     /**
@@ -95,20 +103,20 @@ class PDFPageComparatorTest extends AbstractBaseServiceTest {
         when(reader2.getNumberOfPages()).thenReturn(2);
 
         // Act
-        comparator.comparePage(reader1, reader2, pageNum, cb, width1, width2, height1, height2, isMultiple);
+        comparator.comparePage(reader1, reader2, pageNum, highlights, width1, width2, height1, height2, isMultiple);
 
         // Assert
         Rectangle expectedRect = new Rectangle(0, 0, width1, height1);
-        verify(pdfHighlighter, atLeastOnce()).highlightEntirePage(eq(cb), eq(expectedRect), eq(BaseColor.RED), eq(0f));
-        verifyNoInteractions(textComparator, imageComparator, pdfTextExtractor, pdfImageExtractor);
+        verify(pdfHighlighter, atLeastOnce()).highlightEntirePage(eq(highlights), eq(expectedRect), eq(BaseColor.RED), eq(0f));
+        verifyNoInteractions(textComparator, imageComparator, pdfPageContentExtractor);
     }
 
     /**
      * GIVEN: pageNum is within both readers' page count.
      * WHEN:  comparePage(...) is invoked.
-     * THEN:  pdfTextExtractor.extractWords(...) is called on both readers,
+     * THEN:  pdfPageContentExtractor.extractPage(...) is called once on both readers,
      *        textComparator.compareText(...) is called with the extracted text,
-     *        and pdfImageExtractor.extractImages(...) and imageComparator.compareImages(...) are called.
+     *        and imageComparator.compareImages(...) is called with the extracted images.
      */
     @Test
     void testComparePage_BothPagesExist() throws IOException {
@@ -123,26 +131,24 @@ class PDFPageComparatorTest extends AbstractBaseServiceTest {
         when(reader2.getNumberOfPages()).thenReturn(3);
 
         // Prepare dummy lists for text and images.
-        List<TextChunk> dummyWords1 = List.of(new TextChunk("Hello", new Rectangle(0, 0, 50, 10)));
-        List<TextChunk> dummyWords2 = List.of(new TextChunk("Hello", new Rectangle(0, 0, 50, 10)));
-        when(pdfTextExtractor.extractWords(reader1, pageNum)).thenReturn(dummyWords1);
-        when(pdfTextExtractor.extractWords(reader2, pageNum)).thenReturn(dummyWords2);
+        PageText dummyWords1 = PageText.builder().add("Hello", new Rectangle(0, 0, 50, 10)).build();
+        PageText dummyWords2 = PageText.builder().add("Hello", new Rectangle(0, 0, 50, 10)).build();
 
-        List<ImageChunk> dummyImages1 = List.of(new ImageChunk("image:hash1", new Rectangle(0, 0, 60, 20)));
-        List<ImageChunk> dummyImages2 = List.of(new ImageChunk("image:hash1", new Rectangle(0, 0, 60, 20)));
-        when(pdfImageExtractor.extractImages(reader1, pageNum)).thenReturn(dummyImages1);
-        when(pdfImageExtractor.extractImages(reader2, pageNum)).thenReturn(dummyImages2);
+        List<ImageChunk> dummyImages1 = List.of(new ImageChunk(new ImageHash(1, 1), new Rectangle(0, 0, 60, 20)));
+        List<ImageChunk> dummyImages2 = List.of(new ImageChunk(new ImageHash(1, 1), new Rectangle(0, 0, 60, 20)));
+        when(pdfPageContentExtractor.extractPage(reader1, pageNum)).thenReturn(new PageContent(dummyWords1, dummyImages1));
+        when(pdfPageContentExtractor.extractPage(reader2, pageNum)).thenReturn(new PageContent(dummyWords2, dummyImages2));
 
         // Act
-        comparator.comparePage(reader1, reader2, pageNum, cb, width1, width2, height1, height2, isMultiple);
+        comparator.comparePage(reader1, reader2, pageNum, highlights, width1, width2, height1, height2, isMultiple);
 
         // Assert
         // Verify that textComparator.compareText was called with the extracted words.
-        verify(textComparator, times(1)).compareText(cb, dummyWords1, dummyWords2, width1, isMultiple);
+        verify(textComparator, times(1)).compareText(highlights, dummyWords1, dummyWords2, width1, isMultiple);
         // Verify that imageComparator.compareImages was called with the extracted images.
-        verify(imageComparator, times(1)).compareImages(cb, dummyImages1, dummyImages2, width1, isMultiple);
+        verify(imageComparator, times(1)).compareImages(highlights, dummyImages1, dummyImages2, width1, isMultiple);
         // Ensure that no highlighting of the entire page occurred in this branch.
-        verify(pdfHighlighter, never()).highlightEntirePage(any(), any(), any(), anyFloat());
+        verify(pdfHighlighter, never()).highlightEntirePage(any(PageHighlights.class), any(), any(), anyFloat());
     }
 
     // ------------------------------------------------------------------------
@@ -165,14 +171,14 @@ class PDFPageComparatorTest extends AbstractBaseServiceTest {
         when(reader2.getNumberOfPages()).thenReturn(3);
 
         // Act
-        comparator.comparePage(reader1, reader2, pageNum, cb, width1, width2, height1, height2, isMultiple);
+        comparator.comparePage(reader1, reader2, pageNum, highlights, width1, width2, height1, height2, isMultiple);
 
         // Assert
         // Expect highlightEntirePage in GREEN with offset=0 (since isMultiple=false)
         Rectangle expectedRect = new Rectangle(0, 0, width2, height2);
-        verify(pdfHighlighter).highlightEntirePage(eq(cb), eq(expectedRect), eq(BaseColor.GREEN), eq(0f));
+        verify(pdfHighlighter).highlightEntirePage(eq(highlights), eq(expectedRect), eq(BaseColor.GREEN), eq(0f));
         // No text/image extraction or comparison should occur
-        verifyNoInteractions(textComparator, imageComparator, pdfTextExtractor, pdfImageExtractor);
+        verifyNoInteractions(textComparator, imageComparator, pdfPageContentExtractor);
     }
 
     // ------------------------------------------------------------------------
@@ -197,33 +203,154 @@ class PDFPageComparatorTest extends AbstractBaseServiceTest {
         when(reader2.getNumberOfPages()).thenReturn(2);
 
         // Prepare dummy lists for text and images
-        List<TextChunk> dummyWords1 = List.of(new TextChunk("Hello", new Rectangle(0, 0, 50, 10)));
-        List<TextChunk> dummyWords2 = List.of(); // Suppose pdf2 has fewer words or none
-        when(pdfTextExtractor.extractWords(reader1, pageNum)).thenReturn(dummyWords1);
-        when(pdfTextExtractor.extractWords(reader2, pageNum)).thenReturn(dummyWords2);
+        PageText dummyWords1 = PageText.builder().add("Hello", new Rectangle(0, 0, 50, 10)).build();
+        PageText dummyWords2 = PageText.EMPTY; // Suppose pdf2 has fewer words or none
 
-        List<ImageChunk> dummyImages1 = List.of(new ImageChunk("image:hash1", new Rectangle(0, 0, 60, 20)));
+        List<ImageChunk> dummyImages1 = List.of(new ImageChunk(new ImageHash(1, 1), new Rectangle(0, 0, 60, 20)));
         List<ImageChunk> dummyImages2 = List.of();
-        when(pdfImageExtractor.extractImages(reader1, pageNum)).thenReturn(dummyImages1);
-        when(pdfImageExtractor.extractImages(reader2, pageNum)).thenReturn(dummyImages2);
+        when(pdfPageContentExtractor.extractPage(reader1, pageNum)).thenReturn(new PageContent(dummyWords1, dummyImages1));
+        when(pdfPageContentExtractor.extractPage(reader2, pageNum)).thenReturn(new PageContent(dummyWords2, dummyImages2));
 
         // Act
-        comparator.comparePage(reader1, reader2, pageNum, cb, width1, width2, height1, height2, isMultiple);
+        comparator.comparePage(reader1, reader2, pageNum, highlights, width1, width2, height1, height2, isMultiple);
 
         // Assert
         // Since the second if-condition requires isMultiple=true to highlight in red,
         // and we have isMultiple=false, we expect text & image comparisons in the else block:
-        verify(pdfTextExtractor).extractWords(reader1, pageNum);
-        verify(pdfTextExtractor).extractWords(reader2, pageNum);
-        verify(textComparator).compareText(cb, dummyWords1, dummyWords2, width1, false);
-
-        verify(pdfImageExtractor).extractImages(reader1, pageNum);
-        verify(pdfImageExtractor).extractImages(reader2, pageNum);
-        verify(imageComparator).compareImages(cb, dummyImages1, dummyImages2, width1, false);
+        verify(pdfPageContentExtractor).extractPage(reader1, pageNum);
+        verify(pdfPageContentExtractor).extractPage(reader2, pageNum);
+        verify(textComparator).compareText(highlights, dummyWords1, dummyWords2, width1, false);
+        verify(imageComparator).compareImages(highlights, dummyImages1, dummyImages2, width1, false);
 
         // Ensure no "entire page" highlighting
-        verify(pdfHighlighter, never()).highlightEntirePage(any(), any(), any(), anyFloat());
+        verify(pdfHighlighter, never()).highlightEntirePage(any(PageHighlights.class), any(), any(), anyFloat());
     }
 
+    /**
+     * GIVEN: both pages exist and hash to the same value.
+     * WHEN:  comparePage(...) is invoked.
+     * THEN:  neither page is extracted and nothing is highlighted.
+     */
+    @Test
+    void testComparePage_IdenticalPages_Skipped() throws IOException {
+        // Arrange
+        when(reader1.getNumberOfPages()).thenReturn(1);
+        when(reader2.getNumberOfPages()).thenReturn(1);
+        when(pageHasher.hashPage(reader1, 1)).thenReturn("same");
+        when(pageHasher.hashPage(reader2, 1)).thenReturn("same");
+
+        // Act
+        comparator.comparePage(reader1, reader2, 1, highlights, 100f, 100f, 100f, 100f, true);
+
+        // Assert
+        verifyNoInteractions(pdfPageContentExtractor, pageContentCache, textComparator, imageComparator, pdfHighlighter);
+        verify(comparisonMetrics).recordPage(ComparisonMetrics.PageResult.IDENTICAL);
+    }
+
+    /**
+     * GIVEN: the first page is in the page content cache and the second is not.
+     * WHEN:  comparePage(...) is invoked.
+     * THEN:  only the second page is extracted, and it is added to the cache.
+     */
+    @Test
+    void testComparePage_CachedPage_NotExtractedAgain() throws IOException {
+        // Arrange
+        when(reader1.getNumberOfPages()).thenReturn(1);
+        when(reader2.getNumberOfPages()).thenReturn(1);
+        when(pageHasher.hashPage(reader1, 1)).thenReturn("hash1");
+        when(pageHasher.hashPage(reader2, 1)).thenReturn("hash2");
+        PageContent cached = new PageContent(PageText.builder().add("Old", new Rectangle(0, 0, 10, 10)).build(), List.of());
+        PageContent extracted = new PageContent(PageText.builder().add("New", new Rectangle(0, 0, 10, 10)).build(), List.of());
+        when(pageContentCache.get("hash1")).thenReturn(cached);
+        when(pdfPageContentExtractor.extractPage(reader2, 1)).thenReturn(extracted);
+
+        // Act
+        comparator.comparePage(reader1, reader2, 1, highlights, 100f, 100f, 100f, 100f, true);
+
+        // Assert
+        verify(pdfPageContentExtractor, never()).extractPage(reader1, 1);
+        verify(pageContentCache).put("hash2", extracted);
+        verify(textComparator).compareText(highlights, cached.words(), extracted.words(), 100f, true);
+        verify(comparisonMetrics).recordStage(eq(ComparisonMetrics.Stage.TEXT_DIFF), anyLong());
+        verify(comparisonMetrics).recordPage(ComparisonMetrics.PageResult.COMPARED);
+    }
+
+    /**
+     * GIVEN: page 2 of the first document aligned with page 3 of the second.
+     * WHEN:  comparePages(...) is invoked.
+     * THEN:  each document's own page is hashed, extracted and compared.
+     */
+    @Test
+    void testComparePages_DifferentPageNumbers() throws IOException {
+        // Arrange
+        when(pageHasher.hashPage(reader1, 2)).thenReturn("hash1");
+        when(pageHasher.hashPage(reader2, 3)).thenReturn("hash2");
+        PageContent content1 = new PageContent(PageText.builder().add("Old", new Rectangle(0, 0, 10, 10)).build(), List.of());
+        PageContent content2 = new PageContent(PageText.builder().add("New", new Rectangle(0, 0, 10, 10)).build(), List.of());
+        when(pdfPageContentExtractor.extractPage(reader1, 2)).thenReturn(content1);
+        when(pdfPageContentExtractor.extractPage(reader2, 3)).thenReturn(content2);
+
+        // Act
+        comparator.comparePages(reader1, 2, reader2, 3, highlights, 100f, true);
+
+        // Assert
+        verify(textComparator).compareText(highlights, content1.words(), content2.words(), 100f, true);
+        verify(imageComparator).compareImages(highlights, List.of(), List.of(), 100f, true);
+        verify(comparisonMetrics).recordPage(ComparisonMetrics.PageResult.COMPARED);
+    }
+
+    /**
+     * GIVEN: page 2 only exists in the second document, which has one image on it.
+     * WHEN:  comparePageImages(...) is invoked.
+     * THEN:  the page is not highlighted as a whole; its image is compared against no images,
+     *        its words are returned for the document diff and no text is compared.
+     */
+    @Test
+    void testComparePageImages_ExtraPageInReader2_ImagesComparedAgainstNone() throws IOException {
+        // Arrange
+        when(reader1.getNumberOfPages()).thenReturn(1);
+        when(reader2.getNumberOfPages()).thenReturn(2);
+        List<ImageChunk> images2 = List.of(new ImageChunk(new ImageHash(1, 1), new Rectangle(0, 0, 10, 10)));
+        PageContent content2 = new PageContent(PageText.builder().add("New", new Rectangle(0, 0, 10, 10)).build(), images2);
+        when(pdfPageContentExtractor.extractPage(reader2, 2)).thenReturn(content2);
+
+        // Act
+        PDFPageComparator.PageWords words = comparator.comparePageImages(reader1, reader2, 2, highlights, 100f, true);
+
+        // Assert
+        assertSame(PageText.EMPTY, words.words1());
+        assertSame(content2.words(), words.words2());
+        verify(pageHasher, never()).hashPage(reader1, 2);
+        verify(imageComparator).compareImages(highlights, List.of(), images2, 100f, true);
+        verifyNoInteractions(textComparator, pdfHighlighter);
+        verify(comparisonMetrics).recordPage(ComparisonMetrics.PageResult.INSERTED);
+    }
+
+    /**
+     * GIVEN: both pages exist and hash to the same value, and the page content cache is disabled.
+     * WHEN:  comparePageImages(...) is invoked.
+     * THEN:  the page is extracted once, its words are returned for both documents,
+     *        and no images are compared.
+     */
+    @Test
+    void testComparePageImages_IdenticalPages_ExtractedOnce() throws IOException {
+        // Arrange
+        when(reader1.getNumberOfPages()).thenReturn(1);
+        when(reader2.getNumberOfPages()).thenReturn(1);
+        when(pageHasher.hashPage(reader1, 1)).thenReturn("same");
+        when(pageHasher.hashPage(reader2, 1)).thenReturn("same");
+        PageContent content = new PageContent(PageText.builder().add("Same", new Rectangle(0, 0, 10, 10)).build(), List.of());
+        when(pdfPageContentExtractor.extractPage(reader1, 1)).thenReturn(content);
+
+        // Act
+        PDFPageComparator.PageWords words = comparator.comparePageImages(reader1, reader2, 1, highlights, 100f, true);
+
+        // Assert
+        assertSame(content.words(), words.words1());
+        assertSame(content.words(), words.words2());
+        verify(pdfPageContentExtractor, never()).extractPage(reader2, 1);
+        verifyNoInteractions(imageComparator, textComparator);
+        verify(comparisonMetrics).recordPage(ComparisonMetrics.PageResult.IDENTICAL);
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.base.AbstractBaseServiceTest;
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.PageContent;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.*;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.Spy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PDFPageContentExtractorTest extends AbstractBaseServiceTest {
+
+    @InjectMocks
+    private PDFPageContentExtractor extractor;
+
+    @Spy
+    private PDFTextExtractor pdfTextExtractor;
+
+    @Spy
+    private PDFImageExtractor pdfImageExtractor = new PDFImageExtractor(HashUtilityClass::murmur3x128, new ComparisonProperties());
+
+    @Mock
+    private ComparisonMetrics comparisonMetrics;
+
+    @Mock
+    private TextRenderInfo mockTextRenderInfo;
+
+    @Mock
+    private ImageRenderInfo mockImageRenderInfo;
+
+    /**
+     * GIVEN a page whose content stream renders the text "Hello World" and one image
+     * WHEN  extractPage(...) is invoked
+     * THEN  both words and the image are returned from a single PdfReaderContentParser pass.
+     */
+    @Test
+    void testExtractPage_TextAndImage_SingleParse() throws Exception {
+        // GIVEN: "Hello World" with one character render info per character.
+        when(mockTextRenderInfo.getText()).thenReturn("Hello World");
+        List<TextRenderInfo> charInfos = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            TextRenderInfo charMock = mock(TextRenderInfo.class);
+            Vector dummyVector = new Vector(i, i, 1);
+            LineSegment dummySegment = new LineSegment(dummyVector, dummyVector);
+            when(charMock.getBaseline()).thenReturn(dummySegment);
+            when(charMock.getAscentLine()).thenReturn(dummySegment);
+            charInfos.add(charMock);
+        }
+        when(mockTextRenderInfo.getCharacterRenderInfos()).thenReturn(charInfos);
+
+        // And: an image with an identity CTM.
+        PdfImageObject dummyImage = mock(PdfImageObject.class);
+        when(dummyImage.getImageAsBytes()).thenReturn(new byte[] {1, 2, 3});
+        when(mockImageRenderInfo.getImage()).thenReturn(dummyImage);
+        when(mockImageRenderInfo.getImageCTM()).thenReturn(new Matrix());
+
+        PdfReader dummyReader = mock(PdfReader.class);
+
+        try (MockedConstruction<PdfReaderContentParser> mocked =
+                     mockConstruction(PdfReaderContentParser.class, (mock, context) ->
+                             doAnswer(invocation -> {
+                                 RenderListener listener = invocation.getArgument(1);
+                                 listener.beginTextBlock();
+                                 listener.renderText(mockTextRenderInfo);
+                                 listener.endTextBlock();
+                                 listener.renderImage(mockImageRenderInfo);
+                                 return null;
+                             }).when(mock).processContent(anyInt(), any(RenderListener.class)))) {
+
+            // WHEN
+            PageContent content = extractor.extractPage(dummyReader, 1);
+
+            // THEN
+            assertEquals(2, content.words().size(), "Expected 2 words for 'Hello World'.");
+            assertEquals("Hello", content.words().word(0));
+            assertEquals("World", content.words().word(1));
+            assertEquals(1, content.images().size(), "Expected one image chunk.");
+            assertEquals(HashUtilityClass.murmur3x128(new byte[] {1, 2, 3}, 0, 3),
+                    content.images().get(0).imageHash());
+
+            // The page content stream is parsed exactly once.
+            assertEquals(1, mocked.constructed().size(), "Expected one PdfReaderContentParser.");
+            verify(mocked.constructed().get(0), times(1)).processContent(eq(1), any(RenderListener.class));
+        }
+    }
+
+    /**
+     * GIVEN a page with an image that cannot be read
+     * WHEN  extractPage(...) is invoked
+     * THEN  the image is skipped and an empty page content is returned.
+     */
+    @Test
+    void testExtractPage_ImageNull() throws Exception {
+        // GIVEN
+        when(mockImageRenderInfo.getImage()).thenReturn(null);
+        PdfReader dummyReader = mock(PdfReader.class);
+
+        try (MockedConstruction<PdfReaderContentParser> mocked =
+                     mockConstruction(PdfReaderContentParser.class, (mock, context) ->
+                             doAnswer(invocation -> {
+                                 RenderListener listener = invocation.getArgument(1);
+                                 listener.renderImage(mockImageRenderInfo);
+                                 return null;
+                             }).when(mock).processContent(anyInt(), any(RenderListener.class)))) {
+
+            // WHEN
+            PageContent content = extractor.extractPage(dummyReader, 1);
+
+            // THEN
+            assertTrue(content.words().isEmpty(), "Expected no words.");
+            assertTrue(content.images().isEmpty(), "Expected no images when image is null.");
+        }
+    }
+
+}
@@ -1,7 +1,7 @@
 package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
-import com.example.pdfcompare.model.TextChunk;
+import com.example.pdfcompare.model.PageText;
 import com.itextpdf.text.pdf.PdfReader;
 import com.itextpdf.text.pdf.parser.*;
 import org.junit.jupiter.api.Test;
@@ -9,7 +9,6 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedConstruction;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -61,13 +60,13 @@ class PDFTextExtractorTest extends AbstractBaseServiceTest {
                          }).when(mock).processContent(anyInt(), any(RenderListener.class));
                      })) {
             // Act: Call the public extractWords method.
-            List<TextChunk> result = extractor.extractWords(dummyReader, pageNum);
+            PageText result = extractor.extractWords(dummyReader, pageNum);
 
-            // Assert: Verify that exactly two TextChunks ("Hello" and "World") are returned.
+            // Assert: Verify that exactly two words ("Hello" and "World") are returned.
             assertNotNull(result, "Result should not be null.");
             assertEquals(2, result.size(), "Expected 2 tokens for 'Hello World'.");
-            assertEquals("Hello", result.get(0).text(), "First token should be 'Hello'.");
-            assertEquals("World", result.get(1).text(), "Second token should be 'World'.");
+            assertEquals("Hello", result.word(0), "First token should be 'Hello'.");
+            assertEquals("World", result.word(1), "Second token should be 'World'.");
 
             // Additionally, verify that processContent was called exactly once with the expected page number.
             List<PdfReaderContentParser> constructedParsers = mockedConstruction.constructed();
@@ -94,17 +93,16 @@ class PDFTextExtractorTest extends AbstractBaseServiceTest {
         }
         when(mockTextRenderInfo.getCharacterRenderInfos()).thenReturn(charInfos);
 
-        // WHEN: Invoke the private processText method via reflection.
-        Method processTextMethod = PDFTextExtractor.class.getDeclaredMethod("processText", TextRenderInfo.class);
-        processTextMethod.setAccessible(true);
-        @SuppressWarnings("unchecked")
-        List<TextChunk> result = (List<TextChunk>) processTextMethod.invoke(extractor, mockTextRenderInfo);
+        // WHEN: Invoke the package-private processText method.
+        PageText.Builder builder = PageText.builder();
+        extractor.processText(mockTextRenderInfo, builder);
+        PageText result = builder.build();
 
         // THEN: Verify that two text chunks are returned with texts "Hello" and "World".
         assertNotNull(result, "Result should not be null.");
         assertEquals(2, result.size(), "Expected 2 text chunks for 'Hello World'.");
-        assertEquals("Hello", result.get(0).text(), "The first chunk should be 'Hello'.");
-        assertEquals("World", result.get(1).text(), "The second chunk should be 'World'.");
+        assertEquals("Hello", result.word(0), "The first chunk should be 'Hello'.");
+        assertEquals("World", result.word(1), "The second chunk should be 'World'.");
 
         // Verify that getText() and getCharacterRenderInfos() are each called once.
         verify(mockTextRenderInfo, times(1)).getText();
@@ -117,11 +115,10 @@ class PDFTextExtractorTest extends AbstractBaseServiceTest {
         when(mockTextRenderInfo.getText()).thenReturn("    ");
         when(mockTextRenderInfo.getCharacterRenderInfos()).thenReturn(new ArrayList<>());
 
-        // WHEN: Invoke processText via reflection.
-        Method processTextMethod = PDFTextExtractor.class.getDeclaredMethod("processText", TextRenderInfo.class);
-        processTextMethod.setAccessible(true);
-
-        List<TextChunk> result = (List<TextChunk>) processTextMethod.invoke(extractor, mockTextRenderInfo);
+        // WHEN: Invoke the package-private processText method.
+        PageText.Builder builder = PageText.builder();
+        extractor.processText(mockTextRenderInfo, builder);
+        PageText result = builder.build();
 
         // THEN: Verify that an empty list is returned.
         assertNotNull(result, "Result should not be null.");
@@ -133,4 +130,34 @@ class PDFTextExtractorTest extends AbstractBaseServiceTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    void testProcessText_WhitespaceRuns() {
+        // GIVEN: leading, repeated and trailing whitespace, one character info per character.
+        String text = " \tHello   World\n";
+        when(mockTextRenderInfo.getText()).thenReturn(text);
+        List<TextRenderInfo> charInfos = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            TextRenderInfo charMock = mock(TextRenderInfo.class);
+            when(charMock.getBaseline()).thenReturn(new LineSegment(new Vector(i, 0, 1), new Vector(i + 1, 0, 1)));
+            when(charMock.getAscentLine()).thenReturn(new LineSegment(new Vector(i, 10, 1), new Vector(i + 1, 10, 1)));
+            charInfos.add(charMock);
+        }
+        when(mockTextRenderInfo.getCharacterRenderInfos()).thenReturn(charInfos);
+        PageText.Builder builder = PageText.builder();
+
+        // WHEN
+        extractor.processText(mockTextRenderInfo, builder);
+        PageText result = builder.build();
+
+        // THEN: each word spans exactly the characters at its offsets in the text.
+        assertEquals(2, result.size());
+        assertEquals("Hello", result.word(0));
+        assertEquals(2, result.left(0));
+        assertEquals(7, result.right(0));
+        assertEquals("World", result.word(1));
+        assertEquals(10, result.left(1));
+        assertEquals(15, result.right(1));
+        assertEquals(10, result.top(1));
+    }
+
+}
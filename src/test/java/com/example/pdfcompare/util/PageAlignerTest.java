@@ -0,0 +1,114 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.ImageChunk;
+import com.example.pdfcompare.model.ImageHash;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import com.example.pdfcompare.util.PageAligner.PagePair;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.example.pdfcompare.util.TestPdfs.PAGE_A;
+import static com.example.pdfcompare.util.TestPdfs.PAGE_B;
+import static com.example.pdfcompare.util.TestPdfs.PAGE_C;
+import static com.example.pdfcompare.util.TestPdfs.pdf;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageAlignerTest {
+
+    private static final String PAGE_D = "liability of the customer is limited to the annual fee for the service";
+    private static final String PAGE_X = "a completely new appendix listing contacts addresses and phone numbers";
+
+    private final ComparisonMetrics metrics = new ComparisonMetrics(new SimpleMeterRegistry());
+    private final PDFHighlighter highlighter = new PDFHighlighter();
+    private final PageHasher pageHasher = new PageHasher();
+    private final PDFPageComparator pageComparator = new PDFPageComparator(new TextComparator(highlighter),
+            new ImageComparator(highlighter, new ComparisonProperties()), highlighter,
+            new PDFPageContentExtractor(new PDFTextExtractor(), new PDFImageExtractor(HashUtilityClass::murmur3x128, new ComparisonProperties()), metrics),
+            pageHasher, new PageContentCache(new ComparisonProperties()), metrics);
+    private final PageAligner aligner = new PageAligner(pageHasher, pageComparator);
+
+    @Test
+    void testAlign_pageInsertedInTheMiddle_laterPagesKeepTheirCounterpart() throws Exception {
+        // GIVEN
+        PdfReader reader1 = new PdfReader(pdf(PAGE_A, PAGE_B, PAGE_C, PAGE_D));
+        PdfReader reader2 = new PdfReader(pdf(PAGE_A, PAGE_B, PAGE_X, PAGE_C, PAGE_D));
+
+        // WHEN
+        List<PagePair> pairs = aligner.align(reader1, reader2);
+
+        // THEN
+        assertEquals(List.of(new PagePair(1, 1), new PagePair(2, 2), new PagePair(0, 3),
+                new PagePair(3, 4), new PagePair(4, 5)), pairs);
+    }
+
+    @Test
+    void testAlign_pageDeletedAndLaterPagesRenumbered_matchedBySimilarity() throws Exception {
+        // GIVEN: page B is removed, and the footer of every following page changes with it.
+        PdfReader reader1 = new PdfReader(pdf(PAGE_A + " page 1", PAGE_B + " page 2", PAGE_C + " page 3",
+                PAGE_D + " page 4"));
+        PdfReader reader2 = new PdfReader(pdf(PAGE_A + " page 1", PAGE_C + " page 2", PAGE_D + " page 3"));
+
+        // WHEN
+        List<PagePair> pairs = aligner.align(reader1, reader2);
+
+        // THEN
+        assertEquals(List.of(new PagePair(1, 1), new PagePair(2, 0), new PagePair(3, 2), new PagePair(4, 3)), pairs);
+    }
+
+    @Test
+    void testAlign_pageReplacedByUnrelatedPage_deletedAndInserted() throws Exception {
+        // GIVEN
+        PdfReader reader1 = new PdfReader(pdf(PAGE_A, PAGE_B, PAGE_C));
+        PdfReader reader2 = new PdfReader(pdf(PAGE_A, PAGE_X, PAGE_C));
+
+        // WHEN
+        List<PagePair> pairs = aligner.align(reader1, reader2);
+
+        // THEN
+        assertEquals(List.of(new PagePair(1, 1), new PagePair(2, 0), new PagePair(0, 2), new PagePair(3, 3)), pairs);
+    }
+
+    @Test
+    void testAlign_samePageCountAndEditedPages_pairedByPosition() throws Exception {
+        // GIVEN
+        PdfReader reader1 = new PdfReader(pdf(PAGE_A, PAGE_B));
+        PdfReader reader2 = new PdfReader(pdf(PAGE_A + " amended", PAGE_B + " amended"));
+
+        // WHEN
+        List<PagePair> pairs = aligner.align(reader1, reader2);
+
+        // THEN
+        assertEquals(List.of(new PagePair(1, 1), new PagePair(2, 2)), pairs);
+    }
+
+    @Test
+    void testSimilarity_sharedWordPairsAndImages() {
+        // GIVEN
+        Rectangle rectangle = new Rectangle(0, 0, 10, 10);
+        PageContent content1 = new PageContent(words("a", "b", "c", "d"), List.of(new ImageChunk(new ImageHash(1, 1), rectangle)));
+        PageContent content2 = new PageContent(words("a", "b", "c", "x"), List.of(new ImageChunk(new ImageHash(1, 1), rectangle)));
+
+        // WHEN
+        double similarity = PageAligner.similarity(PageAligner.sketch(content1), PageAligner.sketch(content2));
+
+        // THEN: "a b", "b c" and the image are shared out of four entries on each page.
+        assertEquals(0.75, similarity, 1e-9);
+        assertEquals(1, PageAligner.similarity(new int[0], new int[0]));
+        assertEquals(0, PageAligner.similarity(new int[0], new int[]{1}));
+    }
+
+    private static PageText words(String... words) {
+        PageText.Builder builder = PageText.builder();
+        for (String word : words) {
+            builder.add(word, new Rectangle(0, 0, 10, 10));
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.PageContent;
+import com.example.pdfcompare.model.PageText;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageContentCacheTest {
+
+    @Test
+    void testPut_whenFull_thenLeastRecentlyUsedIsEvicted() {
+        // GIVEN
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setPageCacheSize(2);
+        PageContentCache cache = new PageContentCache(properties);
+        PageContent a = new PageContent(PageText.EMPTY, List.of());
+        PageContent b = new PageContent(PageText.EMPTY, List.of());
+        cache.put("a", a);
+        cache.put("b", b);
+        cache.get("a");
+
+        // WHEN
+        cache.put("c", new PageContent(PageText.EMPTY, List.of()));
+
+        // THEN
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void testPut_whenDisabled_thenNothingIsCached() {
+        // GIVEN
+        ComparisonProperties properties = new ComparisonProperties();
+        properties.setPageCacheSize(0);
+        PageContentCache cache = new PageContentCache(properties);
+
+        // WHEN
+        cache.put("a", new PageContent(PageText.EMPTY, List.of()));
+
+        // THEN
+        assertNull(cache.get("a"));
+    }
+
+}
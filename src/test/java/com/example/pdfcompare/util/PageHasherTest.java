@@ -0,0 +1,72 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageHasherTest {
+
+    private final PageHasher pageHasher = new PageHasher();
+
+    @Test
+    void testHashPage_whenPagesAreIdentical_thenHashesMatch() throws Exception {
+        // GIVEN: two separately generated documents sharing their first page.
+        PdfReader reader1 = new PdfReader(generatePDFBytes(new Rectangle(0, 0, 200, 200), "Same", "Old"));
+        PdfReader reader2 = new PdfReader(generatePDFBytes(new Rectangle(0, 0, 200, 200), "Same", "New"));
+
+        // WHEN
+        String page1Hash1 = pageHasher.hashPage(reader1, 1);
+        String page1Hash2 = pageHasher.hashPage(reader2, 1);
+        String page2Hash1 = pageHasher.hashPage(reader1, 2);
+        String page2Hash2 = pageHasher.hashPage(reader2, 2);
+
+        // THEN
+        assertEquals(64, page1Hash1.length());
+        assertEquals(page1Hash1, page1Hash2);
+        assertNotEquals(page2Hash1, page2Hash2);
+        assertEquals(page1Hash1, pageHasher.hashPage(reader1, 1), "Hashing is repeatable");
+    }
+
+    @Test
+    void testHashPage_whenPageSizeDiffers_thenHashesDiffer() throws Exception {
+        // GIVEN
+        PdfReader reader1 = new PdfReader(generatePDFBytes(new Rectangle(0, 0, 200, 200), "Same"));
+        PdfReader reader2 = new PdfReader(generatePDFBytes(new Rectangle(0, 0, 300, 200), "Same"));
+
+        // WHEN / THEN
+        assertNotEquals(pageHasher.hashPage(reader1, 1), pageHasher.hashPage(reader2, 1));
+    }
+
+    @Test
+    void testHashPage_whenPageIsMissing_thenNull() throws Exception {
+        // GIVEN
+        PdfReader reader = new PdfReader(generatePDFBytes(new Rectangle(0, 0, 200, 200), "Only"));
+
+        // WHEN / THEN
+        assertNull(pageHasher.hashPage(reader, 2));
+    }
+
+    private byte[] generatePDFBytes(Rectangle pageSize, String... pageTexts) throws DocumentException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(pageSize);
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int i = 0; i < pageTexts.length; i++) {
+            document.add(new Paragraph(pageTexts[i]));
+            if (i < pageTexts.length - 1) {
+                document.newPage();
+            }
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+}
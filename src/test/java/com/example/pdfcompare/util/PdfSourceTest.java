@@ -0,0 +1,98 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfWriter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfSourceTest {
+
+    @Test
+    void testOfBytes_openAndOpenPartialReadTheSamePages() throws Exception {
+        // GIVEN
+        byte[] pdfBytes = generatePDFBytes(3);
+        PdfSource source = PdfSource.of(pdfBytes);
+
+        // WHEN
+        PdfReader reader = source.open();
+        PdfReader partialReader = source.openPartial();
+
+        // THEN
+        try {
+            assertEquals(3, reader.getNumberOfPages());
+            assertEquals(3, partialReader.getNumberOfPages());
+            for (int page = 1; page <= 3; page++) {
+                assertArrayEquals(reader.getPageContent(page), partialReader.getPageContent(page));
+            }
+        } finally {
+            reader.close();
+            partialReader.close();
+        }
+    }
+
+    @Test
+    void testOfFile_readsPagesLazilyFromDisk(@TempDir Path directory) throws Exception {
+        // GIVEN
+        byte[] pdfBytes = generatePDFBytes(2);
+        Path pdfFile = Files.write(directory.resolve("input.pdf"), pdfBytes);
+        PdfSource source = PdfSource.of(pdfFile);
+
+        // WHEN
+        PdfReader reader = source.open();
+        PdfReader inMemoryReader = PdfSource.of(pdfBytes).open();
+
+        // THEN
+        try {
+            assertEquals(2, reader.getNumberOfPages());
+            for (int page = 1; page <= 2; page++) {
+                assertArrayEquals(inMemoryReader.getPageContent(page), reader.getPageContent(page));
+            }
+        } finally {
+            reader.close();
+            inMemoryReader.close();
+        }
+    }
+
+    @Test
+    void testOpenRenderable_bytesAndFileOpenTheSameDocument(@TempDir Path directory) throws Exception {
+        // GIVEN
+        byte[] pdfBytes = generatePDFBytes(3);
+        Path pdfFile = Files.write(directory.resolve("input.pdf"), pdfBytes);
+
+        // WHEN
+        try (PDDocument fromBytes = PdfSource.of(pdfBytes).openRenderable();
+             PDDocument fromFile = PdfSource.of(pdfFile).openRenderable()) {
+
+            // THEN
+            assertEquals(3, fromBytes.getNumberOfPages());
+            assertEquals(3, fromFile.getNumberOfPages());
+        }
+    }
+
+    private byte[] generatePDFBytes(int pageCount) throws DocumentException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(0, 0, 200, 200));
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int i = 0; i < pageCount; i++) {
+            document.add(new Paragraph("Page " + (i + 1)));
+            if (i < pageCount - 1) {
+                document.newPage();
+            }
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.example.pdfcompare.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerceptualHashTest {
+
+    @Test
+    void testDHash_reencodedAndRescaledImage_closeToOriginal() throws Exception {
+        // GIVEN
+        BufferedImage original = scene(240, 160, false);
+        BufferedImage jpeg = ImageIO.read(new ByteArrayInputStream(jpeg(original)));
+        BufferedImage halfSize = scaled(original, 120, 80);
+
+        // WHEN
+        long hash = PerceptualHash.dHash(original);
+
+        // THEN
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(jpeg)) <= 4);
+        assertTrue(PerceptualHash.distance(hash, PerceptualHash.dHash(halfSize)) <= 4);
+    }
+
+    @Test
+    void testDHash_differentImage_farFromOriginal() {
+        // GIVEN
+        BufferedImage original = scene(240, 160, false);
+        BufferedImage other = scene(240, 160, true);
+
+        // WHEN
+        int distance = PerceptualHash.distance(PerceptualHash.dHash(original), PerceptualHash.dHash(other));
+
+        // THEN
+        assertTrue(distance > 16, "Distance was " + distance);
+    }
+
+    @Test
+    void testDHash_imageSmallerThanGrid_hashedWithoutFailing() {
+        // GIVEN: a single white pixel next to a black one
+        BufferedImage tiny = new BufferedImage(2, 1, BufferedImage.TYPE_INT_RGB);
+        tiny.setRGB(0, 0, 0xffffff);
+
+        // WHEN
+        long hash = PerceptualHash.dHash(tiny);
+
+        // THEN: each row holds one brighter-than-right step where the white pixel ends.
+        assertEquals(8, Long.bitCount(hash));
+    }
+
+    @Test
+    void testDistance_countsDifferingBits() {
+        assertEquals(0, PerceptualHash.distance(0x1234L, 0x1234L));
+        assertEquals(64, PerceptualHash.distance(0L, -1L));
+        assertEquals(2, PerceptualHash.distance(0b1010L, 0b0110L));
+    }
+
+    static BufferedImage scene(int width, int height, boolean mirrored) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        if (mirrored) {
+            g.translate(width, 0);
+            g.scale(-1, 1);
+        }
+        g.setPaint(new java.awt.GradientPaint(0, 0, Color.WHITE, width, height, Color.DARK_GRAY));
+        g.fillRect(0, 0, width, height);
+        g.setColor(Color.BLUE);
+        g.fillOval(width / 8, height / 6, width / 3, height / 2);
+        g.setColor(Color.ORANGE);
+        g.fillRect(width / 2, height / 3, width / 3, height / 2);
+        g.dispose();
+        return image;
+    }
+
+    static byte[] jpeg(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+
+    private static BufferedImage scaled(BufferedImage image, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return scaled;
+    }
+
+}
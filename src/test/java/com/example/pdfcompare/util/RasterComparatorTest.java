@@ -0,0 +1,159 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.Highlight;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.util.RasterComparator.Region;
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfName;
+import com.itextpdf.text.pdf.PdfNumber;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfStamper;
+import com.itextpdf.text.pdf.PdfWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RasterComparatorTest {
+
+    private final ComparisonProperties properties = new ComparisonProperties();
+    private final RasterComparator comparator = new RasterComparator(new PDFHighlighter(), new PageHasher(),
+            properties, new ComparisonMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void testComparePages_movedVectorLine_highlightedWhereItWasAndIs() throws Exception {
+        // GIVEN: the same text, with a line drawn at y = 150 in the first and y = 50 in the second
+        // document, which neither the text nor the image extractor sees.
+        byte[] pdf1 = pdf(150);
+        byte[] pdf2 = pdf(50);
+        PageHighlights highlights = new PageHighlights();
+
+        // WHEN
+        try (PDDocument document1 = Loader.loadPDF(pdf1); PDDocument document2 = Loader.loadPDF(pdf2)) {
+            comparator.comparePages(new PdfReader(pdf1), document1, 1, new PdfReader(pdf2), document2, 1,
+                    highlights, 200, true);
+        }
+
+        // THEN: each side has changed regions around both lines, and nowhere else.
+        List<Highlight> red = highlights.getHighlights().stream().filter(h -> h.color().equals(BaseColor.RED)).toList();
+        List<Highlight> green = highlights.getHighlights().stream().filter(h -> h.color().equals(BaseColor.GREEN)).toList();
+        assertFalse(red.isEmpty());
+        assertEquals(red.size(), green.size());
+        for (Highlight highlight : green) {
+            Rectangle rectangle = highlight.rectangle();
+            assertEquals(200f, highlight.xOffset());
+            boolean aroundOldLine = rectangle.getBottom() <= 150 && rectangle.getTop() >= 150;
+            boolean aroundNewLine = rectangle.getBottom() <= 50 && rectangle.getTop() >= 50;
+            assertTrue(aroundOldLine || aroundNewLine, "Unexpected highlight " + rectangle);
+        }
+        assertTrue(green.stream().anyMatch(h -> h.rectangle().getBottom() <= 150 && h.rectangle().getTop() >= 150));
+        assertTrue(green.stream().anyMatch(h -> h.rectangle().getBottom() <= 50 && h.rectangle().getTop() >= 50));
+    }
+
+    @Test
+    void testComparePages_rotatedPages_highlightedInUserSpace() throws Exception {
+        for (int rotation : new int[]{90, 180, 270}) {
+            // GIVEN: the moved line on pages shown turned by /Rotate, and rendered that way
+            byte[] pdf1 = rotate(pdf(150), rotation);
+            byte[] pdf2 = rotate(pdf(50), rotation);
+            PageHighlights highlights = new PageHighlights();
+
+            // WHEN
+            try (PDDocument document1 = Loader.loadPDF(pdf1); PDDocument document2 = Loader.loadPDF(pdf2)) {
+                comparator.comparePages(new PdfReader(pdf1), document1, 1, new PdfReader(pdf2), document2, 1,
+                        highlights, 200, false);
+            }
+
+            // THEN: the highlights lie across the lines in unrotated coordinates, as the pages are drawn.
+            List<Highlight> green = highlights.getHighlights();
+            assertFalse(green.isEmpty(), "rotation " + rotation);
+            for (Highlight highlight : green) {
+                Rectangle rectangle = highlight.rectangle();
+                boolean aroundOldLine = rectangle.getBottom() <= 150 && rectangle.getTop() >= 150;
+                boolean aroundNewLine = rectangle.getBottom() <= 50 && rectangle.getTop() >= 50;
+                assertTrue(aroundOldLine || aroundNewLine, "Unexpected highlight " + rectangle + " at rotation " + rotation);
+            }
+            assertTrue(green.stream().mapToDouble(h -> h.rectangle().getLeft()).min().orElseThrow() <= 20,
+                    "rotation " + rotation);
+            assertTrue(green.stream().mapToDouble(h -> h.rectangle().getRight()).max().orElseThrow() >= 180,
+                    "rotation " + rotation);
+        }
+    }
+
+    @Test
+    void testComparePages_identicalPages_notRendered() throws Exception {
+        // GIVEN
+        byte[] pdf = pdf(150);
+        PageHighlights highlights = new PageHighlights();
+
+        // WHEN: the PDFBox documents are not needed, since both pages hash the same
+        comparator.comparePages(new PdfReader(pdf), null, 1, new PdfReader(pdf), null, 1, highlights, 200, true);
+
+        // THEN
+        assertTrue(highlights.isEmpty());
+    }
+
+    @Test
+    void testChangedRegions_adjacentChangedTilesJoinedPerRow() {
+        // GIVEN: 8x4 renderings in 2x2 tiles; pixels differ in tiles (0, 0), (1, 0) and (3, 1)
+        int[] pixels1 = new int[8 * 4];
+        int[] pixels2 = new int[8 * 4];
+        pixels2[1] = 1;
+        pixels2[2] = 1;
+        pixels2[3 * 8 + 7] = 1;
+
+        // WHEN
+        List<Region> regions = RasterComparator.changedRegions(pixels1, 8, 4, pixels2, 8, 4, 2);
+
+        // THEN
+        assertEquals(List.of(new Region(0, 0, 4, 2), new Region(6, 2, 2, 2)), regions);
+    }
+
+    @Test
+    void testChangedRegions_differentSizes_tilesOnOnlyOneRenderingChanged() {
+        // GIVEN: a 4x2 and an equal 6x2 rendering in 2x2 tiles
+        int[] pixels1 = new int[4 * 2];
+        int[] pixels2 = new int[6 * 2];
+
+        // WHEN
+        List<Region> regions = RasterComparator.changedRegions(pixels1, 4, 2, pixels2, 6, 2, 2);
+
+        // THEN
+        assertEquals(List.of(new Region(4, 0, 2, 2)), regions);
+    }
+
+    private static byte[] pdf(float lineY) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(0, 0, 200, 200));
+        PdfWriter writer = PdfWriter.getInstance(document, baos);
+        document.open();
+        document.add(new Paragraph("unchanged text"));
+        PdfContentByte cb = writer.getDirectContent();
+        cb.setLineWidth(2);
+        cb.moveTo(20, lineY);
+        cb.lineTo(180, lineY);
+        cb.stroke();
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] rotate(byte[] pdf, int rotation) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        reader.getPageN(1).put(PdfName.ROTATE, new PdfNumber(rotation));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new PdfStamper(reader, baos).close();
+        reader.close();
+        return baos.toByteArray();
+    }
+
+}
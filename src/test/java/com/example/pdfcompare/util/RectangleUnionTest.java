@@ -0,0 +1,84 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Rectangle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RectangleUnionTest {
+
+    @Test
+    void testUnion_stackOfTouchingTiles_oneRectangle() {
+        // GIVEN: rows of tiles with the same extent, as raster diff regions of a changed block
+        List<Rectangle> tiles = List.of(
+                new Rectangle(10, 0, 50, 10),
+                new Rectangle(10, 10, 50, 20),
+                new Rectangle(10, 20, 50, 30));
+
+        // WHEN
+        List<Rectangle> union = RectangleUnion.union(tiles);
+
+        // THEN
+        assertEquals(1, union.size());
+        assertRectangle(10, 0, 50, 30, union.get(0));
+    }
+
+    @Test
+    void testUnion_overlappingBoxes_disjointRectanglesOfTheSameArea() {
+        // GIVEN: two overlapping boxes forming an L shape, and a separate box
+        List<Rectangle> boxes = List.of(
+                new Rectangle(0, 0, 30, 10),
+                new Rectangle(0, 5, 10, 20),
+                new Rectangle(100, 100, 110, 110));
+
+        // WHEN
+        List<Rectangle> union = RectangleUnion.union(boxes);
+
+        // THEN
+        assertEquals(3, union.size());
+        assertRectangle(0, 0, 30, 10, union.get(0));
+        assertRectangle(0, 10, 10, 20, union.get(1));
+        assertRectangle(100, 100, 110, 110, union.get(2));
+    }
+
+    @Test
+    void testUnion_randomBoxes_coversTheSameCellsWithoutOverlap() {
+        // GIVEN
+        Random random = new Random(42);
+        List<Rectangle> boxes = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            int left = random.nextInt(40);
+            int bottom = random.nextInt(40);
+            boxes.add(new Rectangle(left, bottom, left + 1 + random.nextInt(10), bottom + 1 + random.nextInt(10)));
+        }
+
+        // WHEN
+        List<Rectangle> union = RectangleUnion.union(boxes);
+
+        // THEN: every unit cell is covered by the union exactly once if any box covers it.
+        for (int x = 0; x < 50; x++) {
+            for (int y = 0; y < 50; y++) {
+                float cx = x + 0.5f;
+                float cy = y + 0.5f;
+                boolean covered = boxes.stream().anyMatch(box -> contains(box, cx, cy));
+                long coverage = union.stream().filter(rect -> contains(rect, cx, cy)).count();
+                assertEquals(covered ? 1 : 0, coverage, "Cell " + x + "," + y);
+            }
+        }
+        assertTrue(union.size() < boxes.size() * 2);
+    }
+
+    private static boolean contains(Rectangle rect, float x, float y) {
+        return rect.getLeft() < x && x < rect.getRight() && rect.getBottom() < y && y < rect.getTop();
+    }
+
+    private static void assertRectangle(float left, float bottom, float right, float top, Rectangle rect) {
+        assertEquals(List.of(left, bottom, right, top),
+                List.of(rect.getLeft(), rect.getBottom(), rect.getRight(), rect.getTop()));
+    }
+
+}
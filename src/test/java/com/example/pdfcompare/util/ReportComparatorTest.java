@@ -0,0 +1,121 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.config.ComparisonProperties;
+import com.example.pdfcompare.model.PageReport;
+import com.example.pdfcompare.model.PageReport.Change;
+import com.example.pdfcompare.model.PageReport.ChangeType;
+import com.example.pdfcompare.model.PageReport.Region;
+import com.example.pdfcompare.model.PageReport.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.pdfcompare.util.TestPdfs.PAGE_A;
+import static com.example.pdfcompare.util.TestPdfs.PAGE_B;
+import static com.example.pdfcompare.util.TestPdfs.PAGE_C;
+import static com.example.pdfcompare.util.TestPdfs.pdf;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportComparatorTest {
+
+    private final ComparisonProperties properties = new ComparisonProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ComparisonMetrics metrics = new ComparisonMetrics(registry);
+    private final PDFHighlighter highlighter = new PDFHighlighter();
+    private final PageHasher pageHasher = new PageHasher();
+    private final TextComparator textComparator = new TextComparator(highlighter);
+    private final ImageComparator imageComparator = new ImageComparator(highlighter, properties);
+    private final PDFPageComparator pageComparator = new PDFPageComparator(textComparator, imageComparator, highlighter,
+            new PDFPageContentExtractor(new PDFTextExtractor(), new PDFImageExtractor(HashUtilityClass::murmur3x128, properties), metrics),
+            pageHasher, new PageContentCache(properties), metrics);
+    private final ReportComparator reportComparator = new ReportComparator(pageComparator,
+            new PageAligner(pageHasher, pageComparator), textComparator, imageComparator, pageHasher, properties, metrics);
+
+    @Test
+    void testComparePDFs_changedWordAndExtraPage_reportedPerPage() throws Exception {
+        // GIVEN
+        byte[] pdf1 = pdf(PAGE_A, PAGE_B);
+        byte[] pdf2 = pdf(PAGE_A, PAGE_B.replace("sixty", "ninety"), PAGE_C);
+
+        // WHEN
+        List<PageReport> report = reportComparator.comparePDFs(PdfSource.of(pdf1), PdfSource.of(pdf2));
+
+        // THEN
+        assertEquals(3, report.size());
+        assertEquals(new PageReport(1, 1, Status.IDENTICAL, List.of(), List.of()), report.get(0));
+        assertEquals(new PageReport(0, 3, Status.INSERTED, List.of(), List.of()), report.get(2));
+
+        PageReport changed = report.get(1);
+        assertEquals(Status.CHANGED, changed.status());
+        assertEquals(List.of(), changed.images());
+        assertEquals(1, changed.words().size());
+        Change change = changed.words().get(0);
+        assertEquals(ChangeType.CHANGED, change.type());
+        assertEquals("sixty", change.before().get(0).text());
+        assertEquals("ninety", change.after().get(0).text());
+        Region word = change.after().get(0);
+        assertTrue(word.left() > 0 && word.left() < word.right() && word.bottom() < word.top() && word.top() <= 300);
+    }
+
+    @Test
+    void testComparePDFs_alignPages_insertedPageDoesNotShiftLaterPages() throws Exception {
+        // GIVEN
+        properties.setAlignPages(true);
+        byte[] pdf1 = pdf(PAGE_A, PAGE_B);
+        byte[] pdf2 = pdf(PAGE_C, PAGE_A, PAGE_B);
+
+        // WHEN
+        List<PageReport> report = reportComparator.comparePDFs(PdfSource.of(pdf1), PdfSource.of(pdf2));
+
+        // THEN
+        assertEquals(List.of(
+                new PageReport(0, 1, Status.INSERTED, List.of(), List.of()),
+                new PageReport(1, 2, Status.IDENTICAL, List.of(), List.of()),
+                new PageReport(2, 3, Status.IDENTICAL, List.of(), List.of())), report);
+    }
+
+    @Test
+    void testComparePDFs_listenerFails_remainingPagesAreNotCompared() throws Exception {
+        // GIVEN: a listener that fails like a write to a closed connection.
+        byte[] pdf1 = pdf(PAGE_A, PAGE_B, PAGE_C);
+        byte[] pdf2 = pdf(PAGE_A + " amended", PAGE_B + " amended", PAGE_C + " amended");
+        List<PageReport> received = new ArrayList<>();
+        PageReportListener listener = report -> {
+            received.add(report);
+            throw new IOException("Broken pipe");
+        };
+
+        // WHEN
+        IOException exception = assertThrows(IOException.class,
+                () -> reportComparator.comparePDFs(PdfSource.of(pdf1), PdfSource.of(pdf2), listener));
+
+        // THEN
+        assertEquals("Broken pipe", exception.getMessage());
+        assertEquals(1, received.size());
+        assertEquals(1, registry.find("pdfcompare.comparison.pages").counters().stream()
+                .mapToDouble(Counter::count).sum());
+    }
+
+    @Test
+    void testComparePDFs_interrupted_stopsBeforeTheNextPage() throws Exception {
+        // GIVEN
+        byte[] pdf1 = pdf(PAGE_A, PAGE_B);
+        byte[] pdf2 = pdf(PAGE_A, PAGE_B);
+        List<PageReport> received = new ArrayList<>();
+
+        // WHEN: the comparing thread is interrupted, as when a cancelled request cancels its task.
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedIOException.class,
+                () -> reportComparator.comparePDFs(PdfSource.of(pdf1), PdfSource.of(pdf2), received::add));
+
+        // THEN: the interrupt was consumed, and no page was reported.
+        assertFalse(Thread.currentThread().isInterrupted());
+        assertEquals(List.of(), received);
+    }
+
+}
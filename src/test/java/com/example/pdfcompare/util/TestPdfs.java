@@ -0,0 +1,50 @@
+package com.example.pdfcompare.util;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Builds small test documents with one paragraph per page, and sample page texts for them.
+ */
+final class TestPdfs {
+
+    static final String PAGE_A = "the supplier shall send an invoice within thirty days of delivery";
+    static final String PAGE_B = "payment is due within sixty days of the invoice date unless agreed";
+    static final String PAGE_C = "either party may end this agreement with ninety days written notice";
+
+    private TestPdfs() {
+    }
+
+    /**
+     * A PDF of 300 by 300 point pages in a 12 point font.
+     */
+    static byte[] pdf(String... pages) throws DocumentException {
+        return pdf(300, 12, pages);
+    }
+
+    /**
+     * A PDF of square pages of the given size, in the given font size.
+     */
+    static byte[] pdf(float pageSize, float fontSize, String... pages) throws DocumentException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new Rectangle(0, 0, pageSize, pageSize));
+        PdfWriter.getInstance(document, baos);
+        document.open();
+        for (int i = 0; i < pages.length; i++) {
+            if (i > 0) {
+                document.newPage();
+            }
+            Paragraph paragraph = new Paragraph(pages[i]);
+            paragraph.getFont().setSize(fontSize);
+            document.add(paragraph);
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+}
@@ -1,12 +1,12 @@
 package com.example.pdfcompare.util;
 
 import com.example.pdfcompare.base.AbstractBaseServiceTest;
-import com.example.pdfcompare.model.TextChunk;
+import com.example.pdfcompare.model.PageHighlights;
+import com.example.pdfcompare.model.PageText;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Chunk;
 import com.itextpdf.text.Font;
 import com.itextpdf.text.Rectangle;
-import com.itextpdf.text.pdf.PdfContentByte;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -26,24 +26,20 @@ class TextComparatorTest extends AbstractBaseServiceTest {
     private PDFHighlighter pdfHighlighter;
 
     @Mock
-    private PdfContentByte cb;
+    private PageHighlights highlights;
 
     @Test
     void testCompareText_whenInsertAndDelete_thenHighlightChanges() {
         // GIVEN
-        // Two TextChunks in the first PDF
+        // Two words in the first PDF
         Rectangle rect1 = new Rectangle(0, 0, 50, 10);
         Rectangle rect2 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk1 = new TextChunk("Hello", rect1);
-        TextChunk chunk2 = new TextChunk("World", rect2);
-        List<TextChunk> words1 = List.of(chunk1, chunk2);
+        PageText words1 = PageText.builder().add("Hello", rect1).add("World", rect2).build();
 
-        // Two TextChunks in the second PDF
+        // Two words in the second PDF
         Rectangle rect3 = new Rectangle(0, 0, 50, 10);
         Rectangle rect4 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk3 = new TextChunk("Hello", rect3);
-        TextChunk chunk4 = new TextChunk("Mars", rect4);
-        List<TextChunk> words2 = List.of(chunk3, chunk4);
+        PageText words2 = PageText.builder().add("Hello", rect3).add("Mars", rect4).build();
 
         float width1 = 100f;
         boolean isMultiple = true;
@@ -52,14 +48,14 @@ class TextComparatorTest extends AbstractBaseServiceTest {
         // but here pdfHighlighter has void methods, so we just verify calls later.)
 
         // WHEN
-        textComparator.compareText(cb, words1, words2, width1, isMultiple);
+        textComparator.compareText(highlights, words1, words2, width1, isMultiple);
 
         // THEN
         // 'World' should be highlighted as RED (delete).
-        verify(pdfHighlighter).drawRectangle(cb, rect2, BaseColor.RED, 0f);
+        verify(pdfHighlighter).drawWord(highlights, words1, 1, BaseColor.RED, 0f);
 
         // 'Mars' should be highlighted as GREEN (insert).
-        verify(pdfHighlighter).drawRectangle(cb, rect4, BaseColor.GREEN, width1);
+        verify(pdfHighlighter).drawWord(highlights, words2, 1, BaseColor.GREEN, width1);
 
         // No other highlights should occur
         verifyNoMoreInteractions(pdfHighlighter);
@@ -75,20 +71,17 @@ class TextComparatorTest extends AbstractBaseServiceTest {
         // words1 has "Hello", "World"
         Rectangle rect1 = new Rectangle(0, 0, 50, 10);
         Rectangle rect2 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk1 = new TextChunk("Hello", rect1);
-        TextChunk chunk2 = new TextChunk("World", rect2);
-        List<TextChunk> words1 = List.of(chunk1, chunk2);
+        PageText words1 = PageText.builder().add("Hello", rect1).add("World", rect2).build();
 
         // words2 has only "Hello" => "World" is deleted
         Rectangle rect3 = new Rectangle(0, 0, 50, 10);
-        TextChunk chunk3 = new TextChunk("Hello", rect3);
-        List<TextChunk> words2 = List.of(chunk3);
+        PageText words2 = PageText.builder().add("Hello", rect3).build();
 
         boolean isMultiple = false;
         float width1 = 100f;
 
         // WHEN
-        textComparator.compareText(cb, words1, words2, width1, isMultiple);
+        textComparator.compareText(highlights, words1, words2, width1, isMultiple);
 
         // THEN
         // Because isMultiple=false, the DELETE block won't highlight "World".
@@ -105,24 +98,21 @@ class TextComparatorTest extends AbstractBaseServiceTest {
         // words1 has "Hello", "World"
         Rectangle rect1 = new Rectangle(0, 0, 50, 10);
         Rectangle rect2 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk1 = new TextChunk("Hello", rect1);
-        TextChunk chunk2 = new TextChunk("World", rect2);
-        List<TextChunk> words1 = List.of(chunk1, chunk2);
+        PageText words1 = PageText.builder().add("Hello", rect1).add("World", rect2).build();
 
         // words2 has only "Hello" => "World" is deleted
         Rectangle rect3 = new Rectangle(0, 0, 50, 10);
-        TextChunk chunk3 = new TextChunk("Hello", rect3);
-        List<TextChunk> words2 = List.of(chunk3);
+        PageText words2 = PageText.builder().add("Hello", rect3).build();
 
         boolean isMultiple = true;
         float width1 = 100f;
 
         // WHEN
-        textComparator.compareText(cb, words1, words2, width1, isMultiple);
+        textComparator.compareText(highlights, words1, words2, width1, isMultiple);
 
         // THEN
-        // "World" (chunk2) should be highlighted in RED at offset x=0
-        verify(pdfHighlighter).drawRectangle(cb, rect2, BaseColor.RED, 0f);
+        // "World" should be highlighted in RED at offset x=0
+        verify(pdfHighlighter).drawWord(highlights, words1, 1, BaseColor.RED, 0f);
         verifyNoMoreInteractions(pdfHighlighter);
     }
 
@@ -135,24 +125,21 @@ class TextComparatorTest extends AbstractBaseServiceTest {
         // GIVEN
         // words1 has "Hello"
         Rectangle rect1 = new Rectangle(0, 0, 50, 10);
-        TextChunk chunk1 = new TextChunk("Hello", rect1);
-        List<TextChunk> words1 = List.of(chunk1);
+        PageText words1 = PageText.builder().add("Hello", rect1).build();
 
         // words2 has "Hello", "Mars" => "Mars" is inserted
         Rectangle rect2 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk2 = new TextChunk("Hello", rect1); // same rect as chunk1 for "Hello"
-        TextChunk chunk3 = new TextChunk("Mars", rect2);
-        List<TextChunk> words2 = List.of(chunk2, chunk3);
+        PageText words2 = PageText.builder().add("Hello", rect1).add("Mars", rect2).build();
 
         boolean isMultiple = false;
         float width1 = 100f;
 
         // WHEN
-        textComparator.compareText(cb, words1, words2, width1, isMultiple);
+        textComparator.compareText(highlights, words1, words2, width1, isMultiple);
 
         // THEN
         // "Mars" is an INSERT, so it should be highlighted in GREEN at x=0
-        verify(pdfHighlighter).drawRectangle(cb, rect2, BaseColor.GREEN, 0f);
+        verify(pdfHighlighter).drawWord(highlights, words2, 1, BaseColor.GREEN, 0f);
         verifyNoMoreInteractions(pdfHighlighter);
     }
 
@@ -166,27 +153,23 @@ class TextComparatorTest extends AbstractBaseServiceTest {
         // GIVEN
         Rectangle rect1 = new Rectangle(0, 0, 50, 10);
         Rectangle rect2 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk1 = new TextChunk("Hello", rect1);
-        TextChunk chunk2 = new TextChunk("World", rect2);
-        List<TextChunk> words1 = List.of(chunk1, chunk2);
+        PageText words1 = PageText.builder().add("Hello", rect1).add("World", rect2).build();
 
         Rectangle rect3 = new Rectangle(0, 0, 50, 10);
         Rectangle rect4 = new Rectangle(0, 20, 50, 30);
-        TextChunk chunk3 = new TextChunk("Hello", rect3);
-        TextChunk chunk4 = new TextChunk("Mars", rect4);
-        List<TextChunk> words2 = List.of(chunk3, chunk4);
+        PageText words2 = PageText.builder().add("Hello", rect3).add("Mars", rect4).build();
 
         boolean isMultiple = true;
         float width1 = 100f;
 
         // WHEN
-        textComparator.compareText(cb, words1, words2, width1, isMultiple);
+        textComparator.compareText(highlights, words1, words2, width1, isMultiple);
 
         // THEN
         // 'World' is deleted => highlight in RED at x=0
-        verify(pdfHighlighter).drawRectangle(cb, rect2, BaseColor.RED, 0f);
+        verify(pdfHighlighter).drawWord(highlights, words1, 1, BaseColor.RED, 0f);
         // 'Mars' is inserted => highlight in GREEN at x=width1
-        verify(pdfHighlighter).drawRectangle(cb, rect4, BaseColor.GREEN, 100f);
+        verify(pdfHighlighter).drawWord(highlights, words2, 1, BaseColor.GREEN, 100f);
 
         verifyNoMoreInteractions(pdfHighlighter);
     }
@@ -0,0 +1,48 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageText;
+import com.itextpdf.text.Rectangle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenDictionaryTest {
+
+    private static final Rectangle RECTANGLE = new Rectangle(0, 0, 10, 10);
+
+    @Test
+    void testEncode_whenPagesShareWords_thenEqualWordsGetEqualIds() {
+        // GIVEN
+        PageText words1 = PageText.builder().add("the", RECTANGLE).add("fee", RECTANGLE).add("the", RECTANGLE).build();
+        PageText words2 = PageText.builder().add("fee", RECTANGLE).add("rate", RECTANGLE).add("the", RECTANGLE).build();
+        TokenDictionary dictionary = new TokenDictionary(words1.size() + words2.size());
+
+        // WHEN
+        int[] ids1 = dictionary.encode(words1);
+        int[] ids2 = dictionary.encode(words2);
+
+        // THEN
+        assertArrayEquals(new int[]{0, 1, 0}, ids1);
+        assertArrayEquals(new int[]{1, 2, 0}, ids2);
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    void testEncode_whenMoreWordsThanExpected_thenTableGrows() {
+        // GIVEN
+        PageText.Builder builder = PageText.builder();
+        for (int i = 0; i < 1000; i++) {
+            builder.add("w" + i % 300, RECTANGLE);
+        }
+        TokenDictionary dictionary = new TokenDictionary(1);
+
+        // WHEN
+        int[] ids = dictionary.encode(builder.build());
+
+        // THEN
+        assertEquals(300, dictionary.size());
+        assertEquals(ids[5], ids[305]);
+        assertNotEquals(ids[5], ids[6]);
+    }
+
+}
@@ -0,0 +1,133 @@
+package com.example.pdfcompare.util;
+
+import com.example.pdfcompare.model.PageText;
+import com.github.difflib.patch.DeltaType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WordDiffTest {
+
+    private static final String[] VOCABULARY = {
+            "agreement", "party", "shall", "payment", "within", "days", "invoice", "term", "notice", "the",
+            "of", "and", "to", "in", "any", "such", "written", "consent", "provided", "that", "section",
+            "liability", "service", "data", "customer", "supplier", "period", "fee", "rate", "annual"
+    };
+
+    @Test
+    void testDiff_whenOneLineChanged_thenOnlyItsWordsAreDiffed() {
+        // GIVEN
+        PageText words1 = page(List.of(List.of("the", "fee", "is"), List.of("due", "within", "days"), List.of("of", "invoice")));
+        PageText words2 = page(List.of(List.of("the", "fee", "is"), List.of("due", "within", "ten", "days"), List.of("of", "invoice")));
+
+        // WHEN
+        List<MyersDiff.Delta> deltas = WordDiff.diff(words1, words2);
+
+        // THEN
+        assertEquals(List.of(new MyersDiff.Delta(DeltaType.INSERT, 5, 0, 5, 1)), deltas);
+    }
+
+    @Test
+    void testDiff_whenLineDeleted_thenItsWordsAreDeleted() {
+        // GIVEN
+        PageText words1 = page(List.of(List.of("a", "b"), List.of("c", "d", "e"), List.of("f")));
+        PageText words2 = page(List.of(List.of("a", "b"), List.of("f")));
+
+        // WHEN / THEN
+        assertEquals(List.of(new MyersDiff.Delta(DeltaType.DELETE, 2, 3, 2, 0)), WordDiff.diff(words1, words2));
+    }
+
+    @Test
+    void testDiff_whenLineBreaksMoved_thenSameDeltasAsFullWordDiff() {
+        // GIVEN: no line is equal, but the words of the first line continue on the second page.
+        PageText words1 = page(List.of(List.of("a", "b"), List.of("c")));
+        PageText words2 = page(List.of(List.of("a", "b", "c"), List.of("c")));
+
+        // WHEN / THEN
+        assertEquals(List.of(new MyersDiff.Delta(DeltaType.INSERT, 3, 0, 3, 1)), WordDiff.diff(words1, words2));
+    }
+
+    @Test
+    void testDiff_onRegressionCorpus_thenSameDeltasAsFullWordDiff() {
+        Random random = new Random(11);
+        for (int round = 0; round < 500; round++) {
+            // GIVEN: a page of lines and a revision with a few lines edited, added or removed.
+            List<List<String>> lines1 = lines(random, 20 + random.nextInt(40));
+            List<List<String>> lines2 = revise(lines1, random);
+            PageText words1 = page(lines1);
+            PageText words2 = page(lines2);
+
+            // WHEN
+            List<MyersDiff.Delta> deltas = WordDiff.diff(words1, words2);
+
+            // THEN
+            TokenDictionary dictionary = new TokenDictionary(words1.size() + words2.size());
+            List<MyersDiff.Delta> full = MyersDiff.diff(dictionary.encode(words1), dictionary.encode(words2));
+            assertEquals(full, deltas, "round " + round);
+        }
+    }
+
+    private static List<List<String>> lines(Random random, int count) {
+        List<List<String>> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(line(random));
+        }
+        return lines;
+    }
+
+    private static List<String> line(Random random) {
+        List<String> line = new ArrayList<>();
+        int words = 4 + random.nextInt(10);
+        for (int i = 0; i < words; i++) {
+            line.add(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return line;
+    }
+
+    private static List<List<String>> revise(List<List<String>> lines, Random random) {
+        List<List<String>> revised = new ArrayList<>();
+        for (List<String> line : lines) {
+            revised.add(new ArrayList<>(line));
+        }
+        int edits = 1 + random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int index = random.nextInt(revised.size());
+            List<String> line = revised.get(index);
+            int position = random.nextInt(line.size());
+            switch (random.nextInt(5)) {
+                case 0 -> line.set(position, "edited");
+                case 1 -> line.add(position, "inserted");
+                case 2 -> {
+                    if (line.size() > 1) {
+                        line.remove(position);
+                    }
+                }
+                case 3 -> revised.add(index, line(random));
+                default -> {
+                    if (revised.size() > 1) {
+                        revised.remove(index);
+                    }
+                }
+            }
+        }
+        return revised;
+    }
+
+    private static PageText page(List<List<String>> lines) {
+        PageText.Builder builder = PageText.builder();
+        for (int y = 0; y < lines.size(); y++) {
+            float bottom = 800 - y * 12;
+            List<String> line = lines.get(y);
+            for (int x = 0; x < line.size(); x++) {
+                String word = line.get(x);
+                builder.add(word, 0, word.length(), x * 40, bottom, x * 40 + 30, bottom + 8);
+            }
+        }
+        return builder.build();
+    }
+
+}